@@ -0,0 +1,87 @@
+package benchmarks;
+
+import modules.BatchEvaluator;
+import modules.BitSolution;
+import modules.CostMatrix;
+import modules.DeltaEvaluator;
+import modules.fileReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares scoring a generation of the genetic algorithm with one batched pass over the cost matrix
+ * against one calculateSolutionCost() call per chromosome, on both layouts of the cost matrix.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+    @Param({"Kcapmq1", "Kcapmr1", "capb"})
+    public String instance;
+
+    @Param({"ROW_MAJOR", "COLUMN_MAJOR"})
+    public CostMatrix.Layout layout;
+
+    @Param({"48"})
+    public int population;
+
+    private BitSolution[] solutions; // Chromosomes with about one warehouse in twenty open
+    private double[] costs; // Cost of each chromosome
+    private BatchEvaluator batchEvaluator; // Batched evaluator over the benchmarked layout
+    private DeltaEvaluator evaluator; // Evaluator over the benchmarked layout
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        InstanceState.silenceSolvers();
+        CostMatrix costMatrix = new fileReader().readFile(InstanceState.findInstance(instance))
+                .getCostMatrix().withLayout(layout);
+
+        int size = costMatrix.getNumWarehouses();
+        SplittableRandom rand = new SplittableRandom(42);
+        this.solutions = new BitSolution[population];
+        for (int b = 0; b < population; b++) {
+            solutions[b] = new BitSolution(size);
+            for (int i = 0; i < size; i++) {
+                if (rand.nextInt(20) == 0) {
+                    solutions[b].set(i);
+                }
+            }
+            solutions[b].set(rand.nextInt(size));
+        }
+        this.costs = new double[population];
+        this.batchEvaluator = new BatchEvaluator(costMatrix);
+        this.evaluator = new DeltaEvaluator(costMatrix);
+    }
+
+    @Benchmark
+    public double[] batched() {
+        batchEvaluator.evaluate(solutions, population, costs);
+        return costs;
+    }
+
+    @Benchmark
+    public double[] oneByOne() {
+        for (int b = 0; b < population; b++) {
+            costs[b] = evaluator.calculateSolutionCost(solutions[b]);
+        }
+        return costs;
+    }
+}
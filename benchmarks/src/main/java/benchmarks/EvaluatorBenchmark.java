@@ -0,0 +1,55 @@
+package benchmarks;
+
+import modules.FlipNeighbourhood;
+import modules.Neighbourhood;
+import modules.SwapNeighbourhood;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the full cost evaluation of a solution and one sweep of the swap and flip neighbourhoods
+ * scored with incremental deltas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+
+    @Benchmark
+    public double calculateSolutionCost(InstanceState state) {
+        return state.evaluator.calculateSolutionCost(state.solution);
+    }
+
+    @Benchmark
+    public double swapNeighbourhoodSweep(InstanceState state) {
+        Neighbourhood neighbourhood = new SwapNeighbourhood(state.solution.size());
+        return sweep(state, neighbourhood);
+    }
+
+    @Benchmark
+    public double flipNeighbourhoodSweep(InstanceState state) {
+        Neighbourhood neighbourhood = new FlipNeighbourhood(state.solution.size(), false);
+        return sweep(state, neighbourhood);
+    }
+
+    /**
+     * Scores every move of a neighbourhood and returns the best delta.
+     */
+    private static double sweep(InstanceState state, Neighbourhood neighbourhood) {
+        double best = Double.POSITIVE_INFINITY;
+        neighbourhood.reset(state.solution);
+        while (neighbourhood.hasNext()) {
+            best = Math.min(best, state.evaluator.delta(neighbourhood.next()));
+        }
+        return best;
+    }
+}
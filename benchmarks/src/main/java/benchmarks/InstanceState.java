@@ -0,0 +1,81 @@
+package benchmarks;
+
+import modules.BitSolution;
+import modules.DataContainer;
+import modules.DeltaEvaluator;
+import modules.fileReader;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark state holding a loaded instance, a fixed pseudo-random solution and an evaluator loaded with it.
+ * The instances are looked up by name under the directory given by the "instances.dir" system property.
+ */
+@State(Scope.Benchmark)
+public class InstanceState {
+
+    @Param({"cap71", "cap131", "capa", "Kcapmo1", "Kcapmr1"})
+    public String instance;
+
+    public String path; // Path of the instance file
+    public DataContainer data; // Loaded instance
+    public BitSolution solution; // Solution with roughly a third of the warehouses open
+    public DeltaEvaluator evaluator; // Evaluator loaded with the solution
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        silenceSolvers();
+        this.path = findInstance(instance);
+        this.data = new fileReader().readFile(path);
+
+        int size = data.getCostMatrix().getNumWarehouses();
+        SplittableRandom rand = new SplittableRandom(42);
+        this.solution = new BitSolution(size);
+        for (int i = 0; i < size; i++) {
+            if (rand.nextInt(3) == 0) {
+                solution.set(i);
+            }
+        }
+        solution.set(0);
+        this.evaluator = new DeltaEvaluator(data.getCostMatrix());
+        this.evaluator.load(solution);
+    }
+
+    /**
+     * The solvers log their progress to System.out; drop it so that console I/O is not measured.
+     */
+    static void silenceSolvers() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * Finds the file of an instance by name.
+     *
+     * @param name Instance name, without the .txt extension.
+     * @return Absolute path of the instance file.
+     * @throws IOException If the instance directory cannot be read or the instance does not exist.
+     */
+    static String findInstance(String name) throws IOException {
+        Path root = Path.of(System.getProperty("instances.dir", "src/FicheirosTeste"));
+        try (Stream<Path> paths = Files.walk(root)) {
+            Optional<Path> file = paths.filter(p -> p.getFileName().toString().equals(name + ".txt")).findFirst();
+            if (file.isEmpty()) {
+                throw new FileNotFoundException(name + ".txt not found under " + root.toAbsolutePath());
+            }
+            return file.get().toAbsolutePath().toString();
+        }
+    }
+}
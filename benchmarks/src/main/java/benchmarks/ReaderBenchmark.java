@@ -0,0 +1,59 @@
+package benchmarks;
+
+import modules.DataContainer;
+import modules.InstanceCache;
+import modules.fileReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures fileReader.readFile, parsing the text file or reloading it from the binary instance cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReaderBenchmark {
+
+    @Param({"cap71", "cap131", "capa", "Kcapmo1", "Kcapmr1"})
+    public String instance;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private String path;
+    private fileReader reader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        InstanceState.silenceSolvers();
+        this.path = InstanceState.findInstance(instance);
+        this.reader = new fileReader();
+        if (!cached) {
+            this.reader.setCache(null);
+        } else {
+            this.reader.readFile(path); // Make sure the cache file exists
+        }
+    }
+
+    @Benchmark
+    public DataContainer readFile() throws FileNotFoundException {
+        return reader.readFile(path);
+    }
+}
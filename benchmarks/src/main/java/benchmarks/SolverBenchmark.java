@@ -0,0 +1,47 @@
+package benchmarks;
+
+import modules.AlgorithmResult;
+import modules.Greedy;
+import modules.ImprovSwap;
+import modules.Swap;
+import modules.Switch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures complete runs of the solvers, from the initial solution to the end of the local search.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+
+    @Benchmark
+    public AlgorithmResult useSwap(InstanceState state) {
+        return new Swap(state.data).useSwap();
+    }
+
+    @Benchmark
+    public AlgorithmResult useImprovSwap(InstanceState state) {
+        return new ImprovSwap(state.data).useSwap();
+    }
+
+    @Benchmark
+    public AlgorithmResult useSwitch(InstanceState state) {
+        return new Switch(state.data).useSwitch();
+    }
+
+    @Benchmark
+    public AlgorithmResult useGreedy(InstanceState state) {
+        return new Greedy(state.data).useGreedy();
+    }
+}
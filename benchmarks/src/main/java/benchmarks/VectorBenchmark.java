@@ -0,0 +1,72 @@
+package benchmarks;
+
+import modules.BitSolution;
+import modules.CostMatrix;
+import modules.DeltaEvaluator;
+import modules.VectorSupport;
+import modules.fileReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scalar and the SIMD backends of the full cost evaluation, on both layouts of the cost matrix.
+ * The forked JVM gets the Vector API module; without it the vectorized runs fall back to the scalar backend.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class VectorBenchmark {
+
+    @Param({"Kcapmq1", "Kcapmr1", "capa", "capb", "capc"})
+    public String instance;
+
+    @Param({"false", "true"})
+    public boolean vectorized;
+
+    @Param({"ROW_MAJOR", "COLUMN_MAJOR"})
+    public CostMatrix.Layout layout;
+
+    private BitSolution solution; // Solution with roughly a third of the warehouses open
+    private DeltaEvaluator evaluator; // Evaluator over the cost matrix in the benchmarked layout
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        InstanceState.silenceSolvers();
+        CostMatrix costMatrix = new fileReader().readFile(InstanceState.findInstance(instance))
+                .getCostMatrix().withLayout(layout);
+
+        int size = costMatrix.getNumWarehouses();
+        SplittableRandom rand = new SplittableRandom(42);
+        this.solution = new BitSolution(size);
+        for (int i = 0; i < size; i++) {
+            if (rand.nextInt(3) == 0) {
+                solution.set(i);
+            }
+        }
+        solution.set(0);
+        this.evaluator = new DeltaEvaluator(costMatrix);
+        VectorSupport.setEnabled(vectorized);
+    }
+
+    @Benchmark
+    public double calculateSolutionCost() {
+        return evaluator.calculateSolutionCost(solution);
+    }
+}
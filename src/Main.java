@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * Main class that contains the main method to run the application.
@@ -19,6 +20,11 @@ public class Main {
      * @param args Command-line arguments.
      */
     public static void main(String[] args) {
+        if (args.length > 0) {
+            runBatch(args);
+            return;
+        }
+
         fileReader reader = new fileReader();
         Scanner scan = new Scanner(System.in);
         // Change this variable to read all files in a directory (true) or only a single file (false)
@@ -37,7 +43,7 @@ public class Main {
         // List to store the results of the algorithms
         List<String> results = new ArrayList<>();
 
-        System.out.print("1-Swap Normal\n2-Improved Swap\n3-Switch\n4-Greedy\n0-Exit\nOption: ");
+        System.out.print("1-Swap Normal\n2-Improved Swap\n3-Switch\n4-Greedy\n5-Multi-start Swap\n6-Multi-start Improved Swap\n7-Greedy ADD\n8-Greedy ADD + Improved Swap\n9-Greedy steepest DROP\n10-Branch and bound\n11-Simulated annealing\n12-Tabu search\n13-Variable neighbourhood search\n14-GRASP\n15-Genetic algorithm\n16-Multi-start Improved Swap + path relinking\n0-Exit\nOption: ");
         int op = Integer.parseInt(scan.nextLine());
 
         if (op == 0) {
@@ -50,42 +56,130 @@ public class Main {
             try {
                 // Reads the file and stores the data
                 DataContainer data = reader.readFile(filePath);
-                AlgorithmResult result = null;
+                AlgorithmResult result = BatchRunner.solve(op, data);
+                if (result == null) {
+                    System.out.println("Not an option");
+                    continue;
+                }
+
+                // Add the result to the results list
+                results.add(BatchRunner.describe(filePath, result));
+
+            } catch (FileNotFoundException e) {
+                System.err.println("File not found: " + filePath);
+            }
+        }
 
-                switch (op) {
-                    case 1:
-                        Swap swapAlg = new Swap(data);
-                        result = swapAlg.useSwap();
+        writeResultsToFile(results, "C:\\Users\\Francisco\\Desktop\\AAO_project\\results.txt");
+    }
+
+    /**
+     * Runs the headless batch mode, which solves every instance of a directory concurrently.
+     * Usage: --dir &lt;instance directory&gt; --alg &lt;1-16&gt; [--workers &lt;n&gt;] [--out &lt;results file&gt;] [--virtual-io]
+     * [--no-reduce] [--time-limit &lt;seconds per instance&gt;] [--progress] [--eval-cache [bytes]]
+     * [--candidates &lt;k&gt;]
+     * Interrupting the batch (e.g. Ctrl+C) cancels the instances being solved, which return their best solution so far,
+     * and the results are still written.
+     *
+     * @param args Command-line arguments.
+     */
+    private static void runBatch(String[] args) {
+        String dirPath = null;
+        String outputPath = "results.txt";
+        int op = 0;
+        int workers = Runtime.getRuntime().availableProcessors();
+        boolean virtualIO = false;
+        boolean reduce = true;
+        double timeLimit = Double.POSITIVE_INFINITY;
+        boolean progress = false;
+        long evalCacheBytes = 0;
+        int candidates = 0;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--dir":
+                        dirPath = args[++i];
+                        break;
+                    case "--alg":
+                        op = Integer.parseInt(args[++i]);
+                        break;
+                    case "--workers":
+                        workers = Integer.parseInt(args[++i]);
                         break;
-                    case 2:
-                        ImprovSwap improvSwapAlg = new ImprovSwap(data);
-                        result = improvSwapAlg.useSwap();
+                    case "--out":
+                        outputPath = args[++i];
                         break;
-                    case 3:
-                        Switch switchAlg = new Switch(data);
-                        result = switchAlg.useSwitch();
+                    case "--virtual-io":
+                        virtualIO = true;
                         break;
-                    case 4:
-                        Greedy greedy = new Greedy(data);
-                        result = greedy.useGreedy();
+                    case "--no-reduce":
+                        reduce = false;
+                        break;
+                    case "--time-limit":
+                        timeLimit = Double.parseDouble(args[++i]);
+                        break;
+                    case "--progress":
+                        progress = true;
+                        break;
+                    case "--eval-cache":
+                        // The memory cap is optional
+                        evalCacheBytes = i + 1 < args.length && !args[i + 1].startsWith("--")
+                                ? Long.parseLong(args[++i]) : EvaluationCache.DEFAULT_MAX_BYTES;
+                        break;
+                    case "--candidates":
+                        candidates = Integer.parseInt(args[++i]);
                         break;
                     default:
-                        System.out.println("Not an option");
-                        continue;
+                        throw new IllegalArgumentException("Unknown argument: " + args[i]);
                 }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println("Invalid arguments: " + e.getMessage());
+            dirPath = null;
+        }
 
-                // If a result is obtained, add it to the results list
-                if (result != null) {
-                    String fileName = new File(filePath).getName();
-                    results.add("Results for " + fileName + ": " + result);
-                }
+        if (dirPath == null || !BatchRunner.isOption(op) || workers < 1 || !(timeLimit > 0) || evalCacheBytes < 0
+                || candidates < 0) {
+            System.err.println("Usage: --dir <instance directory> --alg <1-16> [--workers <n>] [--out <results file>] [--virtual-io]"
+                    + " [--no-reduce] [--time-limit <seconds per instance>] [--progress] [--eval-cache [bytes]]"
+                    + " [--candidates <k>]");
+            return;
+        }
 
-            } catch (FileNotFoundException e) {
-                System.err.println("File not found: " + filePath);
-            }
+        BatchRunner runner = new BatchRunner(op, workers, virtualIO, reduce);
+        runner.setTimeLimit(timeLimit);
+        runner.setEvaluationCacheBytes(evalCacheBytes);
+        runner.setCandidateListSize(candidates);
+        if (progress) {
+            runner.setProgressListener(event -> System.err.println("Progress " + event));
         }
 
-        writeResultsToFile(results, "C:\\Users\\Francisco\\Desktop\\AAO_project\\results.txt");
+        // On interruption, stop the solvers and keep the JVM alive until the results are written
+        CountDownLatch finished = new CountDownLatch(1);
+        Thread shutdownHook = new Thread(() -> {
+            runner.cancel();
+            try {
+                finished.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        try {
+            List<String> filePaths = BatchRunner.findInstanceFiles(dirPath);
+            List<String> results = runner.run(filePaths);
+            writeResultsToFile(results, outputPath);
+        } catch (IOException e) {
+            System.err.println("Error reading directory: " + dirPath);
+        } finally {
+            finished.countDown();
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // The JVM is already shutting down and the hook is running
+            }
+        }
     }
 
     /**
@@ -2,11 +2,15 @@ package modules;
 
 /**
  * AlgorithmResult class represents a container with the result of an algorithm execution.
- * It stores the best solution cost and the elapsed time.
+ * It stores the best solution cost and the elapsed time, and optionally the best solution, a lower bound of the
+ * optimum and the evaluation cache the algorithm consulted.
  */
 public class AlgorithmResult {
-    private final double bestSolutionCost; // Best solution cost
+    private double bestSolutionCost; // Best solution cost
     private final double elapsedTimeInSeconds; // Elapsed time in seconds
+    private double lowerBound = Double.NaN; // Lower bound of the optimum, NaN if unknown
+    private BitSolution bestSolution; // Open warehouses of the best solution, null if not kept
+    private EvaluationCache evaluationCache; // Cache consulted by the algorithm, null if none
 
     /**
      * Constructor to initialize AlgorithmResult with the best solution cost and elapsed time.
@@ -28,6 +32,34 @@ public class AlgorithmResult {
         return bestSolutionCost;
     }
 
+    /**
+     * Adds a constant to the best solution cost, e.g. the fixed costs that a ProblemReduction took out of the
+     * instance the algorithm ran on.
+     *
+     * @param offset The constant to add.
+     */
+    public void addCostOffset(double offset) {
+        this.bestSolutionCost += offset;
+    }
+
+    /**
+     * Getter for the best solution.
+     *
+     * @return Bitset of the open warehouses of the best solution, or null if it was not kept.
+     */
+    public BitSolution getBestSolution() {
+        return bestSolution;
+    }
+
+    /**
+     * Setter for the best solution, whose cost is the best solution cost.
+     *
+     * @param bestSolution Bitset of the open warehouses of the best solution.
+     */
+    public void setBestSolution(BitSolution bestSolution) {
+        this.bestSolution = bestSolution;
+    }
+
     /**
      * Getter for retrieving the elapsed time in seconds.
      *
@@ -37,14 +69,68 @@ public class AlgorithmResult {
         return elapsedTimeInSeconds;
     }
 
+    /**
+     * Getter for the lower bound of the optimum.
+     *
+     * @return Lower bound, or NaN if none was set.
+     */
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * Setter for the lower bound of the optimum.
+     *
+     * @param lowerBound Lower bound, e.g. computed by LowerBound.
+     */
+    public void setLowerBound(double lowerBound) {
+        this.lowerBound = lowerBound;
+    }
+
+    /**
+     * Getter for the evaluation cache consulted by the algorithm.
+     *
+     * @return The evaluation cache, or null if the algorithm ran without one.
+     */
+    public EvaluationCache getEvaluationCache() {
+        return evaluationCache;
+    }
+
+    /**
+     * Setter for the evaluation cache consulted by the algorithm, whose counters are then reported by toString().
+     *
+     * @param evaluationCache The evaluation cache, or null for none.
+     */
+    public void setEvaluationCache(EvaluationCache evaluationCache) {
+        this.evaluationCache = evaluationCache;
+    }
+
+    /**
+     * Computes the optimality gap of the best solution cost against the lower bound.
+     *
+     * @return Gap in percent of the best solution cost, or NaN if no lower bound was set.
+     */
+    public double getGap() {
+        return (bestSolutionCost - lowerBound) / bestSolutionCost * 100;
+    }
+
     /**
      * Overrides toString() method to provide a string representation of the AlgorithmResult object.
-     * Formats the result as "Best Solution Cost: <bestSolutionCost>, Time Elapsed: <elapsedTimeInSeconds> seconds".
+     * Formats the result as "Best Solution Cost: <bestSolutionCost>, Time Elapsed: <elapsedTimeInSeconds> seconds",
+     * followed by ", Lower Bound: <lowerBound>, Gap: <gap>%" when a lower bound was set and by
+     * ", Evaluation Cache: <counters>" when an evaluation cache was set.
      *
      * @return String representation of the AlgorithmResult object.
      */
     @Override
     public String toString() {
-        return "Best Solution Cost: " + bestSolutionCost + ", Time Elapsed: " + elapsedTimeInSeconds + " seconds";
+        String result = "Best Solution Cost: " + bestSolutionCost + ", Time Elapsed: " + elapsedTimeInSeconds + " seconds";
+        if (!Double.isNaN(lowerBound)) {
+            result += ", Lower Bound: " + lowerBound + ", Gap: " + String.format("%.4f", getGap()) + "%";
+        }
+        if (evaluationCache != null) {
+            result += ", Evaluation Cache: " + evaluationCache;
+        }
+        return result;
     }
 }
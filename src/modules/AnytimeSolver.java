@@ -0,0 +1,48 @@
+package modules;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * AnytimeSolver Interface
+ * Solver that can run under a SolverControl. It stops at the deadline of the control or as soon as the control is
+ * cancelled, and still returns the best solution found so far. Every improving solution is reported to the control,
+ * starting with the initial one, so the caller always has an answer.
+ */
+public interface AnytimeSolver {
+
+    /**
+     * Runs the solver under a control. The control is started if it was not started yet.
+     *
+     * @param control Deadline, cancellation flag and progress listener of the run.
+     * @return AlgorithmResult containing the best solution cost and elapsed time.
+     */
+    AlgorithmResult solve(SolverControl control);
+
+    /**
+     * Getter for the best solution found by the last run.
+     *
+     * @return Bitset of the open warehouses of the best solution.
+     */
+    BitSolution getBestSolution();
+
+    /**
+     * Runs a solver under a control: starts the control, installs it for the run and puts back a control without
+     * a deadline afterwards, so that the plain useX() entry points of the solver run to completion.
+     *
+     * @param control Deadline, cancellation flag and progress listener of the run.
+     * @param install Sets the control field of the solver.
+     * @param run The run, e.g. the useX() entry point of the solver.
+     * @param <R> Type of the result.
+     * @return The result of the run.
+     */
+    static <R> R runUnder(SolverControl control, Consumer<SolverControl> install, Supplier<R> run) {
+        control.start();
+        install.accept(control);
+        try {
+            return run.get();
+        } finally {
+            install.accept(new SolverControl());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package modules;
+
+import java.util.Arrays;
+
+/**
+ * BatchEvaluator Class
+ * Scores a batch of solutions with one pass over the cost matrix, instead of one pass per solution.
+ * In a ROW_MAJOR matrix each client row is read once and every solution of the batch takes its minimum over its
+ * open warehouses while the row is in cache. In a COLUMN_MAJOR matrix the clients are processed in blocks, and for
+ * each block every solution takes the elementwise minimum of the block segments of its open columns, so the same
+ * segments are reused across the batch; the minima use the SIMD kernel when VectorSupport is enabled.
+ * Either way the costs are added in the same order as DeltaEvaluator.calculateSolutionCost(), so both give the
+ * same result.
+ * Not thread-safe: each thread needs its own BatchEvaluator.
+ */
+public class BatchEvaluator {
+
+    private static final int BLOCK = 256; // Clients per block in COLUMN_MAJOR matrices
+
+    private final CostMatrix costMatrix; // Primitive cost matrix of the instance
+    private final float[] allocCosts; // Raw allocation costs
+    private final int numWarehouses; // Number of warehouses
+    private final int numClients; // Number of clients
+    private int[][] openLists; // Open warehouses of each solution of the batch
+    private int[] openCounts; // Number of open warehouses of each solution of the batch
+    private float[] blockMins; // Block minimums of each solution of the batch (COLUMN_MAJOR)
+
+    /**
+     * Constructor for BatchEvaluator.
+     *
+     * @param costMatrix The cost matrix of the instance.
+     */
+    public BatchEvaluator(CostMatrix costMatrix) {
+        this.costMatrix = costMatrix;
+        this.allocCosts = costMatrix.getAllocCosts();
+        this.numWarehouses = costMatrix.getNumWarehouses();
+        this.numClients = costMatrix.getNumClients();
+        this.openLists = new int[0][];
+        this.openCounts = new int[0];
+    }
+
+    /**
+     * Calculates the cost of every solution of a batch.
+     * A solution with no open warehouse costs positive infinity.
+     *
+     * @param solutions The solutions.
+     * @param count Number of solutions to score, from the start of the array.
+     * @param costs Array receiving the cost of each solution.
+     */
+    public void evaluate(BitSolution[] solutions, int count, double[] costs) {
+        prepare(solutions, count, costs);
+        if (this.costMatrix.getLayout() == CostMatrix.Layout.ROW_MAJOR) {
+            evaluateRows(count, costs);
+        } else {
+            evaluateBlocks(count, costs);
+        }
+    }
+
+    /**
+     * Lists the open warehouses of each solution and adds up their fixed costs.
+     *
+     * @param solutions The solutions.
+     * @param count Number of solutions to score.
+     * @param costs Array receiving the fixed cost of each solution.
+     */
+    private void prepare(BitSolution[] solutions, int count, double[] costs) {
+        if (this.openLists.length < count) {
+            this.openLists = Arrays.copyOf(this.openLists, count);
+            this.openCounts = new int[count];
+            this.blockMins = new float[count * BLOCK];
+        }
+        for (int b = 0; b < count; b++) {
+            if (this.openLists[b] == null) {
+                this.openLists[b] = new int[this.numWarehouses];
+            }
+            int[] open = this.openLists[b];
+            int size = 0;
+            double fixedCost = 0;
+            BitSolution solution = solutions[b];
+            for (int j = solution.nextSetBit(0); j >= 0; j = solution.nextSetBit(j + 1)) {
+                open[size++] = j;
+                fixedCost += this.costMatrix.getFixedCost(j);
+            }
+            this.openCounts[b] = size;
+            costs[b] = fixedCost;
+        }
+    }
+
+    /**
+     * Adds the allocation costs of a ROW_MAJOR matrix, one client row at a time.
+     *
+     * @param count Number of solutions to score.
+     * @param costs Array holding the fixed costs, receiving the total costs.
+     */
+    private void evaluateRows(int count, double[] costs) {
+        for (int c = 0; c < this.numClients; c++) {
+            int row = this.costMatrix.index(c, 0);
+            for (int b = 0; b < count; b++) {
+                int[] open = this.openLists[b];
+                float min = Float.POSITIVE_INFINITY;
+                for (int i = 0, size = this.openCounts[b]; i < size; i++) {
+                    min = Math.min(min, this.allocCosts[row + open[i]]);
+                }
+                costs[b] += min;
+            }
+        }
+    }
+
+    /**
+     * Adds the allocation costs of a COLUMN_MAJOR matrix, one block of clients at a time.
+     *
+     * @param count Number of solutions to score.
+     * @param costs Array holding the fixed costs, receiving the total costs.
+     */
+    private void evaluateBlocks(int count, double[] costs) {
+        float[] mins = this.blockMins;
+        boolean vectorized = VectorSupport.isEnabled();
+        for (int from = 0; from < this.numClients; from += BLOCK) {
+            int length = Math.min(BLOCK, this.numClients - from);
+            for (int b = 0; b < count; b++) {
+                int base = b * BLOCK;
+                Arrays.fill(mins, base, base + length, Float.POSITIVE_INFINITY);
+                int[] open = this.openLists[b];
+                for (int i = 0, size = this.openCounts[b]; i < size; i++) {
+                    int column = this.costMatrix.index(from, open[i]);
+                    if (vectorized) {
+                        VectorKernels.minInto(mins, base, this.allocCosts, column, length);
+                        continue;
+                    }
+                    for (int k = 0; k < length; k++) {
+                        mins[base + k] = Math.min(mins[base + k], this.allocCosts[column + k]);
+                    }
+                }
+                // Clients in index order, as in DeltaEvaluator
+                double cost = costs[b];
+                for (int k = 0; k < length; k++) {
+                    cost += mins[base + k];
+                }
+                costs[b] = cost;
+            }
+        }
+    }
+}
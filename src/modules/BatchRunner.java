@@ -0,0 +1,498 @@
+package modules;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * BatchRunner Class
+ * Headless runner that loads and solves every instance of a directory concurrently.
+ * Loading runs on an I/O executor (virtual threads when the JVM supports them) and solving runs on a bounded
+ * pool of platform threads, while the results are always returned in the order of the instance files. The parallel
+ * algorithms get an equal share of the cores on each worker, so the CPU stage never runs more solver threads than
+ * there are cores (or workers, when there are more workers than cores).
+ * Unless disabled, each instance goes through a ProblemReduction before the algorithm runs.
+ * Each instance is solved under its own SolverControl, which can limit its wall-clock time and report its improving
+ * solutions, and cancel() stops every instance being solved, so that the batch still returns the best solution
+ * found for each of them.
+ */
+public class BatchRunner {
+
+    private final int option; // Algorithm to run, using the same numbering as the Main menu
+    private final int workers; // Number of platform threads of the CPU stage
+    private final boolean virtualThreadsForIO; // Whether the I/O stage uses virtual threads
+    private final boolean reduce; // Whether the instances are reduced before solving
+    private final int parallelism; // Threads of the parallel algorithms on one instance, a share of the cores
+    private final Set<SolverControl> activeControls; // Controls of the instances being solved
+    private double timeLimit; // Wall-clock time allowed per instance in seconds, positive infinity for none
+    private long evaluationCacheBytes; // Memory cap of the evaluation cache of each instance, 0 for no cache
+    private int candidateListSize; // Nearest warehouses per client scored by the local searches, 0 for all
+    private ProgressListener progressListener; // Listener of the improving solutions of every instance, or null
+    private volatile boolean cancelled; // Set by cancel(), stops the instances not solved yet as soon as they start
+
+    /**
+     * Constructor for BatchRunner.
+     *
+     * @param option The algorithm to run (1-Swap Normal, 2-Improved Swap, 3-Switch, 4-Greedy,
+     *               5-Multi-start Swap, 6-Multi-start Improved Swap,
+     *               7-Greedy ADD, 8-Greedy ADD + Improved Swap, 9-Greedy steepest DROP,
+     *               10-Branch and bound, 11-Simulated annealing, 12-Tabu search,
+     *               13-Variable neighbourhood search, 14-GRASP, 15-Genetic algorithm,
+     *               16-Multi-start Improved Swap + path relinking).
+     * @param workers Number of platform threads used to solve the instances.
+     * @param virtualThreadsForIO Whether the instances are loaded on virtual threads.
+     */
+    public BatchRunner(int option, int workers, boolean virtualThreadsForIO) {
+        this(option, workers, virtualThreadsForIO, true);
+    }
+
+    /**
+     * Constructor for BatchRunner.
+     *
+     * @param option The algorithm to run, using the same numbering as the Main menu.
+     * @param workers Number of platform threads used to solve the instances.
+     * @param virtualThreadsForIO Whether the instances are loaded on virtual threads.
+     * @param reduce Whether each instance is reduced with ProblemReduction before solving.
+     */
+    public BatchRunner(int option, int workers, boolean virtualThreadsForIO, boolean reduce) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("The number of workers must be at least 1.");
+        }
+        this.option = option;
+        this.workers = workers;
+        this.virtualThreadsForIO = virtualThreadsForIO;
+        this.reduce = reduce;
+        this.parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / workers);
+        this.activeControls = ConcurrentHashMap.newKeySet();
+        this.timeLimit = Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Setter for the wall-clock time allowed to each instance, from the start of its lower bound to the end of
+     * the algorithm.
+     *
+     * @param timeLimit Time limit in seconds, or positive infinity for none.
+     */
+    public void setTimeLimit(double timeLimit) {
+        if (!(timeLimit > 0)) {
+            throw new IllegalArgumentException("The time limit must be positive.");
+        }
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Setter for the memory cap of the evaluation cache attached to the local searches that consult one: Swap,
+     * Switch and ImprovSwap, which then runs its SAMPLED search (options 1, 2, 3 and 8). Each instance gets its own
+     * cache, whose counters are appended to its result line.
+     *
+     * @param maxBytes Memory cap of the cache in bytes, e.g. EvaluationCache.DEFAULT_MAX_BYTES, or 0 for no cache.
+     */
+    public void setEvaluationCacheBytes(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("The evaluation cache size cannot be negative.");
+        }
+        this.evaluationCacheBytes = maxBytes;
+    }
+
+    /**
+     * Setter for the candidate list size of the local searches that support one: ImprovSwap (options 2 and 8),
+     * SimulatedAnnealing (option 11) and TabuSearch (option 12).
+     *
+     * @param k Number of nearest warehouses of each client, or 0 to score openings over every client.
+     */
+    public void setCandidateListSize(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("The candidate list size cannot be negative.");
+        }
+        this.candidateListSize = k;
+    }
+
+    /**
+     * Setter for the listener of the improving solutions. The events carry the name of the instance file as label
+     * and may come from several threads at once.
+     *
+     * @param progressListener The listener, or null for none.
+     */
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Asks the instances being solved to stop and return their best solution, and makes the instances not solved
+     * yet stop as soon as they start. Can be called from any thread, e.g. a shutdown hook.
+     */
+    public void cancel() {
+        this.cancelled = true;
+        for (SolverControl control : this.activeControls) {
+            control.cancel();
+        }
+    }
+
+    /**
+     * Checks whether a menu option corresponds to an algorithm.
+     *
+     * @param option The menu option.
+     * @return true if solve() accepts the option, false otherwise.
+     */
+    public static boolean isOption(int option) {
+        return option >= 1 && option <= 16;
+    }
+
+    /**
+     * Runs the algorithm selected by a menu option on the reduced instance.
+     *
+     * @param option The algorithm to run (1-Swap Normal, 2-Improved Swap, 3-Switch, 4-Greedy,
+     *               5-Multi-start Swap, 6-Multi-start Improved Swap,
+     *               7-Greedy ADD, 8-Greedy ADD + Improved Swap, 9-Greedy steepest DROP,
+     *               10-Branch and bound, 11-Simulated annealing, 12-Tabu search,
+     *               13-Variable neighbourhood search, 14-GRASP, 15-Genetic algorithm,
+     *               16-Multi-start Improved Swap + path relinking).
+     * @param data The instance to solve.
+     * @return The result of the algorithm with the lower bound of the instance, or null if the option does not exist.
+     */
+    public static AlgorithmResult solve(int option, DataContainer data) {
+        return solve(option, data, true);
+    }
+
+    /**
+     * Runs the algorithm selected by a menu option on an instance, optionally on its reduced instance.
+     * The best solution is mapped back by the reduction, so the solution and its cost refer to the original instance.
+     *
+     * @param option The algorithm to run, using the same numbering as the Main menu.
+     * @param data The instance to solve.
+     * @param reduce Whether the instance is reduced with ProblemReduction first.
+     * @return The result of the algorithm with the lower bound of the instance, or null if the option does not exist.
+     */
+    public static AlgorithmResult solve(int option, DataContainer data, boolean reduce) {
+        return solve(option, data, reduce, new SolverControl());
+    }
+
+    /**
+     * Runs the algorithm selected by a menu option on an instance under a control, optionally on its reduced
+     * instance. The control is started before the lower bound, so its deadline covers the whole instance: the lower
+     * bound and the reduction also stop at it, keeping the valid bound and fixings found so far. The costs it
+     * reports refer to the original instance.
+     *
+     * @param option The algorithm to run, using the same numbering as the Main menu.
+     * @param data The instance to solve.
+     * @param reduce Whether the instance is reduced with ProblemReduction first.
+     * @param control Deadline, cancellation flag and progress listener of the run.
+     * @return The result of the algorithm with the lower bound of the instance, or null if the option does not exist.
+     */
+    public static AlgorithmResult solve(int option, DataContainer data, boolean reduce, SolverControl control) {
+        if (!isOption(option)) {
+            return null;
+        }
+        return new BatchRunner(option, 1, false, reduce).solveInstance(data, control);
+    }
+
+    /**
+     * Runs the algorithm of the runner on an instance under a control, as described in solve().
+     *
+     * @param data The instance to solve.
+     * @param control Deadline, cancellation flag and progress listener of the run.
+     * @return The result of the algorithm with the lower bound of the instance.
+     */
+    private AlgorithmResult solveInstance(DataContainer data, SolverControl control) {
+        control.start();
+        LowerBound bound = new LowerBound(data);
+        bound.compute(control);
+
+        AlgorithmResult result;
+        if (this.reduce) {
+            ProblemReduction reduction = new ProblemReduction(data, bound, control);
+            System.out.println(reduction);
+            control.setCostOffset(reduction.getOffset());
+            result = reduction.toOriginal(runAlgorithm(reduction.getReducedContainer(), control));
+        } else {
+            result = runAlgorithm(data, control);
+        }
+        result.setLowerBound(bound.getLowerBound());
+        System.out.println("Lower bound: " + result.getLowerBound()
+                + " (gap " + String.format("%.4f", result.getGap()) + "%)");
+        return result;
+    }
+
+    /**
+     * Runs the algorithm selected by a menu option on an instance under the control, which reaches every run of the
+     * multi-starts, the path relinking and the warm start and nodes of the branch and bound. The result keeps the
+     * best solution of the algorithm. The parallel algorithms use the share of the cores of one worker.
+     *
+     * @param data The instance to solve.
+     * @param control Deadline, cancellation flag and progress listener of the run.
+     * @return The result of the algorithm, or null if the option does not exist.
+     */
+    private AlgorithmResult runAlgorithm(DataContainer data, SolverControl control) {
+        EvaluationCache cache = this.evaluationCacheBytes > 0
+                ? new EvaluationCache(data.getCostMatrix().getNumWarehouses(), this.evaluationCacheBytes) : null;
+        switch (this.option) {
+            case 1:
+                Swap swap = new Swap(data);
+                swap.setEvaluationCache(cache);
+                return run(swap, cache, control);
+            case 2:
+                return run(newImprovSwap(data, cache), cache, control);
+            case 3:
+                Switch switchSearch = new Switch(data);
+                switchSearch.setEvaluationCache(cache);
+                return run(switchSearch, cache, control);
+            case 4:
+                return run(new Greedy(data), control);
+            case 5:
+                return new MultiStart(data, false, MultiStart.DEFAULT_RUNS, MultiStart.DEFAULT_SEED,
+                        this.parallelism).solve(control);
+            case 6:
+                return new MultiStart(data, true, MultiStart.DEFAULT_RUNS, MultiStart.DEFAULT_SEED,
+                        this.parallelism).solve(control);
+            case 7:
+                return run(new GreedyAdd(data), control);
+            case 8:
+                ImprovSwap improvSwap = newImprovSwap(data, cache);
+                improvSwap.setStartSolution(new GreedyAdd(data).buildSolution());
+                return run(improvSwap, cache, control);
+            case 9:
+                Greedy steepest = new Greedy(data);
+                steepest.setDropMode(Greedy.DropMode.STEEPEST);
+                return run(steepest, control);
+            case 10:
+                return run(new BranchAndBound(data, this.parallelism, BranchAndBound.DEFAULT_TIME_LIMIT), control);
+            case 11:
+                SimulatedAnnealing annealing = new SimulatedAnnealing(data);
+                annealing.setCandidateListSize(this.candidateListSize);
+                return run(annealing, control);
+            case 12:
+                TabuSearch tabuSearch = new TabuSearch(data);
+                tabuSearch.setCandidateListSize(this.candidateListSize);
+                return run(tabuSearch, control);
+            case 13:
+                return run(new VariableNeighbourhoodSearch(data), control);
+            case 14:
+                return run(new Grasp(data, Grasp.DEFAULT_ITERATIONS, Grasp.DEFAULT_SEED, this.parallelism), control);
+            case 15:
+                return run(new GeneticAlgorithm(data, GeneticAlgorithm.DEFAULT_GENERATIONS,
+                        GeneticAlgorithm.DEFAULT_SEED, this.parallelism), control);
+            case 16:
+                EliteSet elitePool = new EliteSet(PathRelinking.DEFAULT_POOL_SIZE,
+                        PathRelinking.DEFAULT_MIN_DISTANCE);
+                MultiStart multiStart = new MultiStart(data, true, MultiStart.DEFAULT_RUNS, MultiStart.DEFAULT_SEED,
+                        this.parallelism);
+                multiStart.setElitePool(elitePool);
+                double searchTime = multiStart.solve(control).getElapsedTimeInSeconds();
+                PathRelinking pathRelinking = new PathRelinking(data, elitePool, this.parallelism);
+                AlgorithmResult relinked = pathRelinking.solve(control);
+                AlgorithmResult result = new AlgorithmResult(relinked.getBestSolutionCost(),
+                        searchTime + relinked.getElapsedTimeInSeconds());
+                result.setBestSolution(pathRelinking.getBestSolution());
+                return result;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Runs an anytime solver under a control and keeps its best solution in the result.
+     *
+     * @param solver The solver to run.
+     * @param control Deadline, cancellation flag and progress listener of the run.
+     * @return The result of the solver with its best solution.
+     */
+    private static AlgorithmResult run(AnytimeSolver solver, SolverControl control) {
+        AlgorithmResult result = solver.solve(control);
+        result.setBestSolution(solver.getBestSolution());
+        return result;
+    }
+
+    /**
+     * Runs an anytime solver that consults an evaluation cache, and keeps its best solution and its cache in the
+     * result.
+     *
+     * @param solver The solver to run.
+     * @param cache The evaluation cache attached to the solver, or null for none.
+     * @param control Deadline, cancellation flag and progress listener of the run.
+     * @return The result of the solver with its best solution and its cache.
+     */
+    private static AlgorithmResult run(AnytimeSolver solver, EvaluationCache cache, SolverControl control) {
+        AlgorithmResult result = run(solver, control);
+        result.setEvaluationCache(cache);
+        return result;
+    }
+
+    /**
+     * Creates the ImprovSwap of an instance with the candidate list size of the runner. With an evaluation cache it
+     * runs the SAMPLED search, the only one that consults the cache.
+     *
+     * @param data The instance to solve.
+     * @param cache The evaluation cache, or null for none.
+     * @return The ImprovSwap.
+     */
+    private ImprovSwap newImprovSwap(DataContainer data, EvaluationCache cache) {
+        ImprovSwap improvSwap = new ImprovSwap(data);
+        improvSwap.setCandidateListSize(this.candidateListSize);
+        if (cache != null) {
+            improvSwap.setEvaluationCache(cache);
+            improvSwap.setSearchMode(ImprovSwap.SearchMode.SAMPLED);
+        }
+        return improvSwap;
+    }
+
+    /**
+     * Formats the result line of an instance, checking the cost against the known optimum when there is one.
+     *
+     * @param filePath The instance file.
+     * @param result The result of the algorithm on the instance.
+     * @return The result line.
+     */
+    public static String describe(String filePath, AlgorithmResult result) {
+        String line = "Results for " + new File(filePath).getName() + ": " + result;
+        Double optimum = OptimalValues.forInstance(filePath);
+        if (optimum != null) {
+            line += ", Known Optimum: " + optimum
+                    + (OptimalValues.matches(result.getBestSolutionCost(), optimum) ? " (matches)" : " (differs)");
+        }
+        return line;
+    }
+
+    /**
+     * Finds every .txt instance file under a directory, recursively, sorted by path.
+     * Other .txt files, such as optimal.txt or capinfo.txt, are skipped with a warning.
+     *
+     * @param dirPath The directory path.
+     * @return A sorted list of file paths.
+     * @throws IOException If the directory cannot be read.
+     */
+    public static List<String> findInstanceFiles(String dirPath) throws IOException {
+        try (Stream<Path> paths = Files.walk(Path.of(dirPath))) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(".txt"))
+                    .map(path -> path.toAbsolutePath().toString())
+                    .sorted()
+                    .filter(BatchRunner::isInstanceFile)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Checks whether a file starts like an instance file: a first line with the number of warehouses and the
+     * number of clients, and nothing else.
+     *
+     * @param filePath The file.
+     * @return true if the file looks like an instance, false otherwise (after printing a warning).
+     */
+    private static boolean isInstanceFile(String filePath) {
+        // Latin-1 decodes any byte, so binary or non-UTF-8 files are read without errors
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(filePath), StandardCharsets.ISO_8859_1)) {
+            String header = reader.readLine();
+            if (header != null && header.trim().matches("\\d+\\s+\\d+")) {
+                return true;
+            }
+        } catch (IOException e) {
+            // Reported below like any other file that cannot be used
+        }
+        System.err.println("Skipping " + filePath + ": not an instance file.");
+        return false;
+    }
+
+    /**
+     * Loads and solves the instances concurrently.
+     *
+     * @param filePaths The instance files to solve.
+     * @return One result line per solved instance, in the order of filePaths.
+     */
+    public List<String> run(List<String> filePaths) {
+        ExecutorService ioExecutor = createIOExecutor();
+        ExecutorService cpuExecutor = Executors.newFixedThreadPool(this.workers);
+        try {
+            // Submit every instance: load on the I/O stage, then solve on the CPU stage
+            List<CompletableFuture<AlgorithmResult>> futures = new ArrayList<>();
+            for (String filePath : filePaths) {
+                futures.add(CompletableFuture
+                        .supplyAsync(() -> load(filePath), ioExecutor)
+                        .thenApplyAsync(data -> data == null ? null : solve(filePath, data), cpuExecutor));
+            }
+
+            // Collect the results in submission order so that the output is deterministic
+            List<String> results = new ArrayList<>();
+            for (int i = 0; i < filePaths.size(); i++) {
+                try {
+                    AlgorithmResult result = futures.get(i).join();
+                    if (result != null) {
+                        results.add(describe(filePaths.get(i), result));
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Error solving " + filePaths.get(i) + ": " + e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            ioExecutor.shutdown();
+            cpuExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Solves an instance under a new control with the time limit and listener of the runner.
+     *
+     * @param filePath The instance file, whose name labels the progress events.
+     * @param data The instance.
+     * @return The result of the algorithm on the instance.
+     */
+    private AlgorithmResult solve(String filePath, DataContainer data) {
+        SolverControl control = new SolverControl(this.timeLimit, this.progressListener);
+        control.setLabel(new File(filePath).getName());
+        this.activeControls.add(control);
+        if (this.cancelled) {
+            control.cancel(); // cancel() may have run before the control was registered
+        }
+        try {
+            return solveInstance(data, control);
+        } finally {
+            this.activeControls.remove(control);
+        }
+    }
+
+    /**
+     * Loads an instance file.
+     *
+     * @param filePath The instance file.
+     * @return The instance, or null if the file has an invalid format.
+     */
+    private static DataContainer load(String filePath) {
+        try {
+            return new fileReader().readFile(filePath);
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates the executor of the I/O stage.
+     * Virtual threads are only available from Java 21, so they are looked up reflectively and a cached thread pool
+     * is used when they are not requested or not supported.
+     *
+     * @return The I/O executor.
+     */
+    private ExecutorService createIOExecutor() {
+        if (this.virtualThreadsForIO) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("Virtual threads are not supported by this JVM, using platform threads for I/O.");
+            }
+        }
+        return Executors.newCachedThreadPool();
+    }
+}
@@ -0,0 +1,276 @@
+package modules;
+
+import java.util.Arrays;
+
+/**
+ * BitSolution Class
+ * Represents a solution of the UFLP as a bitset of open warehouses, stored in long words.
+ * Bit i is set when warehouse i is open.
+ */
+public class BitSolution {
+
+    private final int size; // Number of warehouses
+    private final long[] words; // Bits of the open warehouses, 64 per word
+
+    /**
+     * Constructor for a BitSolution with every warehouse closed.
+     *
+     * @param size Number of warehouses.
+     */
+    public BitSolution(int size) {
+        this.size = size;
+        this.words = new long[(size + 63) >>> 6];
+    }
+
+    /**
+     * Copy constructor for BitSolution.
+     *
+     * @param other The solution to copy.
+     */
+    public BitSolution(BitSolution other) {
+        this.size = other.size;
+        this.words = other.words.clone();
+    }
+
+    /**
+     * Creates a solution with every warehouse open.
+     *
+     * @param size Number of warehouses.
+     * @return The new solution.
+     */
+    public static BitSolution allOpen(int size) {
+        BitSolution solution = new BitSolution(size);
+        Arrays.fill(solution.words, -1L);
+        solution.clearUnusedBits();
+        return solution;
+    }
+
+    /**
+     * Getter for the number of warehouses.
+     *
+     * @return Number of warehouses (bits) of the solution.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether a warehouse is open.
+     *
+     * @param index Index of the warehouse.
+     * @return true if the warehouse is open, false otherwise.
+     */
+    public boolean get(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Opens a warehouse.
+     *
+     * @param index Index of the warehouse.
+     */
+    public void set(int index) {
+        words[index >>> 6] |= 1L << index;
+    }
+
+    /**
+     * Sets the open status of a warehouse.
+     *
+     * @param index Index of the warehouse.
+     * @param open true to open the warehouse, false to close it.
+     */
+    public void set(int index, boolean open) {
+        if (open) {
+            set(index);
+        } else {
+            clear(index);
+        }
+    }
+
+    /**
+     * Closes a warehouse.
+     *
+     * @param index Index of the warehouse.
+     */
+    public void clear(int index) {
+        words[index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * Toggles the open status of a warehouse.
+     *
+     * @param index Index of the warehouse.
+     */
+    public void flip(int index) {
+        words[index >>> 6] ^= 1L << index;
+    }
+
+    /**
+     * Counts the open warehouses.
+     *
+     * @return Number of open warehouses.
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Counts the warehouses whose open status differs from another solution of the same size.
+     *
+     * @param other The other solution.
+     * @return Hamming distance between the two solutions.
+     */
+    public int hammingDistance(BitSolution other) {
+        int distance = 0;
+        for (int w = 0; w < words.length; w++) {
+            distance += Long.bitCount(words[w] ^ other.words[w]);
+        }
+        return distance;
+    }
+
+    /**
+     * Finds the next open warehouse.
+     *
+     * @param from Index from which to search (inclusive).
+     * @return Index of the next open warehouse, or -1 if there is none.
+     */
+    public int nextSetBit(int from) {
+        if (from >= size) {
+            return -1;
+        }
+        int wordIndex = from >>> 6;
+        long word = words[wordIndex] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIndex == words.length) {
+                return -1;
+            }
+            word = words[wordIndex];
+        }
+    }
+
+    /**
+     * Finds the next closed warehouse.
+     *
+     * @param from Index from which to search (inclusive).
+     * @return Index of the next closed warehouse, or -1 if there is none.
+     */
+    public int nextClearBit(int from) {
+        if (from >= size) {
+            return -1;
+        }
+        int wordIndex = from >>> 6;
+        long word = ~words[wordIndex] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int index = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                return index < size ? index : -1;
+            }
+            if (++wordIndex == words.length) {
+                return -1;
+            }
+            word = ~words[wordIndex];
+        }
+    }
+
+    /**
+     * Getter for the raw words of the bitset, used by the evaluation loops.
+     *
+     * @return The long words (not a copy).
+     */
+    public long[] getWords() {
+        return words;
+    }
+
+    /**
+     * Copies the bits of another solution of the same size into this one, without allocating.
+     *
+     * @param other The solution to copy.
+     */
+    public void copyFrom(BitSolution other) {
+        System.arraycopy(other.words, 0, this.words, 0, words.length);
+    }
+
+    /**
+     * Creates a copy of the solution.
+     *
+     * @return The copy.
+     */
+    public BitSolution copy() {
+        return new BitSolution(this);
+    }
+
+    /**
+     * Computes a 64-bit hash of the solution, mixing every word with the SplitMix64 finalizer.
+     *
+     * @return The 64-bit hash.
+     */
+    public long hash64() {
+        long hash = 0x9E3779B97F4A7C15L ^ size;
+        for (long word : words) {
+            hash = mix64(hash ^ word) + 0x9E3779B97F4A7C15L;
+        }
+        return mix64(hash);
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     *
+     * @param z Value to mix.
+     * @return Mixed value.
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Clears the bits of the last word that are beyond the number of warehouses.
+     */
+    private void clearUnusedBits() {
+        if (words.length > 0 && (size & 63) != 0) {
+            words[words.length - 1] &= (1L << size) - 1;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BitSolution)) {
+            return false;
+        }
+        BitSolution other = (BitSolution) o;
+        return size == other.size && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) hash64();
+    }
+
+    /**
+     * Overrides toString() to list the indices of the open warehouses.
+     *
+     * @return String representation of the open warehouses.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(i);
+        }
+        return builder.append(']').toString();
+    }
+}
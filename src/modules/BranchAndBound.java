@@ -0,0 +1,324 @@
+package modules;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BranchAndBound Class
+ * Exact solver for the UFLP that branches on the open/closed status of the warehouses.
+ * Every node is bounded with a few subgradient iterations of the Lagrangian relaxation of the assignment
+ * constraints, started from the multipliers of its parent (the root starts from LowerBound). The warehouse whose
+ * reduced fixed cost is closest to zero is branched on, and both children are forked on a work-stealing
+ * ForkJoinPool. The incumbent is shared through an AtomicReference updated by compare-and-set, and is warm-started
+ * with the best of Greedy (steepest DROP), Switch and the primal solution of the root bound.
+ * Under a SolverControl the warm start runs under the control, every node checks it next to the time limit, and
+ * every new incumbent is reported to it.
+ */
+public class BranchAndBound implements AnytimeSolver {
+
+    public static final double DEFAULT_TIME_LIMIT = 60; // Default time limit in seconds
+
+    private static final byte FREE = 0; // Warehouse not fixed yet
+    private static final byte OPEN = 1; // Warehouse fixed open
+    private static final byte CLOSED = 2; // Warehouse fixed closed
+    private static final int NODE_ITERATIONS = 20; // Subgradient iterations per node
+    private static final double PRUNE_TOLERANCE = 1e-9; // Relative tolerance of the pruning test
+
+    private final DataContainer container; // Data container holding warehouses and clients
+    private final CostMatrix costMatrix; // Cost matrix of the instance
+    private final int numWarehouses; // Number of warehouses
+    private final int numClients; // Number of clients
+    private final int parallelism; // Number of worker threads of the fork-join pool
+    private final double timeLimitSeconds; // Time after which the search stops without proving optimality
+    private final AtomicReference<Incumbent> incumbent; // Best solution found, shared by every node
+    private final LongAdder nodes; // Number of nodes bounded
+    private long deadline; // System.nanoTime() at which the search stops
+    private volatile boolean timedOut; // Whether the search stopped at the time limit or the control
+    private SolverControl control; // Deadline, cancellation and progress listener of the current run
+
+    /**
+     * Best solution found and its cost, replaced as a whole so that readers always see a consistent pair.
+     */
+    private static final class Incumbent {
+        private final double cost; // Cost of the solution
+        private final BitSolution solution; // Open warehouses of the solution
+
+        private Incumbent(double cost, BitSolution solution) {
+            this.cost = cost;
+            this.solution = solution;
+        }
+    }
+
+    /**
+     * Constructor for BranchAndBound.
+     *
+     * @param container The data container containing warehouses and clients.
+     * @param parallelism Number of worker threads.
+     * @param timeLimitSeconds Time limit in seconds.
+     */
+    public BranchAndBound(DataContainer container, int parallelism, double timeLimitSeconds) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be at least 1.");
+        }
+        this.container = container;
+        this.costMatrix = container.getCostMatrix();
+        this.numWarehouses = costMatrix.getNumWarehouses();
+        this.numClients = costMatrix.getNumClients();
+        this.parallelism = parallelism;
+        this.timeLimitSeconds = timeLimitSeconds;
+        this.incumbent = new AtomicReference<>(new Incumbent(Double.POSITIVE_INFINITY, null));
+        this.nodes = new LongAdder();
+        this.control = new SolverControl();
+    }
+
+    /**
+     * Executes the branch-and-bound search.
+     *
+     * @return BranchAndBoundResult with the best solution, the node statistics and whether it is proven optimal.
+     */
+    public BranchAndBoundResult useBranchAndBound() {
+        long start = System.nanoTime();
+        this.deadline = start + (long) (this.timeLimitSeconds * 1_000_000_000L);
+        this.timedOut = false;
+        this.nodes.reset();
+
+        // Warm start with the heuristics and the root bound
+        Greedy greedy = new Greedy(this.container);
+        greedy.setDropMode(Greedy.DropMode.STEEPEST);
+        offer(greedy.solve(this.control).getBestSolutionCost(), greedy.getBestSolution());
+        Switch switchSearch = new Switch(this.container);
+        offer(switchSearch.solve(this.control).getBestSolutionCost(), switchSearch.getBestSolution());
+        LowerBound rootBound = new LowerBound(this.container);
+        rootBound.compute(this.control);
+        offer(rootBound.getUpperBound(), rootBound.getBestSolution());
+        System.out.println("Initial solution cost: " + this.incumbent.get().cost);
+
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        try {
+            pool.invoke(new NodeTask(new byte[this.numWarehouses], rootBound.getMultipliers()));
+        } finally {
+            pool.shutdown();
+        }
+
+        long end = System.nanoTime();
+        double elapsedTimeInSeconds = (end - start) / 1_000_000_000.0;
+        Incumbent best = this.incumbent.get();
+        long exploredNodes = this.nodes.sum();
+        double nodesPerSecond = exploredNodes / elapsedTimeInSeconds;
+        System.out.println("Nodes explored: " + exploredNodes + " (" + String.format("%.1f", nodesPerSecond)
+                + " nodes/sec)" + (this.timedOut ? ", stopped before proving optimality" : ", optimality proven"));
+        System.out.println("Best Solution Found: " + best.cost);
+        System.out.println("Time elapsed: " + elapsedTimeInSeconds + " seconds");
+
+        return new BranchAndBoundResult(best.cost, elapsedTimeInSeconds, best.solution, exploredNodes,
+                !this.timedOut);
+    }
+
+    /**
+     * Executes the branch-and-bound search under a control, stopping at the earlier of its deadline and the time
+     * limit, or when it is cancelled.
+     *
+     * @param control Deadline, cancellation flag and progress listener of the search.
+     * @return BranchAndBoundResult with the best solution, the node statistics and whether it is proven optimal.
+     */
+    @Override
+    public BranchAndBoundResult solve(SolverControl control) {
+        return AnytimeSolver.runUnder(control, c -> this.control = c, this::useBranchAndBound);
+    }
+
+    /**
+     * Getter for the incumbent of the last search.
+     *
+     * @return Bitset of the open warehouses of the best solution found.
+     */
+    @Override
+    public BitSolution getBestSolution() {
+        return this.incumbent.get().solution;
+    }
+
+    /**
+     * Publishes a solution to the shared incumbent if it improves it.
+     *
+     * @param cost Cost of the solution.
+     * @param solution Open warehouses of the solution (copied when kept).
+     */
+    private void offer(double cost, BitSolution solution) {
+        Incumbent current = this.incumbent.get();
+        while (cost < current.cost) {
+            if (this.incumbent.compareAndSet(current, new Incumbent(cost, solution.copy()))) {
+                this.control.reportImprovement(cost, this.nodes.sum());
+                return;
+            }
+            current = this.incumbent.get();
+        }
+    }
+
+    /**
+     * Checks whether a lower bound cannot lead to a better solution than the incumbent.
+     *
+     * @param bound Lower bound of a node.
+     * @return true if the node can be pruned.
+     */
+    private boolean canPrune(double bound) {
+        double cost = this.incumbent.get().cost;
+        return bound >= cost - PRUNE_TOLERANCE * Math.abs(cost);
+    }
+
+    /**
+     * Node of the search tree: a partial assignment of the warehouses and the multipliers to start bounding from.
+     */
+    private final class NodeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] status; // FREE, OPEN or CLOSED for each warehouse
+        private final double[] lambda; // Starting multipliers of the node
+
+        private NodeTask(byte[] status, double[] lambda) {
+            this.status = status;
+            this.lambda = lambda;
+        }
+
+        @Override
+        protected void compute() {
+            if (timedOut || System.nanoTime() > deadline || control.shouldStop()) {
+                timedOut = true;
+                return;
+            }
+            nodes.increment();
+
+            double[] reduced = new double[numWarehouses];
+            BitSolution relaxed = new BitSolution(numWarehouses);
+            double bound = bound(reduced, relaxed);
+            if (relaxed.cardinality() > 0) {
+                DeltaEvaluator evaluator = new DeltaEvaluator(costMatrix);
+                evaluator.load(relaxed);
+                offer(evaluator.getCost(), relaxed);
+            }
+            if (canPrune(bound)) {
+                return;
+            }
+
+            // Branch on the free warehouse whose reduced fixed cost is closest to zero
+            int branch = -1;
+            for (int j = 0; j < numWarehouses; j++) {
+                if (status[j] == FREE && (branch < 0 || Math.abs(reduced[j]) < Math.abs(reduced[branch]))) {
+                    branch = j;
+                }
+            }
+            if (branch < 0) {
+                return; // Every warehouse is fixed, so the relaxed solution was the only candidate
+            }
+
+            byte[] openStatus = status.clone();
+            openStatus[branch] = OPEN;
+            byte[] closedStatus = status.clone();
+            closedStatus[branch] = CLOSED;
+            if (hasCandidate(closedStatus)) {
+                invokeAll(new NodeTask(openStatus, lambda.clone()), new NodeTask(closedStatus, lambda.clone()));
+            } else {
+                new NodeTask(openStatus, lambda.clone()).compute();
+            }
+        }
+
+        /**
+         * Improves the Lagrangian bound of the node with a few subgradient iterations.
+         * The multipliers of the node are updated in place, so that the children start from them.
+         *
+         * @param reduced Array receiving the reduced fixed costs at the best bound.
+         * @param relaxed Bitset receiving the open warehouses of the relaxed solution at the best bound.
+         * @return The best lower bound of the node.
+         */
+        private double bound(double[] reduced, BitSolution relaxed) {
+            double[] current = lambda.clone();
+            double[] currentReduced = new double[numWarehouses];
+            double[] gradient = new double[numClients];
+            BitSolution open = new BitSolution(numWarehouses);
+            double best = Double.NEGATIVE_INFINITY;
+            double stepFactor = 1.0;
+
+            for (int iteration = 0; iteration < NODE_ITERATIONS; iteration++) {
+                // Lagrangian bound: fixed-open warehouses always count, free ones only when they pay off
+                double value = 0;
+                for (int c = 0; c < numClients; c++) {
+                    value += current[c];
+                }
+                int cheapest = -1;
+                for (int j = 0; j < numWarehouses; j++) {
+                    open.clear(j);
+                    if (status[j] == CLOSED) {
+                        continue;
+                    }
+                    double reducedCost = costMatrix.getFixedCost(j);
+                    for (int c = 0; c < numClients; c++) {
+                        double cost = costMatrix.getAllocCost(c, j) - current[c];
+                        if (cost < 0) {
+                            reducedCost += cost;
+                        }
+                    }
+                    currentReduced[j] = reducedCost;
+                    if (status[j] == OPEN || reducedCost < 0) {
+                        open.set(j);
+                        value += reducedCost;
+                    } else if (cheapest < 0 || reducedCost < currentReduced[cheapest]) {
+                        cheapest = j;
+                    }
+                }
+                if (open.cardinality() == 0 && cheapest >= 0) {
+                    // A feasible solution opens at least one warehouse
+                    open.set(cheapest);
+                    value += currentReduced[cheapest];
+                }
+
+                if (value > best) {
+                    best = value;
+                    System.arraycopy(current, 0, lambda, 0, numClients);
+                    System.arraycopy(currentReduced, 0, reduced, 0, numWarehouses);
+                    relaxed.copyFrom(open);
+                } else {
+                    stepFactor /= 2;
+                }
+                if (canPrune(best)) {
+                    break;
+                }
+
+                // Subgradient of the relaxed assignment constraints
+                double norm = 0;
+                for (int c = 0; c < numClients; c++) {
+                    int assigned = 0;
+                    for (int j = open.nextSetBit(0); j >= 0; j = open.nextSetBit(j + 1)) {
+                        if (costMatrix.getAllocCost(c, j) < current[c]) {
+                            assigned++;
+                        }
+                    }
+                    gradient[c] = 1 - assigned;
+                    norm += gradient[c] * gradient[c];
+                }
+                if (norm == 0) {
+                    break; // The relaxed solution is feasible and optimal for the node
+                }
+                double step = stepFactor * (incumbent.get().cost - value) / norm;
+                for (int c = 0; c < numClients; c++) {
+                    current[c] += step * gradient[c];
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Checks whether a partial assignment still allows a warehouse to be open.
+         *
+         * @param candidate Status of each warehouse.
+         * @return true if at least one warehouse is not fixed closed.
+         */
+        private boolean hasCandidate(byte[] candidate) {
+            for (byte value : candidate) {
+                if (value != CLOSED) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
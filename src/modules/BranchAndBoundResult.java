@@ -0,0 +1,66 @@
+package modules;
+
+/**
+ * BranchAndBoundResult class represents the result of a branch-and-bound search.
+ * Besides the best solution cost and the elapsed time, it keeps the best solution, the number of nodes explored
+ * and whether the search finished, proving the solution optimal.
+ */
+public class BranchAndBoundResult extends AlgorithmResult {
+    private final long nodes; // Number of nodes explored
+    private final boolean provenOptimal; // Whether the search finished before the time limit
+
+    /**
+     * Constructor to initialize BranchAndBoundResult.
+     *
+     * @param bestSolutionCost Cost of the best solution found.
+     * @param elapsedTimeInSeconds Elapsed time in seconds taken by the search.
+     * @param bestSolution Best solution found.
+     * @param nodes Number of nodes explored.
+     * @param provenOptimal Whether the best solution is proven optimal.
+     */
+    public BranchAndBoundResult(double bestSolutionCost, double elapsedTimeInSeconds, BitSolution bestSolution,
+                                long nodes, boolean provenOptimal) {
+        super(bestSolutionCost, elapsedTimeInSeconds);
+        setBestSolution(bestSolution);
+        this.nodes = nodes;
+        this.provenOptimal = provenOptimal;
+    }
+
+    /**
+     * Getter for the number of nodes explored.
+     *
+     * @return Number of nodes.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Computes the number of nodes explored per second.
+     *
+     * @return Nodes per second.
+     */
+    public double getNodesPerSecond() {
+        return nodes / getElapsedTimeInSeconds();
+    }
+
+    /**
+     * Getter for whether the best solution is proven optimal.
+     *
+     * @return true if the search finished before the time limit.
+     */
+    public boolean isProvenOptimal() {
+        return provenOptimal;
+    }
+
+    /**
+     * Overrides toString() to append the search statistics to the AlgorithmResult representation.
+     *
+     * @return String representation of the BranchAndBoundResult object.
+     */
+    @Override
+    public String toString() {
+        return super.toString() + ", Nodes: " + nodes + ", Nodes/sec: " + String.format("%.1f", getNodesPerSecond())
+                + ", Proven Optimal: " + (provenOptimal ? "yes" : "no");
+    }
+}
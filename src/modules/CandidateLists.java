@@ -0,0 +1,89 @@
+package modules;
+
+/**
+ * CandidateLists Class
+ * For every warehouse, the clients that have it among their k nearest warehouses, stored in compressed rows:
+ * the clients of warehouse j are at positions start(j) to end(j) - 1.
+ * Restricting the opening gains to these clients bounds the work of scoring an opening by the list length instead
+ * of the number of clients. The gain of a client whose nearest open warehouse lies beyond its k nearest is then
+ * ignored, so a small k trades some quality of the scored moves for faster sweeps; applied moves stay exact.
+ */
+public class CandidateLists {
+
+    private final int k; // Number of nearest warehouses of each client
+    private final int[] offsets; // Start of the list of each warehouse, plus the total length at the end
+    private final int[] clients; // Concatenated client lists
+
+    /**
+     * Constructor for CandidateLists.
+     *
+     * @param index The preference index of the instance.
+     * @param k Number of nearest warehouses of each client, capped at the number of warehouses.
+     */
+    public CandidateLists(PreferenceIndex index, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("The candidate list size must be at least 1.");
+        }
+        int numWarehouses = index.getNumWarehouses();
+        int numClients = index.getNumClients();
+        this.k = Math.min(k, numWarehouses);
+        this.offsets = new int[numWarehouses + 1];
+        this.clients = new int[numClients * this.k];
+
+        // Count the clients of each warehouse, then fill the lists in client order
+        for (int c = 0; c < numClients; c++) {
+            for (int rank = 0; rank < this.k; rank++) {
+                offsets[index.getWarehouse(c, rank) + 1]++;
+            }
+        }
+        for (int j = 0; j < numWarehouses; j++) {
+            offsets[j + 1] += offsets[j];
+        }
+        int[] next = new int[numWarehouses];
+        System.arraycopy(offsets, 0, next, 0, numWarehouses);
+        for (int c = 0; c < numClients; c++) {
+            for (int rank = 0; rank < this.k; rank++) {
+                clients[next[index.getWarehouse(c, rank)]++] = c;
+            }
+        }
+    }
+
+    /**
+     * Getter for the number of nearest warehouses of each client.
+     *
+     * @return The candidate list size.
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Getter for the first position of the list of a warehouse.
+     *
+     * @param warehouse Index of the warehouse.
+     * @return Position of its first client.
+     */
+    public int start(int warehouse) {
+        return offsets[warehouse];
+    }
+
+    /**
+     * Getter for the end of the list of a warehouse.
+     *
+     * @param warehouse Index of the warehouse.
+     * @return Position after its last client.
+     */
+    public int end(int warehouse) {
+        return offsets[warehouse + 1];
+    }
+
+    /**
+     * Getter for the client at a position of the lists.
+     *
+     * @param position Position between start(j) and end(j) - 1 of some warehouse j.
+     * @return Index of the client.
+     */
+    public int client(int position) {
+        return clients[position];
+    }
+}
@@ -0,0 +1,208 @@
+package modules;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * CostMatrix class
+ * This class stores an instance of the Uncapacitated Facility Location Problem (UFLP) in primitive arrays:
+ * a dense allocation cost matrix (clients x warehouses) kept in a single flat float array, and the fixed
+ * cost of every warehouse.
+ */
+public class CostMatrix {
+
+    /**
+     * Memory layout of the allocation cost matrix.
+     * ROW_MAJOR keeps the costs of one client contiguous, COLUMN_MAJOR keeps the costs of one warehouse contiguous.
+     */
+    public enum Layout {
+        ROW_MAJOR,
+        COLUMN_MAJOR
+    }
+
+    private final int numWarehouses; // Number of warehouses (columns)
+    private final int numClients; // Number of clients (rows)
+    private final Layout layout; // Layout of the allocation cost array
+    private final int clientStride; // Distance between two consecutive clients of the same warehouse
+    private final int warehouseStride; // Distance between two consecutive warehouses of the same client
+    private final float[] allocCosts; // Flat allocation cost matrix
+    private final float[] fixedCosts; // Fixed cost of each warehouse
+
+    /**
+     * Constructor for an empty CostMatrix, with every cost set to 0.
+     *
+     * @param numWarehouses Number of warehouses.
+     * @param numClients Number of clients.
+     * @param layout Memory layout of the allocation cost matrix.
+     */
+    public CostMatrix(int numWarehouses, int numClients, Layout layout) {
+        this(numWarehouses, numClients, layout, new float[numWarehouses], new float[numWarehouses * numClients]);
+    }
+
+    /**
+     * Constructor for a CostMatrix backed by existing arrays (the arrays are not copied).
+     *
+     * @param numWarehouses Number of warehouses.
+     * @param numClients Number of clients.
+     * @param layout Memory layout of the allocation cost array.
+     * @param fixedCosts Fixed cost of each warehouse.
+     * @param allocCosts Flat allocation cost matrix in the given layout.
+     */
+    public CostMatrix(int numWarehouses, int numClients, Layout layout, float[] fixedCosts, float[] allocCosts) {
+        if (fixedCosts.length != numWarehouses || allocCosts.length != numWarehouses * numClients) {
+            throw new IllegalArgumentException("Cost arrays do not match the instance dimensions.");
+        }
+        this.numWarehouses = numWarehouses;
+        this.numClients = numClients;
+        this.layout = layout;
+        this.fixedCosts = fixedCosts;
+        this.allocCosts = allocCosts;
+        if (layout == Layout.ROW_MAJOR) {
+            this.clientStride = numWarehouses;
+            this.warehouseStride = 1;
+        } else {
+            this.clientStride = 1;
+            this.warehouseStride = numClients;
+        }
+    }
+
+    /**
+     * Getter for the number of warehouses.
+     *
+     * @return Number of warehouses.
+     */
+    public int getNumWarehouses() {
+        return numWarehouses;
+    }
+
+    /**
+     * Getter for the number of clients.
+     *
+     * @return Number of clients.
+     */
+    public int getNumClients() {
+        return numClients;
+    }
+
+    /**
+     * Getter for the memory layout of the allocation cost matrix.
+     *
+     * @return Layout of the matrix.
+     */
+    public Layout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Computes the position of a (client, warehouse) cost in the flat allocation cost array.
+     *
+     * @param client Index of the client.
+     * @param warehouse Index of the warehouse.
+     * @return Index in the array returned by getAllocCosts().
+     */
+    public int index(int client, int warehouse) {
+        return client * clientStride + warehouse * warehouseStride;
+    }
+
+    /**
+     * Getter for the allocation cost of a client to a warehouse.
+     *
+     * @param client Index of the client.
+     * @param warehouse Index of the warehouse.
+     * @return The allocation cost.
+     */
+    public float getAllocCost(int client, int warehouse) {
+        return allocCosts[client * clientStride + warehouse * warehouseStride];
+    }
+
+    /**
+     * Setter for the allocation cost of a client to a warehouse.
+     *
+     * @param client Index of the client.
+     * @param warehouse Index of the warehouse.
+     * @param cost The new allocation cost.
+     */
+    public void setAllocCost(int client, int warehouse, float cost) {
+        allocCosts[client * clientStride + warehouse * warehouseStride] = cost;
+    }
+
+    /**
+     * Getter for the fixed cost of a warehouse.
+     *
+     * @param warehouse Index of the warehouse.
+     * @return The fixed cost.
+     */
+    public float getFixedCost(int warehouse) {
+        return fixedCosts[warehouse];
+    }
+
+    /**
+     * Setter for the fixed cost of a warehouse.
+     *
+     * @param warehouse Index of the warehouse.
+     * @param fixedCost The new fixed cost.
+     */
+    public void setFixedCost(int warehouse, float fixedCost) {
+        fixedCosts[warehouse] = fixedCost;
+    }
+
+    /**
+     * Getter for the raw allocation cost array, laid out according to getLayout().
+     *
+     * @return The flat allocation cost array (not a copy).
+     */
+    public float[] getAllocCosts() {
+        return allocCosts;
+    }
+
+    /**
+     * Getter for the raw fixed cost array.
+     *
+     * @return The fixed cost array (not a copy).
+     */
+    public float[] getFixedCosts() {
+        return fixedCosts;
+    }
+
+    /**
+     * Returns a copy of this matrix stored in the requested layout.
+     * If the layout is already the requested one, this matrix is returned.
+     *
+     * @param target The requested layout.
+     * @return A CostMatrix with the requested layout.
+     */
+    public CostMatrix withLayout(Layout target) {
+        if (target == layout) {
+            return this;
+        }
+        CostMatrix copy = new CostMatrix(numWarehouses, numClients, target, fixedCosts.clone(),
+                new float[allocCosts.length]);
+        for (int c = 0; c < numClients; c++) {
+            for (int w = 0; w < numWarehouses; w++) {
+                copy.setAllocCost(c, w, getAllocCost(c, w));
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Returns a read-only List view over the allocation costs of one client.
+     * Used by the Client objects kept for compatibility.
+     *
+     * @param client Index of the client.
+     * @return List of the allocation costs of the client to every warehouse.
+     */
+    public List<Float> clientCosts(int client) {
+        return new AbstractList<>() {
+            @Override
+            public Float get(int warehouse) {
+                return getAllocCost(client, warehouse);
+            }
+
+            @Override
+            public int size() {
+                return numWarehouses;
+            }
+        };
+    }
+}
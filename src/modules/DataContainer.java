@@ -1,13 +1,17 @@
 package modules;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * DataContainer class
- * This class acts as a container for the lists of Warehouse and Client objects.
+ * This class acts as a container for the instance data. The costs are stored in a primitive CostMatrix,
+ * and the lists of Warehouse and Client objects are kept as views over it for compatibility.
  */
 public class DataContainer {
     private List<Warehouse> warehouses;
     private List<Client> clients;
+    private CostMatrix costMatrix;
+    private volatile PreferenceIndex preferenceIndex;
 
     /**
      * Constructor for DataContainer
@@ -18,6 +22,37 @@ public class DataContainer {
     public DataContainer(List<Warehouse> warehouses, List<Client> clients) {
         this.warehouses = warehouses;
         this.clients = clients;
+        this.costMatrix = new CostMatrix(warehouses.size(), clients.size(), CostMatrix.Layout.ROW_MAJOR);
+
+        // Copy the costs of the objects into the primitive matrix
+        for (int w = 0; w < warehouses.size(); w++) {
+            this.costMatrix.setFixedCost(w, warehouses.get(w).getFixedCost());
+        }
+        for (int c = 0; c < clients.size(); c++) {
+            List<Float> allocCosts = clients.get(c).getAllocCosts();
+            for (int w = 0; w < warehouses.size(); w++) {
+                this.costMatrix.setAllocCost(c, w, allocCosts.get(w));
+            }
+        }
+    }
+
+    /**
+     * Constructor for DataContainer built from a CostMatrix.
+     * The Warehouse and Client objects are created as views over the matrix.
+     *
+     * @param costMatrix The primitive cost matrix of the instance
+     */
+    public DataContainer(CostMatrix costMatrix) {
+        this.costMatrix = costMatrix;
+        this.warehouses = new ArrayList<>(costMatrix.getNumWarehouses());
+        this.clients = new ArrayList<>(costMatrix.getNumClients());
+
+        for (int w = 0; w < costMatrix.getNumWarehouses(); w++) {
+            this.warehouses.add(new Warehouse(costMatrix.getFixedCost(w)));
+        }
+        for (int c = 0; c < costMatrix.getNumClients(); c++) {
+            this.clients.add(new Client(costMatrix.clientCosts(c)));
+        }
     }
 
     /**
@@ -37,4 +72,33 @@ public class DataContainer {
     public List<Client> getClients() {
         return clients;
     }
+
+    /**
+     * Getter method for the cost matrix
+     *
+     * @return CostMatrix with the fixed and allocation costs of the instance
+     */
+    public CostMatrix getCostMatrix() {
+        return costMatrix;
+    }
+
+    /**
+     * Getter method for the preference index of the instance
+     * The index is built in parallel on the first call and shared by every later caller.
+     *
+     * @return PreferenceIndex with the warehouses of each client sorted by allocation cost
+     */
+    public PreferenceIndex getPreferenceIndex() {
+        PreferenceIndex index = preferenceIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = preferenceIndex;
+                if (index == null) {
+                    index = new PreferenceIndex(costMatrix);
+                    preferenceIndex = index;
+                }
+            }
+        }
+        return index;
+    }
 }
@@ -0,0 +1,607 @@
+package modules;
+
+import java.util.Arrays;
+
+/**
+ * DeltaEvaluator Class
+ * Incremental evaluation engine shared by the local search algorithms.
+ * For every client it keeps the nearest and the second-nearest open warehouse, which allows the cost variation
+ * of opening, closing or swapping warehouses to be computed in O(clients) instead of a full O(clients x warehouses)
+ * rescan of the solution.
+ * With a PreferenceIndex, rescans and full evaluations walk each client's warehouses in order of cost and stop at
+ * the first open ones. With CandidateLists, opening gains are only summed over the clients that have the opened
+ * warehouse among their nearest ones, which makes the scores of openings approximate but cheaper.
+ */
+public class DeltaEvaluator {
+
+    private final CostMatrix costMatrix; // Cost matrix of the instance
+    private final int numWarehouses; // Number of warehouses
+    private final int numClients; // Number of clients
+    private final BitSolution open; // Open/closed status of each warehouse
+    private int numOpen; // Number of open warehouses
+    private final int[] nearest; // Nearest open warehouse of each client (-1 if none)
+    private final int[] secondNearest; // Second-nearest open warehouse of each client (-1 if none)
+    private final float[] nearestCost; // Allocation cost to the nearest open warehouse
+    private final float[] secondCost; // Allocation cost to the second-nearest open warehouse
+    private double fixedCostSum; // Sum of the fixed costs of the open warehouses
+    private double allocCostSum; // Sum of the allocation costs of every client to its nearest open warehouse
+    private EvaluationCache cache; // Cache of the costs of evaluated solutions, or null
+    private float[] vectorScratch; // Per-client minima of the SIMD backend, allocated on first use
+    private PreferenceIndex preferences; // Warehouses of each client sorted by allocation cost, or null
+    private CandidateLists candidates; // Clients near each warehouse used to score openings, or null
+
+    /**
+     * Constructor for DeltaEvaluator.
+     * The evaluator starts with every warehouse closed; use load() to set a solution.
+     *
+     * @param costMatrix The cost matrix of the instance.
+     */
+    public DeltaEvaluator(CostMatrix costMatrix) {
+        this.costMatrix = costMatrix;
+        this.numWarehouses = costMatrix.getNumWarehouses();
+        this.numClients = costMatrix.getNumClients();
+        this.open = new BitSolution(numWarehouses);
+        this.nearest = new int[numClients];
+        this.secondNearest = new int[numClients];
+        this.nearestCost = new float[numClients];
+        this.secondCost = new float[numClients];
+        load(null);
+    }
+
+    /**
+     * Loads a solution into the evaluator, rebuilding the nearest and second-nearest tables from scratch.
+     *
+     * @param solution Bitset of the open warehouses, or null for none open.
+     */
+    public void load(BitSolution solution) {
+        this.numOpen = 0;
+        this.fixedCostSum = 0;
+        if (solution == null) {
+            Arrays.fill(this.open.getWords(), 0L);
+        } else {
+            this.open.copyFrom(solution);
+        }
+        for (int j = open.nextSetBit(0); j >= 0; j = open.nextSetBit(j + 1)) {
+            this.numOpen++;
+            this.fixedCostSum += costMatrix.getFixedCost(j);
+        }
+
+        this.allocCostSum = 0;
+        for (int c = 0; c < numClients; c++) {
+            rescanClient(c);
+            if (this.numOpen > 0) {
+                this.allocCostSum += nearestCost[c];
+            }
+        }
+    }
+
+    /**
+     * Setter for the cache consulted by delta() and calculateSolutionCost(). There is none by default; delta()
+     * ignores it while candidate lists are set.
+     *
+     * @param cache The evaluation cache, or null to disable caching.
+     */
+    public void setCache(EvaluationCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Getter for the cache consulted by delta() and calculateSolutionCost().
+     *
+     * @return The evaluation cache, or null if caching is disabled.
+     */
+    public EvaluationCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Setter for the preference index used by rescans and full evaluations.
+     * The nearest and second-nearest tables are rebuilt from the loaded solution.
+     *
+     * @param preferences The preference index of the instance, or null to scan the open warehouses instead.
+     */
+    public void setPreferenceIndex(PreferenceIndex preferences) {
+        this.preferences = preferences;
+        load(this.open.copy());
+    }
+
+    /**
+     * Setter for the candidate lists used to score openings.
+     *
+     * @param candidates The candidate lists, or null to score openings over every client.
+     */
+    public void setCandidateLists(CandidateLists candidates) {
+        this.candidates = candidates;
+    }
+
+    /**
+     * Getter for the candidate lists used to score openings.
+     *
+     * @return The candidate lists, or null if openings are scored over every client.
+     */
+    public CandidateLists getCandidateLists() {
+        return candidates;
+    }
+
+    /**
+     * Getter for the cost matrix of the instance.
+     *
+     * @return The cost matrix passed to the constructor.
+     */
+    public CostMatrix getCostMatrix() {
+        return costMatrix;
+    }
+
+    /**
+     * Getter for the total cost of the loaded solution. It is updated incrementally by every move, so it drifts by
+     * rounding over long searches, which recost their final best solution with calculateSolutionCost().
+     *
+     * @return Fixed plus allocation costs, or positive infinity if no warehouse is open.
+     */
+    public double getCost() {
+        if (numOpen == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return fixedCostSum + allocCostSum;
+    }
+
+    /**
+     * Checks whether a warehouse is open in the loaded solution.
+     *
+     * @param warehouse Index of the warehouse.
+     * @return true if the warehouse is open, false otherwise.
+     */
+    public boolean isOpen(int warehouse) {
+        return open.get(warehouse);
+    }
+
+    /**
+     * Getter for the loaded solution.
+     * The returned bitset is the internal state of the evaluator and must not be modified; copy it to keep it.
+     *
+     * @return Bitset of the open warehouses.
+     */
+    public BitSolution getSolution() {
+        return open;
+    }
+
+    /**
+     * Getter for the number of open warehouses.
+     *
+     * @return Number of open warehouses in the loaded solution.
+     */
+    public int getNumOpen() {
+        return numOpen;
+    }
+
+    /**
+     * Getter for the nearest open warehouse of a client.
+     *
+     * @param client Index of the client.
+     * @return Index of the nearest open warehouse, or -1 if none is open.
+     */
+    public int getNearest(int client) {
+        return nearest[client];
+    }
+
+    /**
+     * Getter for the allocation cost of a client to its nearest open warehouse.
+     *
+     * @param client Index of the client.
+     * @return The allocation cost, or positive infinity if no warehouse is open.
+     */
+    public float getNearestCost(int client) {
+        return nearestCost[client];
+    }
+
+    /**
+     * Getter for the allocation cost of a client to its second-nearest open warehouse.
+     *
+     * @param client Index of the client.
+     * @return The allocation cost, or positive infinity if fewer than two warehouses are open.
+     */
+    public float getSecondCost(int client) {
+        return secondCost[client];
+    }
+
+    /**
+     * Computes the cost variation of opening a closed warehouse.
+     * With candidate lists, only the clients in the list of the warehouse are considered.
+     *
+     * @param warehouse Index of the closed warehouse.
+     * @return New cost minus current cost (negative infinity if no warehouse is open yet).
+     */
+    public double openDelta(int warehouse) {
+        double delta = costMatrix.getFixedCost(warehouse);
+        if (candidates != null) {
+            for (int i = candidates.start(warehouse); i < candidates.end(warehouse); i++) {
+                int c = candidates.client(i);
+                float cost = costMatrix.getAllocCost(c, warehouse);
+                if (cost < nearestCost[c]) {
+                    delta += cost - nearestCost[c];
+                }
+            }
+            return delta;
+        }
+        for (int c = 0; c < numClients; c++) {
+            float cost = costMatrix.getAllocCost(c, warehouse);
+            if (cost < nearestCost[c]) {
+                delta += cost - nearestCost[c];
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Computes the cost variation of closing an open warehouse.
+     * Clients served by the warehouse are reassigned to their second-nearest open warehouse.
+     *
+     * @param warehouse Index of the open warehouse.
+     * @return New cost minus current cost, or positive infinity if it is the only open warehouse.
+     */
+    public double closeDelta(int warehouse) {
+        if (numOpen <= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double delta = -costMatrix.getFixedCost(warehouse);
+        for (int c = 0; c < numClients; c++) {
+            if (nearest[c] == warehouse) {
+                delta += secondCost[c] - nearestCost[c];
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Computes the cost variation of swapping an open warehouse with a closed one.
+     *
+     * @param out Index of the open warehouse to close.
+     * @param in Index of the closed warehouse to open.
+     * @return New cost minus current cost.
+     */
+    public double swapDelta(int out, int in) {
+        double delta = costMatrix.getFixedCost(in) - costMatrix.getFixedCost(out);
+        for (int c = 0; c < numClients; c++) {
+            float cost = costMatrix.getAllocCost(c, in);
+            if (nearest[c] == out) {
+                delta += Math.min(secondCost[c], cost) - nearestCost[c];
+            } else if (cost < nearestCost[c]) {
+                delta += cost - nearestCost[c];
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Opens a closed warehouse and updates the nearest and second-nearest tables.
+     *
+     * @param warehouse Index of the closed warehouse.
+     */
+    public void open(int warehouse) {
+        if (open.get(warehouse)) {
+            return;
+        }
+        open.set(warehouse);
+        numOpen++;
+        fixedCostSum += costMatrix.getFixedCost(warehouse);
+
+        for (int c = 0; c < numClients; c++) {
+            float cost = costMatrix.getAllocCost(c, warehouse);
+            if (cost < nearestCost[c]) {
+                allocCostSum += (numOpen == 1 ? cost : cost - nearestCost[c]);
+                secondNearest[c] = nearest[c];
+                secondCost[c] = nearestCost[c];
+                nearest[c] = warehouse;
+                nearestCost[c] = cost;
+            } else if (cost < secondCost[c]) {
+                secondNearest[c] = warehouse;
+                secondCost[c] = cost;
+            }
+        }
+    }
+
+    /**
+     * Closes an open warehouse and updates the nearest and second-nearest tables.
+     * Only the clients that had the warehouse as nearest or second-nearest are rescanned.
+     *
+     * @param warehouse Index of the open warehouse.
+     */
+    public void close(int warehouse) {
+        if (!open.get(warehouse)) {
+            return;
+        }
+        open.clear(warehouse);
+        numOpen--;
+        fixedCostSum -= costMatrix.getFixedCost(warehouse);
+
+        for (int c = 0; c < numClients; c++) {
+            if (nearest[c] == warehouse) {
+                float previous = nearestCost[c];
+                rescanClient(c);
+                allocCostSum += nearestCost[c] - previous;
+            } else if (secondNearest[c] == warehouse) {
+                rescanClient(c);
+            }
+        }
+        if (numOpen == 0) {
+            allocCostSum = 0;
+        }
+    }
+
+    /**
+     * Swaps an open warehouse with a closed one.
+     *
+     * @param out Index of the open warehouse to close.
+     * @param in Index of the closed warehouse to open.
+     */
+    public void swap(int out, int in) {
+        open(in);
+        close(out);
+    }
+
+    /**
+     * Checks whether a move can be applied to the loaded solution.
+     * A swap is only valid if its first warehouse is open and its second one is closed.
+     *
+     * @param move The encoded move (see Move).
+     * @return true if the move is valid, false otherwise.
+     */
+    public boolean isValid(long move) {
+        if (Move.type(move) == Move.FLIP) {
+            return true;
+        }
+        return open.get(Move.out(move)) && !open.get(Move.in(move));
+    }
+
+    /**
+     * Computes the cost variation of a move without applying it.
+     * When a cache is set, the cost of the neighbour is looked up first and stored after a miss. The cache is
+     * bypassed while candidate lists are set, since the deltas they give for openings are only approximate.
+     *
+     * @param move The encoded move (see Move), which must be valid.
+     * @return New cost minus current cost.
+     */
+    public double delta(long move) {
+        if (cache == null || candidates != null) {
+            return computeDelta(move);
+        }
+
+        // Look up the neighbour by toggling its warehouses in place
+        toggle(move);
+        long hash = open.hash64();
+        double cost = cache.get(open, hash);
+        toggle(move);
+        if (!Double.isNaN(cost)) {
+            return cost - getCost();
+        }
+
+        double delta = computeDelta(move);
+        if (Double.isFinite(getCost() + delta)) {
+            toggle(move);
+            cache.put(open, hash, getCost() + delta);
+            toggle(move);
+        }
+        return delta;
+    }
+
+    /**
+     * Computes the cost variation of a move with the nearest and second-nearest tables.
+     *
+     * @param move The encoded move (see Move), which must be valid.
+     * @return New cost minus current cost.
+     */
+    private double computeDelta(long move) {
+        if (Move.type(move) == Move.FLIP) {
+            int warehouse = Move.warehouse(move);
+            return open.get(warehouse) ? closeDelta(warehouse) : openDelta(warehouse);
+        }
+        return swapDelta(Move.out(move), Move.in(move));
+    }
+
+    /**
+     * Toggles the warehouses changed by a move in the open bitset only, without updating the tables.
+     * Toggling twice restores the bitset.
+     *
+     * @param move The encoded move (see Move).
+     */
+    private void toggle(long move) {
+        if (Move.type(move) == Move.FLIP) {
+            open.flip(Move.warehouse(move));
+        } else {
+            open.flip(Move.out(move));
+            open.flip(Move.in(move));
+        }
+    }
+
+    /**
+     * Applies a move to the loaded solution.
+     *
+     * @param move The encoded move (see Move), which must be valid.
+     */
+    public void apply(long move) {
+        if (Move.type(move) == Move.FLIP) {
+            int warehouse = Move.warehouse(move);
+            if (open.get(warehouse)) {
+                close(warehouse);
+            } else {
+                open(warehouse);
+            }
+        } else {
+            swap(Move.out(move), Move.in(move));
+        }
+    }
+
+    /**
+     * Calculates the cost of a solution from scratch, without changing the state of the evaluator.
+     * This includes the fixed costs of open warehouses and allocation costs to clients.
+     *
+     * Only the set bits of the solution are visited in the inner loop. When a cache is set, it is consulted first.
+     * With a preference index and enough open warehouses, each client stops at its first open warehouse in order
+     * of cost. Otherwise, when VectorSupport is enabled, the SIMD kernels of VectorKernels are used instead of the
+     * scalar loops.
+     *
+     * @param solution Bitset of the open warehouses.
+     * @return Total cost of the solution.
+     */
+    public double calculateSolutionCost(BitSolution solution) {
+        long hash = 0;
+        if (cache != null) {
+            hash = solution.hash64();
+            double cached = cache.get(solution, hash);
+            if (!Double.isNaN(cached)) {
+                return cached;
+            }
+        }
+
+        double totalCost;
+        if (walksIndex(solution.cardinality())) {
+            totalCost = indexedSolutionCost(solution);
+        } else if (VectorSupport.isEnabled()) {
+            totalCost = vectorSolutionCost(solution);
+        } else {
+            totalCost = scalarSolutionCost(solution);
+        }
+
+        if (cache != null) {
+            cache.put(solution, hash, totalCost);
+        }
+        return totalCost;
+    }
+
+    /**
+     * Checks whether walking the preference index is expected to be cheaper than scanning the open warehouses.
+     * A walk visits about numWarehouses / numOpen warehouses per client and a scan visits numOpen, so the index
+     * only pays off when numOpen squared exceeds the number of warehouses.
+     *
+     * @param openCount Number of open warehouses.
+     * @return true if there is an index and it should be walked.
+     */
+    private boolean walksIndex(int openCount) {
+        return preferences != null && (long) openCount * openCount > numWarehouses;
+    }
+
+    /**
+     * Calculates the cost of a solution with the preference index.
+     *
+     * @param solution Bitset of the open warehouses.
+     * @return Total cost of the solution.
+     */
+    private double indexedSolutionCost(BitSolution solution) {
+        double totalCost = 0;
+        for (int j = solution.nextSetBit(0); j >= 0; j = solution.nextSetBit(j + 1)) {
+            totalCost += costMatrix.getFixedCost(j);
+        }
+        for (int c = 0; c < numClients; c++) {
+            int j = preferences.nearestOpen(c, solution);
+            totalCost += j >= 0 ? costMatrix.getAllocCost(c, j) : Float.POSITIVE_INFINITY;
+        }
+        return totalCost;
+    }
+
+    /**
+     * Calculates the cost of a solution with the SIMD kernels.
+     *
+     * @param solution Bitset of the open warehouses.
+     * @return Total cost of the solution.
+     */
+    private double vectorSolutionCost(BitSolution solution) {
+        if (vectorScratch == null) {
+            vectorScratch = new float[numClients];
+        }
+        return VectorKernels.solutionCost(costMatrix, solution, vectorScratch);
+    }
+
+    /**
+     * Calculates the cost of a solution with scalar loops over the set bits.
+     *
+     * @param solution Bitset of the open warehouses.
+     * @return Total cost of the solution.
+     */
+    private double scalarSolutionCost(BitSolution solution) {
+        double totalCost = 0;
+        long[] words = solution.getWords();
+
+        // Calculate fixed costs of open warehouses
+        for (int j = solution.nextSetBit(0); j >= 0; j = solution.nextSetBit(j + 1)) {
+            totalCost += costMatrix.getFixedCost(j);
+        }
+
+        // Calculate allocation costs of clients to open warehouses
+        for (int c = 0; c < numClients; c++) {
+            float minAllocCost = Float.POSITIVE_INFINITY;
+            for (int w = 0; w < words.length; w++) {
+                for (long word = words[w]; word != 0; word &= word - 1) {
+                    int j = (w << 6) + Long.numberOfTrailingZeros(word);
+                    minAllocCost = Math.min(minAllocCost, costMatrix.getAllocCost(c, j));
+                }
+            }
+            totalCost += minAllocCost;
+        }
+        return totalCost;
+    }
+
+    /**
+     * Recomputes the nearest and second-nearest open warehouses of a client with a full scan,
+     * or with a walk of its preference order when walksIndex() prefers it.
+     *
+     * @param client Index of the client.
+     */
+    private void rescanClient(int client) {
+        if (walksIndex(numOpen)) {
+            rescanClientIndexed(client);
+            return;
+        }
+        int first = -1;
+        int second = -1;
+        float firstCost = Float.POSITIVE_INFINITY;
+        float secondBest = Float.POSITIVE_INFINITY;
+
+        long[] words = open.getWords();
+        for (int w = 0; w < words.length; w++) {
+            for (long word = words[w]; word != 0; word &= word - 1) {
+                int j = (w << 6) + Long.numberOfTrailingZeros(word);
+                float cost = costMatrix.getAllocCost(client, j);
+                if (cost < firstCost) {
+                    second = first;
+                    secondBest = firstCost;
+                    first = j;
+                    firstCost = cost;
+                } else if (cost < secondBest) {
+                    second = j;
+                    secondBest = cost;
+                }
+            }
+        }
+
+        nearest[client] = first;
+        secondNearest[client] = second;
+        nearestCost[client] = firstCost;
+        secondCost[client] = secondBest;
+    }
+
+    /**
+     * Recomputes the nearest and second-nearest open warehouses of a client from the first two open warehouses
+     * of its preference order.
+     *
+     * @param client Index of the client.
+     */
+    private void rescanClientIndexed(int client) {
+        int first = -1;
+        int second = -1;
+        for (int rank = 0; rank < numWarehouses && second < 0; rank++) {
+            int j = preferences.getWarehouse(client, rank);
+            if (open.get(j)) {
+                if (first < 0) {
+                    first = j;
+                } else {
+                    second = j;
+                }
+            }
+        }
+
+        nearest[client] = first;
+        secondNearest[client] = second;
+        nearestCost[client] = first >= 0 ? costMatrix.getAllocCost(client, first) : Float.POSITIVE_INFINITY;
+        secondCost[client] = second >= 0 ? costMatrix.getAllocCost(client, second) : Float.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,215 @@
+package modules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * EliteSet Class
+ * Bounded pool of the best diverse solutions found by a search, shared by its worker threads without locks.
+ * Diversity is measured by the Hamming distance between solutions: a solution that is not better than every
+ * entry must be at least the minimum distance away from all of them, and when the pool is full it replaces the
+ * entry most similar to it among those that cost more, so that the pool does not collapse around one optimum.
+ * The set is an immutable array of entries sorted by cost, published through an AtomicReference: an offer builds
+ * a new array and installs it with compare-and-set, retrying if another thread changed the set in between.
+ * Offers that cannot enter the set (no better than the worst entry of a full set, already present or too close to
+ * an entry) are rejected from the current snapshot without allocating.
+ */
+public class EliteSet {
+
+    /**
+     * Solution of the elite set with its cost.
+     */
+    public static final class Entry {
+        private final BitSolution solution; // Private copy of the solution
+        private final double cost; // Cost of the solution
+
+        private Entry(BitSolution solution, double cost) {
+            this.solution = solution;
+            this.cost = cost;
+        }
+
+        /**
+         * Getter for the solution. The solution is shared by every reader and must not be modified.
+         *
+         * @return Bitset of the open warehouses.
+         */
+        public BitSolution getSolution() {
+            return solution;
+        }
+
+        /**
+         * Getter for the cost of the solution.
+         *
+         * @return The cost.
+         */
+        public double getCost() {
+            return cost;
+        }
+    }
+
+    private static final int REJECTED = -2; // Offer that does not enter the set
+    private static final int ADDED = -1; // Offer that enters the set without removing an entry
+
+    private final int capacity; // Maximum number of entries
+    private final int minDistance; // Smallest Hamming distance to every entry required to enter the set
+    private final AtomicReference<Entry[]> entries; // Current entries, sorted by increasing cost
+
+    /**
+     * Constructor for an EliteSet that only requires its solutions to be distinct.
+     *
+     * @param capacity Maximum number of solutions kept.
+     */
+    public EliteSet(int capacity) {
+        this(capacity, 1);
+    }
+
+    /**
+     * Constructor for EliteSet.
+     *
+     * @param capacity Maximum number of solutions kept.
+     * @param minDistance Smallest Hamming distance to every entry required from a solution that does not beat
+     *                    the best entry.
+     */
+    public EliteSet(int capacity, int minDistance) {
+        if (capacity < 1 || minDistance < 1) {
+            throw new IllegalArgumentException("The elite set must hold at least one solution, at distance 1 or more.");
+        }
+        this.capacity = capacity;
+        this.minDistance = minDistance;
+        this.entries = new AtomicReference<>(new Entry[0]);
+    }
+
+    /**
+     * Offers a solution to the set. The solution is copied if it is accepted, so the caller may keep changing it.
+     *
+     * @param solution The solution.
+     * @param cost The cost of the solution.
+     * @return true if the solution entered the set.
+     */
+    public boolean offer(BitSolution solution, double cost) {
+        Entry added = null;
+        while (true) {
+            Entry[] current = this.entries.get();
+            int removed = replacement(current, solution, cost);
+            if (removed == REJECTED) {
+                return false;
+            }
+            if (added == null) {
+                added = new Entry(solution.copy(), cost);
+            }
+            if (this.entries.compareAndSet(current, insert(current, removed, added))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Decides whether a solution enters a snapshot of the set, and which entry it replaces.
+     *
+     * @param current The snapshot.
+     * @param solution The solution.
+     * @param cost The cost of the solution.
+     * @return REJECTED, ADDED if the set has room, or the index of the entry to replace.
+     */
+    private int replacement(Entry[] current, BitSolution solution, double cost) {
+        boolean full = current.length == this.capacity;
+        if (full && cost >= current[current.length - 1].cost) {
+            return REJECTED;
+        }
+        int closest = Integer.MAX_VALUE; // Distance to the closest entry
+        int closestWorse = -1; // Closest entry that costs more than the solution
+        int closestWorseDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < current.length; i++) {
+            int distance = current[i].solution.hammingDistance(solution);
+            if (distance == 0) {
+                return REJECTED; // Already in the set
+            }
+            closest = Math.min(closest, distance);
+            // Ties go to the entry that costs more, which comes later
+            if (current[i].cost > cost && distance <= closestWorseDistance) {
+                closestWorse = i;
+                closestWorseDistance = distance;
+            }
+        }
+        boolean newBest = current.length == 0 || cost < current[0].cost;
+        if (!newBest && closest < this.minDistance) {
+            return REJECTED;
+        }
+        return full ? closestWorse : ADDED;
+    }
+
+    /**
+     * Builds the snapshot that results from removing an entry and inserting another one in cost order.
+     *
+     * @param current The current snapshot.
+     * @param removed Index of the entry to remove, or ADDED to remove none.
+     * @param added The entry to insert.
+     * @return The new snapshot.
+     */
+    private Entry[] insert(Entry[] current, int removed, Entry added) {
+        Entry[] next = new Entry[removed == ADDED ? current.length + 1 : current.length];
+        int n = 0;
+        boolean placed = false;
+        for (int i = 0; i < current.length; i++) {
+            if (i == removed) {
+                continue;
+            }
+            if (!placed && added.cost < current[i].cost) {
+                next[n++] = added;
+                placed = true;
+            }
+            next[n++] = current[i];
+        }
+        if (!placed) {
+            next[n] = added;
+        }
+        return next;
+    }
+
+    /**
+     * Getter for the best entry of the set.
+     *
+     * @return The entry with the lowest cost, or null if the set is empty.
+     */
+    public Entry getBest() {
+        Entry[] current = this.entries.get();
+        return current.length == 0 ? null : current[0];
+    }
+
+    /**
+     * Getter for a snapshot of the entries.
+     *
+     * @return The entries sorted by increasing cost.
+     */
+    public List<Entry> getEntries() {
+        return new ArrayList<>(List.of(this.entries.get()));
+    }
+
+    /**
+     * Getter for the number of solutions in the set.
+     *
+     * @return Number of entries.
+     */
+    public int size() {
+        return this.entries.get().length;
+    }
+
+    /**
+     * Getter for the smallest Hamming distance to every entry required to enter the set.
+     *
+     * @return Minimum distance.
+     */
+    public int getMinDistance() {
+        return minDistance;
+    }
+
+    /**
+     * Getter for the maximum number of solutions in the set.
+     *
+     * @return Capacity of the set.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
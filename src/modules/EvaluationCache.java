@@ -0,0 +1,251 @@
+package modules;
+
+import java.util.Arrays;
+
+/**
+ * EvaluationCache Class
+ * Bounded cache of solution costs, keyed by the 64-bit hash of the solution and verified against its exact bits.
+ * Entries live in flat primitive arrays indexed through an open-addressing table, and are evicted with the CLOCK
+ * algorithm (an approximation of LRU): every hit sets a reference bit, and the clock hand clears reference bits
+ * until it finds an entry that was not used since its last pass. The arrays grow on demand up to a capacity derived
+ * from a memory cap. Hit, miss and eviction counters show how much the cache saves.
+ * Not thread-safe: each DeltaEvaluator has its own cache. Opt-in through setEvaluationCache() of Swap, Switch and
+ * ImprovSwap (SAMPLED mode); the other solvers score moves with incremental deltas and never consult it.
+ */
+public class EvaluationCache {
+
+    public static final long DEFAULT_MAX_BYTES = 4L << 20; // Default memory cap (4 MiB)
+
+    private static final int INITIAL_CAPACITY = 256; // Entries allocated before the first growth
+
+    private final int numWords; // Long words of each solution
+    private final int maxCapacity; // Maximum number of entries allowed by the memory cap
+    private int capacity; // Number of entries currently allocated
+    private int size; // Number of entries in use
+    private long[] hashes; // Hash of each entry
+    private long[] bits; // Solution words of each entry, numWords per entry
+    private double[] costs; // Cost of each entry
+    private boolean[] referenced; // CLOCK reference bit of each entry
+    private int[] table; // Open-addressing table: entry index + 1 per slot, 0 when empty
+    private int hand; // CLOCK hand
+    private long hits; // Lookups answered by the cache
+    private long misses; // Lookups not answered by the cache
+    private long evictions; // Entries evicted to make room
+
+    /**
+     * Constructor for EvaluationCache.
+     *
+     * @param numWarehouses Number of warehouses of the solutions.
+     * @param maxBytes Memory cap of the cache, in bytes.
+     */
+    public EvaluationCache(int numWarehouses, long maxBytes) {
+        this.numWords = (numWarehouses + 63) >>> 6;
+        // Hash, bits, cost, reference bit and up to four table slots per entry
+        long bytesPerEntry = Long.BYTES * (numWords + 1L) + Double.BYTES + 1 + 4L * Integer.BYTES;
+        this.maxCapacity = (int) Math.max(1, Math.min(1 << 28, maxBytes / bytesPerEntry));
+        allocate(Math.min(INITIAL_CAPACITY, this.maxCapacity));
+    }
+
+    /**
+     * Looks up the cost of a solution.
+     *
+     * @param solution The solution.
+     * @param hash The hash64() of the solution.
+     * @return The cached cost, or NaN if the solution is not in the cache.
+     */
+    public double get(BitSolution solution, long hash) {
+        int mask = table.length - 1;
+        for (int slot = slot(hash); table[slot] != 0; slot = (slot + 1) & mask) {
+            int entry = table[slot] - 1;
+            if (hashes[entry] == hash && sameBits(entry, solution.getWords())) {
+                referenced[entry] = true;
+                hits++;
+                return costs[entry];
+            }
+        }
+        misses++;
+        return Double.NaN;
+    }
+
+    /**
+     * Stores the cost of a solution that is not in the cache, evicting an entry if the cache is full.
+     *
+     * @param solution The solution.
+     * @param hash The hash64() of the solution.
+     * @param cost The cost of the solution.
+     */
+    public void put(BitSolution solution, long hash, double cost) {
+        int entry;
+        if (size == capacity && capacity < maxCapacity) {
+            allocate(Math.min(2 * capacity, maxCapacity));
+        }
+        if (size < capacity) {
+            entry = size++;
+        } else {
+            // CLOCK: skip the entries used since the last pass of the hand
+            while (referenced[hand]) {
+                referenced[hand] = false;
+                hand = (hand + 1) % capacity;
+            }
+            entry = hand;
+            hand = (hand + 1) % capacity;
+            removeFromTable(entry);
+            evictions++;
+        }
+
+        hashes[entry] = hash;
+        System.arraycopy(solution.getWords(), 0, bits, entry * numWords, numWords);
+        costs[entry] = cost;
+        referenced[entry] = false;
+        insertInTable(entry);
+    }
+
+    /**
+     * Getter for the number of lookups answered by the cache.
+     *
+     * @return Number of hits.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Getter for the number of lookups not answered by the cache.
+     *
+     * @return Number of misses.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Getter for the number of entries evicted to make room.
+     *
+     * @return Number of evictions.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Computes the fraction of the lookups answered by the cache.
+     *
+     * @return Hit rate between 0 and 1.
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Getter for the number of cached solutions.
+     *
+     * @return Number of entries in use.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Getter for the maximum number of cached solutions allowed by the memory cap.
+     *
+     * @return Maximum number of entries.
+     */
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    /**
+     * Overrides toString() to summarize the counters.
+     *
+     * @return String representation of the counters.
+     */
+    @Override
+    public String toString() {
+        return "hits " + hits + ", misses " + misses + ", evictions " + evictions
+                + " (hit rate " + String.format("%.2f", getHitRate() * 100) + "%)";
+    }
+
+    /**
+     * Grows the entry arrays and rebuilds the table.
+     *
+     * @param newCapacity The new number of entries.
+     */
+    private void allocate(int newCapacity) {
+        this.capacity = newCapacity;
+        this.hashes = hashes == null ? new long[newCapacity] : Arrays.copyOf(hashes, newCapacity);
+        this.bits = bits == null ? new long[newCapacity * numWords] : Arrays.copyOf(bits, newCapacity * numWords);
+        this.costs = costs == null ? new double[newCapacity] : Arrays.copyOf(costs, newCapacity);
+        this.referenced = referenced == null ? new boolean[newCapacity] : Arrays.copyOf(referenced, newCapacity);
+        // Keep the table at most half full
+        this.table = new int[Integer.highestOneBit(Math.max(1, newCapacity)) << 2];
+        for (int entry = 0; entry < size; entry++) {
+            insertInTable(entry);
+        }
+    }
+
+    /**
+     * Computes the home slot of a hash in the table.
+     *
+     * @param hash The hash of a solution.
+     * @return Index of the slot.
+     */
+    private int slot(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & (table.length - 1);
+    }
+
+    /**
+     * Inserts an entry in the table.
+     *
+     * @param entry Index of the entry.
+     */
+    private void insertInTable(int entry) {
+        int mask = table.length - 1;
+        int slot = slot(hashes[entry]);
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry + 1;
+    }
+
+    /**
+     * Removes an entry from the table, shifting back the entries of its probe run so that lookups stay correct.
+     *
+     * @param entry Index of the entry.
+     */
+    private void removeFromTable(int entry) {
+        int mask = table.length - 1;
+        int slot = slot(hashes[entry]);
+        while (table[slot] != entry + 1) {
+            slot = (slot + 1) & mask;
+        }
+        // Backward-shift deletion
+        int hole = slot;
+        for (int next = (hole + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int home = slot(hashes[table[next] - 1]);
+            // Move the entry into the hole if its home slot is not between the hole and its position
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    /**
+     * Checks whether an entry holds exactly the given solution words.
+     *
+     * @param entry Index of the entry.
+     * @param words The solution words.
+     * @return true if every word matches.
+     */
+    private boolean sameBits(int entry, long[] words) {
+        int offset = entry * numWords;
+        for (int w = 0; w < numWords; w++) {
+            if (bits[offset + w] != words[w]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,162 @@
+package modules;
+
+import java.util.Arrays;
+
+/**
+ * FastInterchange Class
+ * Finds the best swap move (close an open warehouse, open a closed one) of a solution in the style of
+ * Whitaker's fast interchange. Using the nearest and second-nearest bookkeeping of a DeltaEvaluator, the delta of
+ * swapping in warehouse i and out warehouse j is split into
+ * <pre>
+ * delta(i, j) = f(i) + gain(i) - f(j) + loss(j) - extra(i, j)
+ * </pre>
+ * where gain(i) is the allocation saving of opening i, loss(j) the allocation loss of closing j, and extra(i, j)
+ * corrects the clients of j that would move to i instead of their second-nearest warehouse. The whole neighbourhood
+ * is therefore scored in O(clients x warehouses) per sweep instead of O(open x closed x clients).
+ * When the evaluator has CandidateLists, gain(i) and extra(i, j) only cover the clients that have i among their
+ * k nearest warehouses, and a sweep costs O(clients x k) plus the combination step.
+ */
+public class FastInterchange {
+
+    private final DeltaEvaluator evaluator; // Evaluator holding the current solution
+    private final CostMatrix costMatrix; // Cost matrix of the instance
+    private final int numWarehouses; // Number of warehouses
+    private final int numClients; // Number of clients
+    private final double[] loss; // Allocation loss of closing each open warehouse
+    private final double[] extra; // Correction of each open warehouse for the candidate being opened
+    private double bestDelta; // Delta of the move returned by the last call to findBestSwap()
+
+    /**
+     * Filter of the swap moves that findBestSwap() may return, e.g. to skip tabu moves.
+     */
+    public interface MoveFilter {
+        /**
+         * Checks whether a move may be returned.
+         *
+         * @param move The swap move (see Move).
+         * @param delta New cost minus current cost of the move.
+         * @return true if the move is allowed.
+         */
+        boolean allows(long move, double delta);
+    }
+
+    /**
+     * Constructor for FastInterchange.
+     *
+     * @param evaluator The evaluator holding the current solution.
+     * @param costMatrix The cost matrix of the instance.
+     */
+    public FastInterchange(DeltaEvaluator evaluator, CostMatrix costMatrix) {
+        this.evaluator = evaluator;
+        this.costMatrix = costMatrix;
+        this.numWarehouses = costMatrix.getNumWarehouses();
+        this.numClients = costMatrix.getNumClients();
+        this.loss = new double[numWarehouses];
+        this.extra = new double[numWarehouses];
+    }
+
+    /**
+     * Getter for the evaluator whose solution is scored.
+     *
+     * @return The evaluator passed to the constructor.
+     */
+    public DeltaEvaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * Evaluates every swap move of the current solution and returns the best one.
+     *
+     * @return The best swap move (see Move), or -1 if the solution has no swap move.
+     */
+    public long findBestSwap() {
+        return findBestSwap(null);
+    }
+
+    /**
+     * Evaluates every swap move of the current solution and returns the best one allowed by a filter.
+     * The filter is only consulted for moves that improve on the best allowed move found so far.
+     *
+     * @param filter The filter of the allowed moves, or null to allow every move.
+     * @return The best allowed swap move (see Move), or -1 if no swap move is allowed.
+     */
+    public long findBestSwap(MoveFilter filter) {
+        BitSolution solution = evaluator.getSolution();
+        this.bestDelta = Double.POSITIVE_INFINITY;
+        long bestMove = -1;
+        if (evaluator.getNumOpen() == 0) {
+            return bestMove;
+        }
+        if (evaluator.getNumOpen() == 1) {
+            // Without a second-nearest warehouse the decomposition does not apply; score each swap directly
+            int out = solution.nextSetBit(0);
+            for (int in = solution.nextClearBit(0); in >= 0; in = solution.nextClearBit(in + 1)) {
+                double delta = evaluator.swapDelta(out, in);
+                if (delta < bestDelta && (filter == null || filter.allows(Move.swap(out, in), delta))) {
+                    bestDelta = delta;
+                    bestMove = Move.swap(out, in);
+                }
+            }
+            return bestMove;
+        }
+
+        // Loss of closing each open warehouse: its clients move to their second-nearest warehouse
+        Arrays.fill(loss, 0);
+        for (int c = 0; c < numClients; c++) {
+            loss[evaluator.getNearest(c)] += evaluator.getSecondCost(c) - evaluator.getNearestCost(c);
+        }
+
+        CandidateLists candidates = evaluator.getCandidateLists();
+        for (int in = solution.nextClearBit(0); in >= 0; in = solution.nextClearBit(in + 1)) {
+            // Gain of opening the candidate, and correction for the clients it would take from each open warehouse
+            double gain = costMatrix.getFixedCost(in);
+            Arrays.fill(extra, 0);
+            if (candidates != null) {
+                for (int i = candidates.start(in); i < candidates.end(in); i++) {
+                    gain += scoreClient(candidates.client(i), in);
+                }
+            } else {
+                for (int c = 0; c < numClients; c++) {
+                    gain += scoreClient(c, in);
+                }
+            }
+
+            // Combine with every open warehouse
+            for (int out = solution.nextSetBit(0); out >= 0; out = solution.nextSetBit(out + 1)) {
+                double delta = gain - costMatrix.getFixedCost(out) + loss[out] - extra[out];
+                if (delta < bestDelta && (filter == null || filter.allows(Move.swap(out, in), delta))) {
+                    bestDelta = delta;
+                    bestMove = Move.swap(out, in);
+                }
+            }
+        }
+
+        return bestMove;
+    }
+
+    /**
+     * Adds the correction of a client for a candidate warehouse to the extra of its nearest warehouse.
+     *
+     * @param client Index of the client.
+     * @param in Index of the closed warehouse being opened.
+     * @return Allocation saving of the client if the warehouse opens (zero or negative).
+     */
+    private double scoreClient(int client, int in) {
+        float cost = costMatrix.getAllocCost(client, in);
+        float nearestCost = evaluator.getNearestCost(client);
+        float secondCost = evaluator.getSecondCost(client);
+        if (cost < secondCost) {
+            extra[evaluator.getNearest(client)] += secondCost - Math.max(cost, nearestCost);
+        }
+        return cost < nearestCost ? cost - nearestCost : 0;
+    }
+
+    /**
+     * Getter for the delta of the move returned by the last call to findBestSwap().
+     *
+     * @return New cost minus current cost of the best swap, or positive infinity if there was none.
+     */
+    public double getBestDelta() {
+        return bestDelta;
+    }
+}
@@ -0,0 +1,48 @@
+package modules;
+
+/**
+ * FlipNeighbourhood Class
+ * Neighbourhood of the moves that toggle the open status of one warehouse.
+ * In drop-only mode only the open warehouses are toggled, as in the Switch algorithm.
+ */
+public class FlipNeighbourhood implements Neighbourhood {
+
+    private final int size; // Number of warehouses
+    private final boolean dropOnly; // Whether only closing moves are generated
+    private BitSolution solution; // Solution around which the sweep runs
+    private int nextWarehouse; // Warehouse of the next move, or -1 at the end of the sweep
+
+    /**
+     * Constructor for FlipNeighbourhood.
+     *
+     * @param size Number of warehouses.
+     * @param dropOnly true to only generate moves that close an open warehouse.
+     */
+    public FlipNeighbourhood(int size, boolean dropOnly) {
+        this.size = size;
+        this.dropOnly = dropOnly;
+        this.nextWarehouse = -1;
+    }
+
+    @Override
+    public void reset(BitSolution solution) {
+        this.solution = solution;
+        this.nextWarehouse = dropOnly ? solution.nextSetBit(0) : (size > 0 ? 0 : -1);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextWarehouse >= 0;
+    }
+
+    @Override
+    public long next() {
+        int warehouse = nextWarehouse;
+        if (dropOnly) {
+            nextWarehouse = solution.nextSetBit(warehouse + 1);
+        } else {
+            nextWarehouse = warehouse + 1 < size ? warehouse + 1 : -1;
+        }
+        return Move.flip(warehouse);
+    }
+}
@@ -0,0 +1,445 @@
+package modules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Phaser;
+
+/**
+ * GeneticAlgorithm Class
+ * Island-model genetic algorithm whose chromosomes are BitSolution bitsets of the open warehouses.
+ * Every island evolves its own population on its own thread, with its own SplittableRandom split from a master seed
+ * and its own BatchEvaluator, which scores each generation of offspring with a single pass over the cost matrix.
+ * The evaluators share a COLUMN_MAJOR copy of the matrix, the layout in which the batch reuses cache lines best.
+ * The operators are specialised to the UFLP: the crossover keeps the warehouses on which both parents agree and
+ * draws the others word by word from random bits, and the mutation either flips one warehouse or swaps an open
+ * warehouse for a closed one, which keeps the number of open warehouses. Children with no open warehouse are
+ * repaired by opening a random one.
+ * Every migration interval the islands meet at a barrier, and each one replaces its worst individuals with copies of
+ * the best individuals of the previous island of the ring. Since the islands only exchange individuals at the
+ * barriers, the result only depends on the seed and the number of islands, not on thread scheduling.
+ * The best chromosome found is finally polished with the flip and swap descent of VariableNeighbourhoodSearch.
+ * Under a SolverControl every island stops before its next generation once the deadline has passed or the control
+ * is cancelled, and leaves the barrier so that the others are not held back; a stopped run no longer depends only
+ * on the seed.
+ */
+public class GeneticAlgorithm implements AnytimeSolver {
+
+    public static final int DEFAULT_GENERATIONS = 300; // Default number of generations
+    public static final int DEFAULT_POPULATION = 48; // Default number of individuals per island
+    public static final int DEFAULT_MIGRATION_INTERVAL = 20; // Default generations between migrations
+    public static final int DEFAULT_MIGRANTS = 2; // Default individuals sent by each island per migration
+    public static final long DEFAULT_SEED = 42L; // Default master seed
+
+    private static final int ELITES = 2; // Best individuals copied unchanged into the next generation
+
+    private final DataContainer container; // Data container holding the instance
+    private final CostMatrix costMatrix; // Primitive cost matrix of the instance
+    private CostMatrix batchMatrix; // COLUMN_MAJOR copy of the cost matrix read by the batched evaluation
+    private final int generations; // Number of generations
+    private final long seed; // Master seed
+    private final int islands; // Number of islands, each one on its own thread
+    private int populationSize; // Number of individuals per island
+    private int migrationInterval; // Generations between migrations
+    private int migrants; // Individuals sent by each island per migration
+    private double evolvedCost; // Cost of the best chromosome before the final descent
+    private double bestSolutionCost; // Cost of the best solution found
+    private BitSolution bestSolution; // Bitset representing the best solution
+    private SolverControl control; // Deadline, cancellation and progress listener of the current run
+
+    /**
+     * Constructor for GeneticAlgorithm with the default number of generations and seed, with an island per core.
+     *
+     * @param container The data container containing the instance.
+     */
+    public GeneticAlgorithm(DataContainer container) {
+        this(container, DEFAULT_GENERATIONS, DEFAULT_SEED, Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Constructor for GeneticAlgorithm.
+     *
+     * @param container The data container containing the instance.
+     * @param generations Number of generations.
+     * @param seed Master seed from which the generator of each island is derived.
+     * @param islands Number of islands, each one evolved on its own thread.
+     */
+    public GeneticAlgorithm(DataContainer container, int generations, long seed, int islands) {
+        if (generations < 1 || islands < 1) {
+            throw new IllegalArgumentException("The number of generations and of islands must be at least 1.");
+        }
+        this.container = container;
+        this.costMatrix = container.getCostMatrix();
+        this.generations = generations;
+        this.seed = seed;
+        this.islands = islands;
+        this.populationSize = DEFAULT_POPULATION;
+        this.migrationInterval = DEFAULT_MIGRATION_INTERVAL;
+        this.migrants = DEFAULT_MIGRANTS;
+        this.control = new SolverControl();
+    }
+
+    /**
+     * Setter for the number of individuals per island.
+     *
+     * @param populationSize Number of individuals, more than twice the number of migrants and elites.
+     */
+    public void setPopulationSize(int populationSize) {
+        this.populationSize = populationSize;
+    }
+
+    /**
+     * Setter for the migration policy.
+     *
+     * @param migrationInterval Generations between migrations.
+     * @param migrants Individuals sent by each island per migration, 0 for isolated islands.
+     */
+    public void setMigration(int migrationInterval, int migrants) {
+        if (migrationInterval < 1 || migrants < 0) {
+            throw new IllegalArgumentException("Invalid migration policy.");
+        }
+        this.migrationInterval = migrationInterval;
+        this.migrants = migrants;
+    }
+
+    /**
+     * Executes the genetic algorithm.
+     * Prints the initial and best solution costs, the evolution statistics and the elapsed time.
+     *
+     * @return AlgorithmResult containing the best solution cost and elapsed time.
+     */
+    public AlgorithmResult useGeneticAlgorithm() {
+        if (this.populationSize <= 2 * Math.max(this.migrants, ELITES)) {
+            throw new IllegalArgumentException("The population is too small for the elites and the migrants.");
+        }
+        long start = System.nanoTime();
+
+        if (this.batchMatrix == null) {
+            this.batchMatrix = this.costMatrix.withLayout(CostMatrix.Layout.COLUMN_MAJOR);
+        }
+
+        // Derive the generators sequentially so that they do not depend on thread scheduling
+        SplittableRandom master = new SplittableRandom(this.seed);
+        BitSolution greedy = new GreedyAdd(this.container).buildSolution();
+        Island[] ring = new Island[this.islands];
+        for (int i = 0; i < this.islands; i++) {
+            ring[i] = new Island(master.split(), greedy, i == 0);
+        }
+        double initialCost = Double.POSITIVE_INFINITY;
+        for (Island island : ring) {
+            initialCost = Math.min(initialCost, island.fitness[island.best()]);
+        }
+        System.out.println("Initial solution cost: " + initialCost);
+        this.control.reportImprovement(initialCost, 0);
+
+        Phaser barrier = new Phaser(this.islands);
+        ForkJoinPool pool = new ForkJoinPool(this.islands);
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < this.islands; i++) {
+                Island island = ring[i];
+                Island previous = ring[(i + this.islands - 1) % this.islands];
+                tasks.add(pool.submit(() -> {
+                    try {
+                        island.evolve(previous, barrier);
+                    } catch (RuntimeException e) {
+                        barrier.forceTermination(); // Release the other islands
+                        throw e;
+                    }
+                }));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // Best chromosome over the islands, polished with the local search
+        Island bestIsland = ring[0];
+        long evaluations = 0;
+        int generationsDone = 0;
+        for (Island island : ring) {
+            evaluations += island.evaluations;
+            generationsDone = Math.max(generationsDone, island.generationsDone);
+            if (island.fitness[island.best()] < bestIsland.fitness[bestIsland.best()]) {
+                bestIsland = island;
+            }
+        }
+        this.evolvedCost = bestIsland.fitness[bestIsland.best()];
+        DeltaEvaluator evaluator = new DeltaEvaluator(this.costMatrix);
+        evaluator.setPreferenceIndex(this.container.getPreferenceIndex());
+        evaluator.load(bestIsland.population[bestIsland.best()]);
+        VariableNeighbourhoodSearch.descend(evaluator, List.of(new Switch(this.container),
+                new ImprovSwap(this.container, master.split())), null, this.control);
+        this.bestSolution = evaluator.getSolution().copy();
+        this.bestSolutionCost = evaluator.calculateSolutionCost(this.bestSolution);
+        this.control.reportImprovement(this.bestSolutionCost, generationsDone);
+
+        long end = System.nanoTime();
+        double elapsedTimeInSeconds = (end - start) / 1_000_000_000.0;
+        System.out.println("Generations: " + generationsDone + " of " + this.generations + " on " + this.islands
+                + " islands of " + this.populationSize + ", evaluations: " + evaluations + ", best evolved cost: "
+                + this.evolvedCost);
+        System.out.println("Best Solution Found: " + this.bestSolutionCost);
+        System.out.println("Time elapsed: " + elapsedTimeInSeconds + " seconds");
+
+        return new AlgorithmResult(this.bestSolutionCost, elapsedTimeInSeconds);
+    }
+
+    /**
+     * Getter for the cost of the best chromosome of the last run, before the final descent.
+     *
+     * @return The best evolved cost.
+     */
+    public double getEvolvedCost() {
+        return evolvedCost;
+    }
+
+    /**
+     * Executes the genetic algorithm under a control, stopping the islands early at its deadline or when it is
+     * cancelled. The best chromosome is still polished by the final descent.
+     *
+     * @param control Deadline, cancellation flag and progress listener of the run.
+     * @return AlgorithmResult containing the best solution cost and elapsed time.
+     */
+    @Override
+    public AlgorithmResult solve(SolverControl control) {
+        return AnytimeSolver.runUnder(control, c -> this.control = c, this::useGeneticAlgorithm);
+    }
+
+    /**
+     * Getter for the best solution found by the last call to useGeneticAlgorithm().
+     *
+     * @return Bitset of the open warehouses of the best solution.
+     */
+    @Override
+    public BitSolution getBestSolution() {
+        return bestSolution;
+    }
+
+    /**
+     * Population evolved by one thread, with the buffers it reuses from one generation to the next.
+     */
+    private final class Island {
+        private final SplittableRandom rand; // Generator of the island
+        private final BatchEvaluator evaluator; // Batched fitness evaluator of the island
+        private BitSolution[] population; // Current generation
+        private double[] fitness; // Cost of each individual of the current generation
+        private BitSolution[] offspring; // Next generation, built in place
+        private double[] offspringFitness; // Cost of each individual of the next generation
+        private final BitSolution[] emigrants; // Copies of the best individuals, read by the next island
+        private final double[] emigrantFitness; // Cost of each emigrant
+        private int published; // Generation of the emigrants, 0 for those of the initial population
+        private final Integer[] order; // Indices of the population, sorted by cost when needed
+        private long evaluations; // Chromosomes evaluated by the island
+        private int generationsDone; // Generations evolved by the island
+
+        /**
+         * Creates and evaluates the initial population: random chromosomes with about as many open warehouses as
+         * the greedy solution, which the first island also includes.
+         *
+         * @param rand Generator of the island.
+         * @param greedy Solution of the ADD greedy.
+         * @param seeded Whether the greedy solution is part of the population.
+         */
+        Island(SplittableRandom rand, BitSolution greedy, boolean seeded) {
+            int numWarehouses = costMatrix.getNumWarehouses();
+            this.rand = rand;
+            this.evaluator = new BatchEvaluator(batchMatrix);
+            this.population = new BitSolution[populationSize];
+            this.offspring = new BitSolution[populationSize];
+            this.fitness = new double[populationSize];
+            this.offspringFitness = new double[populationSize];
+            this.emigrants = new BitSolution[migrants];
+            this.emigrantFitness = new double[migrants];
+            this.order = new Integer[populationSize];
+
+            double density = Math.max(1, greedy.cardinality()) / (double) numWarehouses;
+            for (int i = 0; i < populationSize; i++) {
+                this.population[i] = new BitSolution(numWarehouses);
+                this.offspring[i] = new BitSolution(numWarehouses);
+                if (seeded && i == 0) {
+                    this.population[i].copyFrom(greedy);
+                    continue;
+                }
+                for (int j = 0; j < numWarehouses; j++) {
+                    if (rand.nextDouble() < density) {
+                        this.population[i].set(j);
+                    }
+                }
+                repair(this.population[i]);
+            }
+            this.evaluator.evaluate(this.population, populationSize, this.fitness);
+            this.evaluations += populationSize;
+
+            // Until the first migration the emigrants are the best of the initial population
+            sortByFitness();
+            for (int m = 0; m < migrants; m++) {
+                this.emigrants[m] = this.population[this.order[m]].copy();
+                this.emigrantFitness[m] = this.fitness[this.order[m]];
+            }
+        }
+
+        /**
+         * Evolves the population for every generation, migrating through the barrier.
+         *
+         * @param previous The previous island of the ring, whose emigrants this island receives.
+         * @param barrier Barrier shared by every island.
+         */
+        void evolve(Island previous, Phaser barrier) {
+            for (int generation = 1; generation <= generations && !control.shouldStop(); generation++) {
+                breed();
+                this.generationsDone = generation;
+                control.reportImprovement(this.fitness[best()], generation);
+                if (migrants > 0 && generation % migrationInterval == 0 && generation < generations) {
+                    sortByFitness();
+                    for (int m = 0; m < migrants; m++) {
+                        this.emigrants[m].copyFrom(this.population[this.order[m]]);
+                        this.emigrantFitness[m] = this.fitness[this.order[m]];
+                    }
+                    this.published = generation;
+                    barrier.arriveAndAwaitAdvance(); // Every island has published its emigrants
+                    // An island that stopped early has deregistered and published nothing this generation
+                    for (int m = 0; m < migrants && previous.published == generation; m++) {
+                        int worst = this.order[populationSize - 1 - m];
+                        this.population[worst].copyFrom(previous.emigrants[m]);
+                        this.fitness[worst] = previous.emigrantFitness[m];
+                    }
+                    barrier.arriveAndAwaitAdvance(); // Every island has read its immigrants
+                }
+            }
+            barrier.arriveAndDeregister();
+        }
+
+        /**
+         * Builds and evaluates the next generation: the elites, then children of tournament-selected parents.
+         */
+        private void breed() {
+            int children = populationSize - ELITES;
+            for (int i = 0; i < children; i++) {
+                BitSolution child = this.offspring[i];
+                crossover(this.population[tournament()], this.population[tournament()], child);
+                mutate(child);
+                repair(child);
+            }
+            this.evaluator.evaluate(this.offspring, children, this.offspringFitness);
+            this.evaluations += children;
+
+            // The elites go to the end of the next generation with their known cost
+            sortByFitness();
+            for (int e = 0; e < ELITES; e++) {
+                this.offspring[children + e].copyFrom(this.population[this.order[e]]);
+                this.offspringFitness[children + e] = this.fitness[this.order[e]];
+            }
+
+            BitSolution[] solutions = this.population;
+            this.population = this.offspring;
+            this.offspring = solutions;
+            double[] costs = this.fitness;
+            this.fitness = this.offspringFitness;
+            this.offspringFitness = costs;
+        }
+
+        /**
+         * Binary tournament selection.
+         *
+         * @return Index of the cheaper of two random individuals.
+         */
+        private int tournament() {
+            int a = this.rand.nextInt(populationSize);
+            int b = this.rand.nextInt(populationSize);
+            return this.fitness[a] <= this.fitness[b] ? a : b;
+        }
+
+        /**
+         * Crossover that keeps the warehouses on which both parents agree and draws every other warehouse from a
+         * random bit, a whole word at a time.
+         *
+         * @param a First parent.
+         * @param b Second parent.
+         * @param child Chromosome receiving the child.
+         */
+        private void crossover(BitSolution a, BitSolution b, BitSolution child) {
+            long[] first = a.getWords();
+            long[] second = b.getWords();
+            long[] words = child.getWords();
+            for (int w = 0; w < words.length; w++) {
+                words[w] = (first[w] & second[w]) | ((first[w] ^ second[w]) & this.rand.nextLong());
+            }
+        }
+
+        /**
+         * Mutation: flips a random warehouse, or closes a random open warehouse and opens a random closed one.
+         *
+         * @param child The chromosome to mutate.
+         */
+        private void mutate(BitSolution child) {
+            int numWarehouses = child.size();
+            int open = child.cardinality();
+            if (this.rand.nextBoolean() || open == 0 || open == numWarehouses) {
+                child.flip(this.rand.nextInt(numWarehouses));
+                return;
+            }
+            child.clear(nthBit(child, true, this.rand.nextInt(open)));
+            child.set(nthBit(child, false, this.rand.nextInt(numWarehouses - open)));
+        }
+
+        /**
+         * Opens a random warehouse if the chromosome has none open.
+         *
+         * @param child The chromosome to repair.
+         */
+        private void repair(BitSolution child) {
+            if (child.nextSetBit(0) < 0) {
+                child.set(this.rand.nextInt(child.size()));
+            }
+        }
+
+        /**
+         * Sorts the indices of the population by increasing cost, ties by index.
+         */
+        private void sortByFitness() {
+            for (int i = 0; i < populationSize; i++) {
+                this.order[i] = i;
+            }
+            double[] costs = this.fitness;
+            Arrays.sort(this.order, (x, y) -> costs[x] != costs[y] ? Double.compare(costs[x], costs[y])
+                    : Integer.compare(x, y));
+        }
+
+        /**
+         * Finds the cheapest individual of the current generation.
+         *
+         * @return Its index.
+         */
+        private int best() {
+            int best = 0;
+            for (int i = 1; i < populationSize; i++) {
+                if (this.fitness[i] < this.fitness[best]) {
+                    best = i;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Finds the n-th set or clear bit of a chromosome.
+     *
+     * @param solution The chromosome.
+     * @param set true to count set bits, false to count clear bits.
+     * @param n Rank of the bit, from 0.
+     * @return Index of the bit.
+     */
+    private static int nthBit(BitSolution solution, boolean set, int n) {
+        int j = set ? solution.nextSetBit(0) : solution.nextClearBit(0);
+        for (int i = 0; i < n; i++) {
+            j = set ? solution.nextSetBit(j + 1) : solution.nextClearBit(j + 1);
+        }
+        return j;
+    }
+}
@@ -0,0 +1,236 @@
+package modules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Grasp Class
+ * Greedy randomized adaptive search procedure (GRASP). Each iteration builds a solution with the randomized ADD
+ * greedy of GreedyAdd, which draws every warehouse from a restricted candidate list over the marginal savings,
+ * and polishes it with a variable neighbourhood descent over the flip (Switch) and swap (ImprovSwap)
+ * neighbourhoods. The local optima are offered to a lock-free EliteSet shared by the workers.
+ * The iterations run on a fork-join pool: worker w runs iterations w, w + P, w + 2P, ... with its own
+ * SplittableRandom split from a master seed before the workers start, and with its own constructor and evaluator,
+ * so the workers share nothing but the read-only instance and the elite set. For a given seed and number of
+ * workers the result does not depend on thread scheduling.
+ * Under a SolverControl every worker stops after its current iteration once the deadline has passed or the control
+ * is cancelled. Each worker completes at least one iteration, so a stopped run still has a solution, but it no
+ * longer depends only on the seed.
+ */
+public class Grasp implements AnytimeSolver {
+
+    public static final int DEFAULT_ITERATIONS = 64; // Default number of constructions
+    public static final long DEFAULT_SEED = 42L; // Default master seed
+    public static final double DEFAULT_ALPHA = 0.3; // Default greediness of the restricted candidate list
+    public static final int DEFAULT_ELITE_SIZE = 10; // Default number of elite solutions kept
+
+    private final DataContainer container; // Data container holding the instance
+    private final int iterations; // Number of constructions
+    private final long seed; // Master seed
+    private final int parallelism; // Number of worker threads of the fork-join pool
+    private double alpha; // Greediness of the restricted candidate list
+    private EliteSet eliteSet; // Best distinct local optima of the last run
+    private double bestSolutionCost; // Cost of the best solution found
+    private SolverControl control; // Deadline, cancellation and progress listener of the current run
+
+    /**
+     * Constructor for Grasp with the default number of iterations and seed, using every available core.
+     *
+     * @param container The data container containing the instance.
+     */
+    public Grasp(DataContainer container) {
+        this(container, DEFAULT_ITERATIONS, DEFAULT_SEED, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for Grasp.
+     *
+     * @param container The data container containing the instance.
+     * @param iterations Number of constructions.
+     * @param seed Master seed from which the generator of each worker is derived.
+     * @param parallelism Number of worker threads.
+     */
+    public Grasp(DataContainer container, int iterations, long seed, int parallelism) {
+        if (iterations < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("The number of iterations and of workers must be at least 1.");
+        }
+        this.container = container;
+        this.iterations = iterations;
+        this.seed = seed;
+        this.parallelism = parallelism;
+        this.alpha = DEFAULT_ALPHA;
+        this.eliteSet = new EliteSet(DEFAULT_ELITE_SIZE);
+        this.control = new SolverControl();
+    }
+
+    /**
+     * Setter for the greediness of the restricted candidate list.
+     *
+     * @param alpha 0 for the pure greedy, up to 1 for a uniform choice among the improving warehouses.
+     */
+    public void setAlpha(double alpha) {
+        if (alpha < 0 || alpha > 1) {
+            throw new IllegalArgumentException("alpha must be between 0 and 1.");
+        }
+        this.alpha = alpha;
+    }
+
+    /**
+     * Setter for the number of elite solutions kept.
+     *
+     * @param eliteSize Capacity of the elite set.
+     */
+    public void setEliteSize(int eliteSize) {
+        this.eliteSet = new EliteSet(eliteSize);
+    }
+
+    /**
+     * Setter for the size and diversity of the elite set, e.g. to relink it afterwards with PathRelinking.
+     *
+     * @param eliteSize Capacity of the elite set.
+     * @param minDistance Smallest Hamming distance between the elite solutions.
+     */
+    public void setEliteSize(int eliteSize, int minDistance) {
+        this.eliteSet = new EliteSet(eliteSize, minDistance);
+    }
+
+    /**
+     * Executes GRASP.
+     * Prints the construction and local search statistics, the best solution cost and the elapsed time.
+     *
+     * @return AlgorithmResult containing the best solution cost and elapsed time.
+     */
+    public AlgorithmResult useGrasp() {
+        long start = System.nanoTime();
+        this.eliteSet = new EliteSet(this.eliteSet.getCapacity(), this.eliteSet.getMinDistance());
+        this.container.getPreferenceIndex(); // Build the shared index once, before the workers need it
+
+        // Derive the generators sequentially so that they do not depend on thread scheduling
+        int workers = Math.min(this.parallelism, this.iterations);
+        SplittableRandom master = new SplittableRandom(this.seed);
+        SplittableRandom[] generators = new SplittableRandom[workers];
+        for (int w = 0; w < workers; w++) {
+            generators[w] = master.split();
+        }
+
+        // Iterations skipped by a stopped run keep NaN costs
+        double[] constructionCosts = new double[this.iterations];
+        double[] localOptimumCosts = new double[this.iterations];
+        Arrays.fill(constructionCosts, Double.NaN);
+        Arrays.fill(localOptimumCosts, Double.NaN);
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                int worker = w;
+                tasks.add(pool.submit(() -> runWorker(worker, workers, generators[worker],
+                        constructionCosts, localOptimumCosts)));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        BitSolution best = this.eliteSet.getBest().getSolution();
+        this.bestSolutionCost = new DeltaEvaluator(this.container.getCostMatrix()).calculateSolutionCost(best);
+
+        long end = System.nanoTime();
+        double elapsedTimeInSeconds = (end - start) / 1_000_000_000.0;
+        int completed = 0;
+        for (double cost : localOptimumCosts) {
+            completed += Double.isNaN(cost) ? 0 : 1;
+        }
+        System.out.println("Iterations: " + completed + " of " + this.iterations + " on " + workers
+                + " workers, mean construction cost: " + mean(constructionCosts) + ", mean local optimum cost: "
+                + mean(localOptimumCosts) + ", elite solutions: " + this.eliteSet.size());
+        System.out.println("Best Solution Found: " + this.bestSolutionCost);
+        System.out.println("Time elapsed: " + elapsedTimeInSeconds + " seconds");
+
+        return new AlgorithmResult(this.bestSolutionCost, elapsedTimeInSeconds);
+    }
+
+    /**
+     * Runs the iterations of one worker: iterations worker, worker + workers, ...
+     *
+     * @param worker Index of the worker.
+     * @param workers Number of workers.
+     * @param rand Generator of the worker.
+     * @param constructionCosts Array receiving the cost of each constructed solution.
+     * @param localOptimumCosts Array receiving the cost of each local optimum.
+     */
+    private void runWorker(int worker, int workers, SplittableRandom rand,
+                           double[] constructionCosts, double[] localOptimumCosts) {
+        GreedyAdd constructor = new GreedyAdd(this.container);
+        DeltaEvaluator evaluator = new DeltaEvaluator(this.container.getCostMatrix());
+        evaluator.setPreferenceIndex(this.container.getPreferenceIndex());
+        List<NeighbourhoodProvider> neighbourhoods = List.of(new Switch(this.container),
+                new ImprovSwap(this.container, rand));
+
+        for (int iteration = worker; iteration < this.iterations; iteration += workers) {
+            BitSolution solution = constructor.buildRandomizedSolution(this.alpha, rand);
+            constructionCosts[iteration] = constructor.getBestSolutionCost();
+            evaluator.load(solution);
+            VariableNeighbourhoodSearch.descend(evaluator, neighbourhoods, null, this.control);
+            localOptimumCosts[iteration] = evaluator.getCost();
+            this.eliteSet.offer(evaluator.getSolution(), evaluator.getCost());
+            this.control.reportImprovement(evaluator.getCost(), iteration);
+            if (this.control.shouldStop()) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Computes the mean of an array of costs, skipping the iterations that did not run.
+     *
+     * @param costs The costs, NaN for the iterations that did not run.
+     * @return Mean cost.
+     */
+    private static double mean(double[] costs) {
+        double sum = 0;
+        int count = 0;
+        for (double cost : costs) {
+            if (!Double.isNaN(cost)) {
+                sum += cost;
+                count++;
+            }
+        }
+        return sum / count;
+    }
+
+    /**
+     * Executes GRASP under a control, stopping the workers early at its deadline or when it is cancelled.
+     *
+     * @param control Deadline, cancellation flag and progress listener of the run.
+     * @return AlgorithmResult containing the best solution cost and elapsed time.
+     */
+    @Override
+    public AlgorithmResult solve(SolverControl control) {
+        return AnytimeSolver.runUnder(control, c -> this.control = c, this::useGrasp);
+    }
+
+    /**
+     * Getter for the elite set of the last run.
+     *
+     * @return The best distinct local optima, sorted by cost.
+     */
+    public EliteSet getEliteSet() {
+        return eliteSet;
+    }
+
+    /**
+     * Getter for the best solution found by the last call to useGrasp().
+     *
+     * @return Bitset of the open warehouses of the best solution.
+     */
+    @Override
+    public BitSolution getBestSolution() {
+        return this.eliteSet.getBest().getSolution();
+    }
+}
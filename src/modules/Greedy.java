@@ -1,19 +1,37 @@
 package modules;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * Implements a Greedy algorithm for solving the Facility Location Problem.
+ * Under a SolverControl the drops stop once the deadline has passed or the control is cancelled, keeping the
+ * warehouses closed so far.
  */
-public class Greedy {
+public class Greedy implements AnytimeSolver {
+
+    /**
+     * Order in which warehouses are dropped.
+     * FIRST_IMPROVEMENT tries closing the warehouses in index order and keeps every improving closure (default),
+     * STEEPEST closes the open warehouse with the largest saving on each step until no closure improves.
+     */
+    public enum DropMode {
+        FIRST_IMPROVEMENT,
+        STEEPEST
+    }
+
+    private static final double MIN_IMPROVEMENT = 1e-6; // Smallest accepted saving, guards against rounding in the losses
+    private static final long PARALLEL_THRESHOLD = 100_000; // Matrix size from which candidate scoring runs in parallel
 
     private DataContainer container; // Data container holding warehouses and clients
-    private List<Warehouse> warehouseList; // List of warehouses
-    private List<Client> clientList; // List of clients
-    private float bestSolutionCost; // Cost of the best solution found
-    private List<Boolean> bestSolution; // List indicating the state of warehouses in the best solution
-    private List<Boolean> currentSolution; // Current solution being evaluated
+    private CostMatrix costMatrix; // Primitive cost matrix of the instance
+    private DeltaEvaluator evaluator; // Incremental evaluator of the current solution
+    private double bestSolutionCost; // Cost of the best solution found
+    private BitSolution bestSolution; // Bitset indicating the state of warehouses in the best solution
+    private BitSolution currentSolution; // Current solution being evaluated
+    private DropMode dropMode; // Order in which warehouses are dropped
+    private int[] servedBy; // Nearest open warehouse of each client when its loss was last recorded
+    private float[] clientLoss; // Reassignment cost of each client when its nearest warehouse closes
+    private SolverControl control; // Deadline, cancellation and progress listener of the current run
 
     /**
      * Constructor for Greedy algorithm.
@@ -21,27 +39,34 @@ public class Greedy {
      */
     public Greedy(DataContainer container){
         this.container = container;
-        this.warehouseList = this.container.getWarehouses();
-        this.clientList = this.container.getClients();
+        this.costMatrix = this.container.getCostMatrix(); // Get cost matrix from data container
+        this.evaluator = new DeltaEvaluator(this.costMatrix); // Create the incremental evaluator
         this.bestSolutionCost = 0;
-        this.bestSolution = new ArrayList<>();
-        this.currentSolution = new ArrayList<>();
+        this.bestSolution = new BitSolution(this.costMatrix.getNumWarehouses());
+        this.currentSolution = new BitSolution(this.costMatrix.getNumWarehouses());
+        this.dropMode = DropMode.FIRST_IMPROVEMENT;
+        this.control = new SolverControl();
+    }
+
+    /**
+     * Setter for the order in which warehouses are dropped.
+     * @param dropMode FIRST_IMPROVEMENT or STEEPEST.
+     */
+    public void setDropMode(DropMode dropMode){
+        this.dropMode = dropMode;
     }
 
     /**
      * Generates the initial solution where all warehouses are open.
      */
     private void getInitialSolution(){
-        List<Boolean> current = new ArrayList<>();
-
         // Initialize all warehouses as open
-        for(Warehouse warehouse : warehouseList){
-            current.add(true);
-        }
+        BitSolution current = BitSolution.allOpen(costMatrix.getNumWarehouses());
 
         this.currentSolution = current;
         this.bestSolution = current;
-        this.bestSolutionCost = calculateSolutionCost(current);
+        this.evaluator.load(current);
+        this.bestSolutionCost = this.evaluator.getCost();
     }
 
     /**
@@ -49,17 +74,98 @@ public class Greedy {
      * It iteratively closes each warehouse and checks if the solution improves.
      */
     private void performGreedy(){
-        for(int i = 0; i < warehouseList.size(); i++){
-            this.currentSolution.set(i, false); // Close warehouse i
-
-            float currentCost = calculateSolutionCost(this.currentSolution);
+        for(int i = 0; i < costMatrix.getNumWarehouses() && !this.control.shouldStop(); i++){
+            // Cost of the solution with warehouse i closed
+            double currentCost = this.evaluator.getCost() + this.evaluator.closeDelta(i);
 
             if(currentCost < this.bestSolutionCost){
-                this.bestSolution = new ArrayList<>(this.currentSolution); // Copy the list
-                this.bestSolutionCost = currentCost;
-            } else {
-                this.currentSolution.set(i, true); // Re-open warehouse i
+                this.evaluator.close(i); // Close warehouse i
+                this.currentSolution.clear(i);
+                this.bestSolution = this.currentSolution.copy(); // Copy the bitset
+                this.bestSolutionCost = this.evaluator.getCost();
+                this.control.reportImprovement(this.bestSolutionCost, i + 1);
+            }
+        }
+    }
+
+    /**
+     * Performs the steepest DROP: on each step the open warehouse whose closure saves the most is closed.
+     * The loss of closing a warehouse is the fixed cost it saves against the reassignment cost of its clients to
+     * their second-nearest warehouse, so the losses of every open warehouse are built in one pass over the clients.
+     * After each closure only the clients whose nearest or second-nearest warehouse changed update the losses.
+     * Clients are split into chunks, each with its own partial losses, that are scored in parallel on large instances.
+     */
+    private void performSteepestGreedy(){
+        int numWarehouses = costMatrix.getNumWarehouses();
+        int numClients = costMatrix.getNumClients();
+        boolean parallel = (long) numWarehouses * numClients >= PARALLEL_THRESHOLD;
+        int numChunks = parallel ? Math.min(numClients, Runtime.getRuntime().availableProcessors()) : 1;
+        int chunkSize = (numClients + numChunks - 1) / Math.max(numChunks, 1);
+        double[][] partialLoss = new double[numChunks][numWarehouses];
+        this.servedBy = new int[numClients];
+        this.clientLoss = new float[numClients];
+
+        // Initial losses of every open warehouse
+        IntStream chunks = IntStream.range(0, numChunks);
+        (parallel ? chunks.parallel() : chunks).forEach(k ->
+                scoreClients(k * chunkSize, Math.min(numClients, (k + 1) * chunkSize), partialLoss[k], false));
+
+        long steps = 0;
+        while(this.evaluator.getNumOpen() > 1 && !this.control.shouldStop()){
+            // Pick the open warehouse with the most negative closing delta
+            int best = -1;
+            double bestDelta = -MIN_IMPROVEMENT;
+            for(int j = this.currentSolution.nextSetBit(0); j >= 0; j = this.currentSolution.nextSetBit(j + 1)){
+                double delta = -costMatrix.getFixedCost(j);
+                for(int k = 0; k < numChunks; k++){
+                    delta += partialLoss[k][j];
+                }
+                if(delta < bestDelta){
+                    bestDelta = delta;
+                    best = j;
+                }
+            }
+            if(best < 0){
+                break; // No closure improves the solution
+            }
+
+            this.evaluator.close(best);
+            this.currentSolution.clear(best);
+            this.control.reportImprovement(this.evaluator.getCost(), ++steps);
+            if(this.evaluator.getNumOpen() <= 1){
+                break; // Losses are infinite with a single open warehouse
             }
+
+            // Update the losses of the clients whose assignment changed
+            chunks = IntStream.range(0, numChunks);
+            (parallel ? chunks.parallel() : chunks).forEach(k ->
+                    scoreClients(k * chunkSize, Math.min(numClients, (k + 1) * chunkSize), partialLoss[k], true));
+        }
+
+        this.bestSolution = this.currentSolution.copy();
+        this.bestSolutionCost = this.evaluator.getCost();
+    }
+
+    /**
+     * Records the reassignment loss of a range of clients in the partial losses of their nearest warehouse.
+     * @param from First client of the range (inclusive).
+     * @param to Last client of the range (exclusive).
+     * @param loss Partial losses of the chunk the range belongs to.
+     * @param update true to replace the previously recorded losses of clients that changed, false for the first pass.
+     */
+    private void scoreClients(int from, int to, double[] loss, boolean update){
+        for(int c = from; c < to; c++){
+            int nearest = this.evaluator.getNearest(c);
+            float cost = this.evaluator.getSecondCost(c) - this.evaluator.getNearestCost(c);
+            if(update){
+                if(nearest == this.servedBy[c] && cost == this.clientLoss[c]){
+                    continue;
+                }
+                loss[this.servedBy[c]] -= this.clientLoss[c];
+            }
+            loss[nearest] += cost;
+            this.servedBy[c] = nearest;
+            this.clientLoss[c] = cost;
         }
     }
 
@@ -72,7 +178,12 @@ public class Greedy {
 
         getInitialSolution();
         System.out.println("Initial solution cost: " + this.bestSolutionCost);
-        performGreedy();
+        this.control.reportImprovement(this.bestSolutionCost, 0);
+        if(this.dropMode == DropMode.STEEPEST){
+            performSteepestGreedy();
+        } else {
+            performGreedy();
+        }
 
         long end = System.nanoTime();
         long elapsedTime = end - start;
@@ -84,32 +195,21 @@ public class Greedy {
     }
 
     /**
-     * Calculates the cost of the current solution.
-     * This includes the fixed costs of open warehouses and allocation costs to clients.
-     * @param solution A list of Booleans indicating whether each warehouse is open (true) or closed (false).
-     * @return Total cost of the current solution.
+     * Executes the Greedy algorithm under a control, stopping the drops early at its deadline or when it is cancelled.
+     * @param control Deadline, cancellation flag and progress listener of the run.
+     * @return AlgorithmResult containing the best solution cost and execution time.
      */
-    private float calculateSolutionCost(List<Boolean> solution) {
-        float totalCost = 0;
-
-        // Calculate the fixed cost of open warehouses
-        for(int i = 0; i < solution.size(); i++){
-            if(solution.get(i)){
-                totalCost += warehouseList.get(i).getFixedCost();
-            }
-        }
-
-        // Calculate the allocation cost of clients to open warehouses
-        for (Client client : clientList) {
-            float minAllocCost = Float.MAX_VALUE;
-            for (int i = 0; i < solution.size(); i++) {
-                if (solution.get(i)) {
-                    minAllocCost = Math.min(minAllocCost, client.getAllocCosts().get(i));
-                }
-            }
-            totalCost += minAllocCost;
-        }
+    @Override
+    public AlgorithmResult solve(SolverControl control){
+        return AnytimeSolver.runUnder(control, c -> this.control = c, this::useGreedy);
+    }
 
-        return totalCost;
+    /**
+     * Getter for the best solution found by the last call to useGreedy().
+     * @return Bitset of the open warehouses of the best solution.
+     */
+    @Override
+    public BitSolution getBestSolution(){
+        return bestSolution;
     }
 }
@@ -0,0 +1,340 @@
+package modules;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Implements a lazy ADD greedy constructor for the Facility Location Problem.
+ * Warehouses are opened one at a time by best marginal saving. Since the saving of opening a warehouse can only
+ * shrink as other warehouses open (diminishing returns), the last computed saving of each candidate is an upper
+ * bound on its current saving. The bounds are kept in a max-heap and only the candidate at the top is rescored,
+ * so most candidates are never re-evaluated.
+ * A randomized variant for GRASP picks each warehouse at random from a restricted candidate list (RCL) of the
+ * warehouses whose saving is close to the best one.
+ * Under a SolverControl the lazy greedy stops opening warehouses once the deadline has passed or the control is
+ * cancelled, keeping the warehouses opened so far.
+ */
+public class GreedyAdd implements AnytimeSolver {
+
+    private DataContainer container; // Data container holding warehouses and clients
+    private CostMatrix costMatrix; // Primitive cost matrix of the instance
+    private DeltaEvaluator evaluator; // Incremental evaluator of the solution being built
+    private double bestSolutionCost; // Cost of the solution built
+    private BitSolution bestSolution; // Bitset of the solution built
+    private int evaluations; // Number of marginal savings computed
+    private double[] heapBounds; // Max-heap of saving bounds
+    private int[] heapWarehouses; // Warehouse of each heap entry
+    private int heapSize; // Number of entries in the heap
+    private double[] standaloneCosts; // Cost of each warehouse open on its own, computed on first use
+    private int[] rclCandidates; // Closed warehouses that may still have a positive saving
+    private double[] rclSavings; // Saving of each candidate of rclCandidates
+    private SolverControl control; // Deadline, cancellation and progress listener of the current run
+
+    /**
+     * Constructor for the GreedyAdd algorithm.
+     * @param container Data container containing warehouses and clients.
+     */
+    public GreedyAdd(DataContainer container){
+        this.container = container;
+        this.costMatrix = this.container.getCostMatrix();
+        this.evaluator = new DeltaEvaluator(this.costMatrix);
+        this.bestSolutionCost = 0;
+        this.bestSolution = new BitSolution(this.costMatrix.getNumWarehouses());
+        this.heapBounds = new double[this.costMatrix.getNumWarehouses()];
+        this.heapWarehouses = new int[this.costMatrix.getNumWarehouses()];
+        this.control = new SolverControl();
+    }
+
+    /**
+     * Builds a solution with the lazy ADD greedy, without printing anything.
+     * Can be used as the starting solution of the local searches.
+     * @return Bitset of the open warehouses of the solution.
+     */
+    public BitSolution buildSolution(){
+        int numWarehouses = costMatrix.getNumWarehouses();
+        this.evaluator.load(null);
+        this.evaluations = 0;
+        this.heapSize = 0;
+
+        // Open the warehouse that is cheapest on its own
+        double[] costs = standaloneCosts();
+        int first = 0;
+        for(int j = 1; j < numWarehouses; j++){
+            if(costs[j] < costs[first]){
+                first = j;
+            }
+        }
+        this.evaluator.open(first);
+        this.control.reportImprovement(this.evaluator.getCost(), 0);
+
+        // Initial saving of every other warehouse
+        for(int j = 0; j < numWarehouses; j++){
+            if(j != first){
+                push(-this.evaluator.openDelta(j), j);
+                this.evaluations++;
+            }
+        }
+
+        // Lazily open the warehouse with the best saving while it improves the solution
+        while(this.heapSize > 0 && this.heapBounds[0] > 0 && !this.control.shouldStop()){
+            int candidate = this.heapWarehouses[0];
+            pop();
+            double saving = -this.evaluator.openDelta(candidate);
+            this.evaluations++;
+
+            if(this.heapSize == 0 || saving >= this.heapBounds[0]){
+                // The updated saving still beats every other bound
+                if(saving > 0){
+                    this.evaluator.open(candidate);
+                    this.control.reportImprovement(this.evaluator.getCost(), this.evaluations);
+                }
+            } else {
+                push(saving, candidate);
+            }
+        }
+
+        this.bestSolution = this.evaluator.getSolution().copy();
+        this.bestSolutionCost = this.evaluator.getCost();
+        return this.bestSolution;
+    }
+
+    /**
+     * Builds a solution with a randomized ADD greedy, without printing anything.
+     * The first warehouse is drawn from the warehouses whose standalone cost is within alpha of the cheapest one.
+     * Then, while some closed warehouse has a positive saving, a warehouse is drawn uniformly from the restricted
+     * candidate list of the warehouses whose saving is at least best - alpha * (best - worst), over the positive
+     * savings. Savings only shrink as warehouses open, so a warehouse whose saving drops to zero or below is never
+     * scored again.
+     * @param alpha Greediness of the list, from 0 (pure greedy) to 1 (any improving warehouse).
+     * @param rand Random number generator of the caller.
+     * @return Bitset of the open warehouses of the solution.
+     */
+    public BitSolution buildRandomizedSolution(double alpha, RandomGenerator rand){
+        int numWarehouses = costMatrix.getNumWarehouses();
+        if(this.rclCandidates == null){
+            this.rclCandidates = new int[numWarehouses];
+            this.rclSavings = new double[numWarehouses];
+        }
+        this.evaluator.load(null);
+        this.evaluations = 0;
+
+        // First warehouse: restricted candidate list over the standalone costs
+        double[] costs = standaloneCosts();
+        double cheapest = Double.POSITIVE_INFINITY;
+        double dearest = Double.NEGATIVE_INFINITY;
+        for(int j = 0; j < numWarehouses; j++){
+            cheapest = Math.min(cheapest, costs[j]);
+            dearest = Math.max(dearest, costs[j]);
+        }
+        double threshold = cheapest + alpha * (dearest - cheapest);
+        this.evaluator.open(drawBelow(costs, threshold, rand));
+
+        int candidates = 0;
+        for(int j = 0; j < numWarehouses; j++){
+            if(!this.evaluator.isOpen(j)){
+                this.rclCandidates[candidates++] = j;
+            }
+        }
+
+        while(candidates > 0){
+            // Rescore the candidates, dropping those that can no longer improve the solution
+            double best = Double.NEGATIVE_INFINITY;
+            double worst = Double.POSITIVE_INFINITY;
+            int kept = 0;
+            for(int i = 0; i < candidates; i++){
+                int j = this.rclCandidates[i];
+                double saving = -this.evaluator.openDelta(j);
+                this.evaluations++;
+                if(saving > 0){
+                    this.rclCandidates[kept] = j;
+                    this.rclSavings[kept++] = saving;
+                    best = Math.max(best, saving);
+                    worst = Math.min(worst, saving);
+                }
+            }
+            candidates = kept;
+            if(candidates == 0){
+                break;
+            }
+
+            // Draw uniformly from the warehouses whose saving is close enough to the best one
+            double cutoff = best - alpha * (best - worst);
+            int listSize = 0;
+            for(int i = 0; i < candidates; i++){
+                if(this.rclSavings[i] >= cutoff){
+                    listSize++;
+                }
+            }
+            int pick = rand.nextInt(listSize);
+            for(int i = 0; i < candidates; i++){
+                if(this.rclSavings[i] >= cutoff && pick-- == 0){
+                    this.evaluator.open(this.rclCandidates[i]);
+                    this.rclCandidates[i] = this.rclCandidates[--candidates];
+                    break;
+                }
+            }
+        }
+
+        this.bestSolution = this.evaluator.getSolution().copy();
+        this.bestSolutionCost = this.evaluator.getCost();
+        return this.bestSolution;
+    }
+
+    /**
+     * Getter for the cost of the solution built by the last run.
+     * @return Cost of the solution.
+     */
+    public double getBestSolutionCost(){
+        return bestSolutionCost;
+    }
+
+    /**
+     * Computes the cost of each warehouse open on its own (fixed cost plus every client allocated to it).
+     * @return Standalone cost of each warehouse.
+     */
+    private double[] standaloneCosts(){
+        if(this.standaloneCosts == null){
+            int numWarehouses = costMatrix.getNumWarehouses();
+            double[] costs = new double[numWarehouses];
+            for(int j = 0; j < numWarehouses; j++){
+                double cost = costMatrix.getFixedCost(j);
+                for(int c = 0; c < costMatrix.getNumClients(); c++){
+                    cost += costMatrix.getAllocCost(c, j);
+                }
+                costs[j] = cost;
+            }
+            this.standaloneCosts = costs;
+        }
+        return this.standaloneCosts;
+    }
+
+    /**
+     * Draws uniformly one of the indices whose value is at most a threshold.
+     * @param values Values of the indices.
+     * @param threshold Largest accepted value, at least the smallest value.
+     * @param rand Random number generator.
+     * @return The drawn index.
+     */
+    private static int drawBelow(double[] values, double threshold, RandomGenerator rand){
+        int count = 0;
+        for(double value : values){
+            if(value <= threshold){
+                count++;
+            }
+        }
+        int pick = rand.nextInt(count);
+        for(int j = 0; j < values.length; j++){
+            if(values[j] <= threshold && pick-- == 0){
+                return j;
+            }
+        }
+        throw new IllegalStateException("No value below the threshold.");
+    }
+
+    /**
+     * Executes the lazy ADD greedy algorithm.
+     * @return AlgorithmResult containing the best solution cost and execution time.
+     */
+    public AlgorithmResult useGreedyAdd(){
+        long start = System.nanoTime();
+
+        buildSolution();
+
+        long end = System.nanoTime();
+        long elapsedTime = end - start;
+        double elapsedTimeInSeconds = elapsedTime / 1_000_000_000.0;
+        System.out.println("Open warehouses: " + this.bestSolution.cardinality() + ", savings evaluated: "
+                + this.evaluations + " (eager greedy: up to " + eagerEvaluations() + ")");
+        System.out.println("Best Solution Found: " + this.bestSolutionCost);
+        System.out.println("Time elapsed: " + elapsedTimeInSeconds + " seconds");
+
+        return new AlgorithmResult(this.bestSolutionCost, elapsedTimeInSeconds);
+    }
+
+    /**
+     * Executes the lazy ADD greedy algorithm under a control, stopping early at its deadline or when it is cancelled.
+     * @param control Deadline, cancellation flag and progress listener of the run.
+     * @return AlgorithmResult containing the best solution cost and execution time.
+     */
+    @Override
+    public AlgorithmResult solve(SolverControl control){
+        return AnytimeSolver.runUnder(control, c -> this.control = c, this::useGreedyAdd);
+    }
+
+    /**
+     * Getter for the solution built by the last run.
+     * @return Bitset of the open warehouses.
+     */
+    @Override
+    public BitSolution getBestSolution(){
+        return bestSolution;
+    }
+
+    /**
+     * Getter for the number of marginal savings computed by the last run.
+     * @return Number of openDelta evaluations.
+     */
+    public int getEvaluations(){
+        return evaluations;
+    }
+
+    /**
+     * Computes how many savings an eager ADD greedy would compute to open the same warehouses,
+     * rescoring every closed warehouse at each step.
+     * @return Number of evaluations of the eager greedy.
+     */
+    private long eagerEvaluations(){
+        long total = 0;
+        int closed = costMatrix.getNumWarehouses() - 1;
+        for(int step = 1; step <= this.bestSolution.cardinality() && closed > 0; step++){
+            total += closed;
+            closed--;
+        }
+        return total;
+    }
+
+    /**
+     * Inserts a saving bound in the max-heap.
+     * @param bound Upper bound on the saving of the warehouse.
+     * @param warehouse Index of the warehouse.
+     */
+    private void push(double bound, int warehouse){
+        int i = this.heapSize++;
+        while(i > 0){
+            int parent = (i - 1) >>> 1;
+            if(this.heapBounds[parent] >= bound){
+                break;
+            }
+            this.heapBounds[i] = this.heapBounds[parent];
+            this.heapWarehouses[i] = this.heapWarehouses[parent];
+            i = parent;
+        }
+        this.heapBounds[i] = bound;
+        this.heapWarehouses[i] = warehouse;
+    }
+
+    /**
+     * Removes the top entry of the max-heap.
+     */
+    private void pop(){
+        double bound = this.heapBounds[--this.heapSize];
+        int warehouse = this.heapWarehouses[this.heapSize];
+        int i = 0;
+        while(true){
+            int child = 2 * i + 1;
+            if(child >= this.heapSize){
+                break;
+            }
+            if(child + 1 < this.heapSize && this.heapBounds[child + 1] > this.heapBounds[child]){
+                child++;
+            }
+            if(this.heapBounds[child] <= bound){
+                break;
+            }
+            this.heapBounds[i] = this.heapBounds[child];
+            this.heapWarehouses[i] = this.heapWarehouses[child];
+            i = child;
+        }
+        this.heapBounds[i] = bound;
+        this.heapWarehouses[i] = warehouse;
+    }
+}
@@ -4,20 +4,40 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * ImprovSwap Class
  * This class implements an improved swapping algorithm for solving the Uncapacitated Facility Location Problem (UFLP).
+ * As a NeighbourhoodProvider it offers the full swap neighbourhood, scored with FastInterchange.
  */
-public class ImprovSwap {
+public class ImprovSwap implements NeighbourhoodProvider, AnytimeSolver {
+
+    /**
+     * Local search strategy.
+     * FAST_INTERCHANGE applies the best move of the full swap neighbourhood on each sweep (default),
+     * SAMPLED accepts the first improving move among 10 random swaps per iteration.
+     */
+    public enum SearchMode {
+        FAST_INTERCHANGE,
+        SAMPLED
+    }
+
+    private static final double MIN_IMPROVEMENT = 1e-6; // Smallest accepted improvement, guards against rounding cycles
+
     private DataContainer container; // Data container holding warehouses and clients
-    private List<Warehouse> warehouseList; // List of warehouses
-    private List<Client> clientList; // List of clients
-    private float bestSolutionCost; // Cost of the best solution found
-    private List<Boolean> bestSolution; // Boolean list representing the best solution
-    private List<Boolean> currentSolution; // Boolean list representing the current solution
+    private CostMatrix costMatrix; // Primitive cost matrix of the instance
+    private DeltaEvaluator evaluator; // Incremental evaluator of the current solution
+    private double bestSolutionCost; // Cost of the best solution found
+    private BitSolution bestSolution; // Bitset representing the best solution
+    private BitSolution currentSolution; // Bitset representing the current solution
+    private BitSolution startSolution; // Starting solution given by the caller, or null for the default one
+    private EliteSet elitePool; // Pool receiving the local optimum of every run, or null
+    private SolverControl control; // Deadline, cancellation and progress listener of the current run
 
-    private Random rand; // Random number generator
+    private RandomGenerator rand; // Random number generator
+    private SearchMode searchMode; // Local search strategy
+    private FastInterchange providedInterchange; // Swap scorer of the last evaluator passed to findBestMove()
 
     /**
      * Constructor for the ImprovSwap class.
@@ -25,109 +45,99 @@ public class ImprovSwap {
      * @param container The data container containing warehouses and clients.
      */
     public ImprovSwap(DataContainer container){
+        this(container, new Random());
+    }
+
+    /**
+     * Constructor for the ImprovSwap class with a given random number generator.
+     * Runs with the same generator state are reproducible.
+     * @param container The data container containing warehouses and clients.
+     * @param rand The random number generator used to draw the neighbours.
+     */
+    public ImprovSwap(DataContainer container, RandomGenerator rand){
         this.container = container;
-        this.warehouseList = this.container.getWarehouses(); // Get warehouses from data container
-        this.clientList = this.container.getClients(); // Get clients from data container
+        this.costMatrix = this.container.getCostMatrix(); // Get cost matrix from data container
+        this.evaluator = new DeltaEvaluator(this.costMatrix); // Create the incremental evaluator
+        this.evaluator.setPreferenceIndex(this.container.getPreferenceIndex()); // Walk clients' warehouses by cost
         this.bestSolutionCost = 0; // Initialize best solution cost
-        this.rand = new Random(); // Initialize random number generator
-        this.bestSolution = new ArrayList<>(); // Initialize best solution list
-        this.currentSolution = new ArrayList<>(); // Initialize current solution list
+        this.rand = rand; // Initialize random number generator
+        this.searchMode = SearchMode.FAST_INTERCHANGE; // Best-improvement full swap neighbourhood by default
+        this.bestSolution = new BitSolution(this.costMatrix.getNumWarehouses()); // Initialize best solution
+        this.currentSolution = new BitSolution(this.costMatrix.getNumWarehouses()); // Initialize current solution
+        this.control = new SolverControl();
     }
 
     /**
-     * Initializes the initial solution by opening a subset of warehouses with the lowest fixed costs.
-     * Calculates the initial solution cost and updates the best solution.
+     * Setter for the candidate list size. Openings are then scored only over the clients that have the opened
+     * warehouse among their k nearest warehouses, which speeds up the sweeps at some cost in quality.
+     *
+     * @param k Number of nearest warehouses of each client, or 0 to score openings over every client.
      */
-    private void getInitialSolution(int numOpenWarehouses) {
-
-        List<Boolean> current = new ArrayList<>();
-
-        // Initialize lists of open and closed warehouses
-        for (int i = 0; i < warehouseList.size(); i++) {
-            current.add(false);
-        }
-
-        // Sort warehouses by fixed cost
-        List<Warehouse> sortedWarehouses = new ArrayList<>(warehouseList);
-        sortedWarehouses.sort(Comparator.comparingDouble(Warehouse::getFixedCost));
-
-        // Open the warehouses with the lowest fixed costs
-        for (int i = 0; i < numOpenWarehouses && i < sortedWarehouses.size(); i++) {
-            int index = warehouseList.indexOf(sortedWarehouses.get(i));
-            current.set(index, true);
-        }
-
-        this.currentSolution = current;
-        this.bestSolutionCost = calculateSolutionCost(current);
+    public void setCandidateListSize(int k) {
+        this.evaluator.setCandidateLists(k > 0 ? new CandidateLists(this.container.getPreferenceIndex(), k) : null);
     }
 
     /**
-     * Calculates the current solution cost.
-     * This includes the fixed costs of open warehouses and allocation costs to clients.
-     * @param solution The current solution configuration.
-     * @return Total cost of the current solution.
+     * Setter for the starting solution of the local search, e.g. one built by GreedyAdd.
+     * When set, it replaces the default initial solution.
+     *
+     * @param startSolution The starting solution, or null to use the default initial solution.
      */
-    private float calculateSolutionCost(List<Boolean> solution) {
-        float totalCost = 0;
-
-        // Calculate fixed costs of open warehouses
-        for(int i = 0; i < solution.size(); i++){
-            if(solution.get(i)){
-                totalCost += warehouseList.get(i).getFixedCost();
-            }
-        }
+    public void setStartSolution(BitSolution startSolution) {
+        this.startSolution = startSolution;
+    }
 
-        // Calculate allocation costs of clients to open warehouses
-        for (Client client : clientList) {
-            float minAllocCost = Float.MAX_VALUE;
-            for (int i = 0; i < solution.size(); i++) {
-                if (solution.get(i)) {
-                    minAllocCost = Math.min(minAllocCost, client.getAllocCosts().get(i));
-                }
-            }
-            totalCost += minAllocCost;
-        }
+    /**
+     * Setter for the cache of neighbour costs consulted by the SAMPLED search. There is none by default, and the
+     * FAST_INTERCHANGE search never consults it: it scores whole swap rows from its per-client tables instead.
+     * @param cache The evaluation cache, e.g. new EvaluationCache(numWarehouses, EvaluationCache.DEFAULT_MAX_BYTES),
+     *              or null for none.
+     */
+    public void setEvaluationCache(EvaluationCache cache) {
+        this.evaluator.setCache(cache);
+    }
 
-        return totalCost;
+    /**
+     * Setter for the elite pool offered the local optimum of every call to useSwap(), e.g. one shared by the runs
+     * of MultiStart and later relinked by PathRelinking.
+     *
+     * @param elitePool The elite pool, or null to keep no pool.
+     */
+    public void setElitePool(EliteSet elitePool) {
+        this.elitePool = elitePool;
     }
 
     /**
-     * Generates neighboring solutions by swapping open and closed warehouses.
-     * @param maxNeighbours Maximum number of neighboring solutions to generate.
-     * @return List of neighboring solutions.
+     * Initializes the initial solution by opening a subset of warehouses with the lowest fixed costs.
+     * Calculates the initial solution cost and updates the best solution.
      */
-    private List<List<Boolean>> generateNeighbours(int maxNeighbours) {
-        List<List<Boolean>> neighbours = new ArrayList<>();
-        List<Integer> openIndices = new ArrayList<>();
-        List<Integer> closedIndices = new ArrayList<>();
-
-        // Populate lists of open and closed indices
-        for (int i = 0; i < currentSolution.size(); i++) {
-            if (currentSolution.get(i)) {
-                openIndices.add(i);
-            } else {
-                closedIndices.add(i);
-            }
+    private void getInitialSolution(int numOpenWarehouses) {
+        // Start from the given solution, if any
+        if (this.startSolution != null) {
+            this.currentSolution = this.startSolution.copy();
+            this.evaluator.load(this.currentSolution);
+            this.bestSolutionCost = this.evaluator.getCost();
+            return;
         }
 
-        // Generate neighbours up to the maximum allowed or until all possible combinations are exhausted
-        for (int i = 0; i < Math.min(maxNeighbours, openIndices.size() * closedIndices.size()); i++) {
-            // Choose random indices of open and closed warehouses
-            int openIndex = openIndices.get(rand.nextInt(openIndices.size()));
-            int closedIndex = closedIndices.get(rand.nextInt(closedIndices.size()));
-
+        // Initialize the solution with every warehouse closed
+        BitSolution current = new BitSolution(costMatrix.getNumWarehouses());
 
-            List<Boolean> neighbourSolution = new ArrayList<>(this.currentSolution);
-
-            // Swap values at the chosen indices
-            neighbourSolution.set(openIndex, false);
-            neighbourSolution.set(closedIndex, true);
+        // Sort warehouse indices by fixed cost
+        List<Integer> sortedWarehouses = new ArrayList<>();
+        for (int i = 0; i < costMatrix.getNumWarehouses(); i++) {
+            sortedWarehouses.add(i);
+        }
+        sortedWarehouses.sort(Comparator.comparingDouble(costMatrix::getFixedCost));
 
-            // Add the neighbouring solution to the list of neighbours
-            neighbours.add(neighbourSolution);
+        // Open the warehouses with the lowest fixed costs
+        for (int i = 0; i < numOpenWarehouses && i < sortedWarehouses.size(); i++) {
+            current.set(sortedWarehouses.get(i));
         }
 
-        return neighbours;
+        this.currentSolution = current;
+        this.evaluator.load(current);
+        this.bestSolutionCost = this.evaluator.getCost();
     }
 
     /**
@@ -140,17 +150,56 @@ public class ImprovSwap {
         int numOpenWarehouses = 10; // Number of warehouses to open initially
         getInitialSolution(numOpenWarehouses);
         System.out.println("Initial solution cost: " + this.bestSolutionCost);
-        localSearch(100); // Perform local search with a maximum of 10 iterations without improvement
+        this.control.reportImprovement(this.bestSolutionCost, 0);
+        if (this.searchMode == SearchMode.FAST_INTERCHANGE) {
+            fastInterchange(); // Perform best-improvement local search over the full swap neighbourhood
+        } else {
+            localSearch(100); // Perform local search with a maximum of 10 iterations without improvement
+        }
+        this.bestSolution.copyFrom(this.currentSolution);
+        if (this.elitePool != null) {
+            this.elitePool.offer(this.bestSolution, this.bestSolutionCost);
+        }
 
         long end = System.nanoTime();
         long elapsedTime = end - start;
         double elapsedTimeInSeconds = elapsedTime / 1_000_000_000.0;
+        if (this.evaluator.getCache() != null) {
+            System.out.println("Evaluation cache: " + this.evaluator.getCache());
+        }
         System.out.println("Best Solution Found: " + this.bestSolutionCost);
         System.out.println("Time elapsed: " + elapsedTimeInSeconds + " seconds");
 
         return new AlgorithmResult(this.bestSolutionCost, elapsedTimeInSeconds);
     }
 
+    /**
+     * Executes the improved swap algorithm under a control, stopping early at its deadline or when it is cancelled.
+     * @param control Deadline, cancellation flag and progress listener of the run.
+     * @return AlgorithmResult containing the best solution cost and elapsed time.
+     */
+    @Override
+    public AlgorithmResult solve(SolverControl control) {
+        return AnytimeSolver.runUnder(control, c -> this.control = c, this::useSwap);
+    }
+
+    /**
+     * Setter for the local search strategy.
+     * @param searchMode The strategy used by the next calls to useSwap().
+     */
+    public void setSearchMode(SearchMode searchMode) {
+        this.searchMode = searchMode;
+    }
+
+    /**
+     * Getter for the best solution found by the last call to useSwap().
+     * @return Bitset of the open warehouses of the best solution.
+     */
+    @Override
+    public BitSolution getBestSolution() {
+        return bestSolution;
+    }
+
     /**
      * Executes the local search phase of the algorithm.
      * Tries to improve the current solution by evaluating neighbouring solutions.
@@ -159,21 +208,81 @@ public class ImprovSwap {
     private void localSearch(int maxIterationsWOI){
         boolean improvement = true;
         int iterationsWOI = 0;
+        long evaluated = 0;
+        Neighbourhood neighbourhood = new SwapNeighbourhood(costMatrix.getNumWarehouses(), this.rand, 10);
 
-        while(improvement && iterationsWOI < maxIterationsWOI){
+        while(improvement && iterationsWOI < maxIterationsWOI && !this.control.shouldStop()){
             improvement = false;
-            List<List<Boolean>> neighbours = generateNeighbours(10); // Generate up to 10 neighbours
-            for(List<Boolean> neighbour : neighbours){
-                float neighbourCost = calculateSolutionCost(neighbour);
+            neighbourhood.reset(this.currentSolution); // Generate up to 10 neighbours
+            while(neighbourhood.hasNext()){
+                long move = neighbourhood.next();
+                // Skip moves invalidated by a move accepted earlier in this sweep
+                if(!this.evaluator.isValid(move)){
+                    continue;
+                }
+
+                double neighbourCost = this.evaluator.getCost() + this.evaluator.delta(move);
+                evaluated++;
                 if(neighbourCost < this.bestSolutionCost){
-                    this.bestSolutionCost = neighbourCost;
+                    this.evaluator.apply(move); // Apply the move
+                    this.currentSolution.clear(Move.out(move));
+                    this.currentSolution.set(Move.in(move));
+                    this.bestSolutionCost = this.evaluator.getCost();
+                    this.control.reportImprovement(this.bestSolutionCost, evaluated);
                     iterationsWOI = 0; // Reset iterations without improvement
                     improvement = true;
-                    this.currentSolution = new ArrayList<>(neighbour);
                 } else {
                     iterationsWOI++;
                 }
             }
         }
     }
+
+    /**
+     * Executes the best-improvement local search over the full swap neighbourhood.
+     * Each sweep scores every (close, open) pair with FastInterchange and applies the best move,
+     * until no swap improves the current solution.
+     */
+    private void fastInterchange(){
+        FastInterchange interchange = new FastInterchange(this.evaluator, this.costMatrix);
+        long sweeps = 0;
+
+        while(!this.control.shouldStop()){
+            long move = interchange.findBestSwap();
+            if(move < 0 || interchange.getBestDelta() > -MIN_IMPROVEMENT){
+                break; // Local optimum
+            }
+            this.evaluator.apply(move);
+            this.currentSolution.clear(Move.out(move));
+            this.currentSolution.set(Move.in(move));
+            this.bestSolutionCost = this.evaluator.getCost();
+            this.control.reportImprovement(this.bestSolutionCost, ++sweeps);
+        }
+    }
+
+    @Override
+    public String getNeighbourhoodName() {
+        return "swap";
+    }
+
+    @Override
+    public long findBestMove(DeltaEvaluator evaluator) {
+        if (this.providedInterchange == null || this.providedInterchange.getEvaluator() != evaluator) {
+            this.providedInterchange = new FastInterchange(evaluator, evaluator.getCostMatrix());
+        }
+        return this.providedInterchange.findBestSwap();
+    }
+
+    @Override
+    public double getBestDelta() {
+        return this.providedInterchange == null ? Double.POSITIVE_INFINITY : this.providedInterchange.getBestDelta();
+    }
+
+    /**
+     * Getter for the evaluation cache, whose counters show how many neighbour evaluations it saved.
+     * @return The evaluation cache of the algorithm, or null if none was set.
+     */
+    public EvaluationCache getEvaluationCache() {
+        return this.evaluator.getCache();
+    }
 }
@@ -0,0 +1,215 @@
+package modules;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * InstanceCache Class
+ * Binary cache of parsed instances, so that the same text file does not have to be parsed on every run.
+ * Each cache file has a fixed-size little-endian header followed by the fixed costs and the allocation costs
+ * as little-endian floats:
+ * <pre>
+ * int magic, int version, int layout, int numWarehouses, int numClients,
+ * long sourceSize, long sourceModifiedTime, long sourceHash, long payloadChecksum
+ * float[numWarehouses] fixedCosts, float[numWarehouses * numClients] allocCosts
+ * </pre>
+ * A cache file is only used when the size of the source file still matches the one recorded in its header, and
+ * either its modification time or its CRC32 hash does too. The hash is only computed when the modification time
+ * changed (e.g. after a copy). When the hash still matches, the new modification time is written back to the header,
+ * so a valid cache file is loaded without reading the source from then on.
+ */
+public class InstanceCache {
+
+    private static final int MAGIC = 0x55464C43; // "UFLC"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 5 * Integer.BYTES + 4 * Long.BYTES;
+    private static final int MODIFIED_TIME_OFFSET = 5 * Integer.BYTES + Long.BYTES; // Position of sourceModifiedTime
+    private static final String DEFAULT_DIRECTORY = ".cache";
+    private static final String EXTENSION = ".bin";
+
+    private final File cacheDirectory; // Directory of the cache files, or null to keep them next to the sources
+
+    /**
+     * Default constructor for InstanceCache
+     * Cache files are kept in a ".cache" directory next to each source file.
+     */
+    public InstanceCache() {
+        this.cacheDirectory = null;
+    }
+
+    /**
+     * Constructor for InstanceCache with a single cache directory for every source file
+     *
+     * @param cacheDirectory The directory where the cache files are written
+     */
+    public InstanceCache(File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Loads the cached instance of a source file by memory-mapping its cache file.
+     *
+     * @param fileName The path of the source text file.
+     * @param layout The layout of the CostMatrix to return.
+     * @return The cached CostMatrix, or null if there is no valid cache file for the source.
+     */
+    public CostMatrix load(String fileName, CostMatrix.Layout layout) {
+        File source = new File(fileName);
+        File cached = cacheFile(source);
+        if (!cached.isFile() || !source.isFile()) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(cached.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            // Header
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            CostMatrix.Layout storedLayout = CostMatrix.Layout.values()[buffer.getInt()];
+            int numWarehouses = buffer.getInt();
+            int numClients = buffer.getInt();
+            long sourceSize = buffer.getLong();
+            long sourceModifiedTime = buffer.getLong();
+            long sourceHash = buffer.getLong();
+            long payloadChecksum = buffer.getLong();
+
+            // Invalidate the cache if the source changed, hashing it only if its modification time is not conclusive
+            if (sourceSize != source.length()
+                    || (sourceModifiedTime != source.lastModified() && sourceHash != hashOf(source))) {
+                return null;
+            }
+            long payloadSize = (long) Float.BYTES * numWarehouses * (numClients + 1L);
+            if (channel.size() != HEADER_SIZE + payloadSize || checksumOf(buffer.slice()) != payloadChecksum) {
+                return null;
+            }
+
+            // Payload
+            float[] fixedCosts = new float[numWarehouses];
+            float[] allocCosts = new float[numWarehouses * numClients];
+            buffer.asFloatBuffer().get(fixedCosts).get(allocCosts);
+
+            if (sourceModifiedTime != source.lastModified()) {
+                updateModifiedTime(cached, source.lastModified());
+            }
+            return new CostMatrix(numWarehouses, numClients, storedLayout, fixedCosts, allocCosts).withLayout(layout);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the cache file of a source file.
+     * The file is written to a temporary file first and then moved, so that concurrent readers never see
+     * a partially written cache file.
+     *
+     * @param fileName The path of the source text file.
+     * @param matrix The parsed instance.
+     * @throws IOException If the cache file cannot be written.
+     */
+    public void store(String fileName, CostMatrix matrix) throws IOException {
+        File source = new File(fileName);
+        File cached = cacheFile(source);
+        Files.createDirectories(cached.getParentFile().toPath());
+
+        float[] fixedCosts = matrix.getFixedCosts();
+        float[] allocCosts = matrix.getAllocCosts();
+        ByteBuffer payload = ByteBuffer.allocate(Float.BYTES * (fixedCosts.length + allocCosts.length))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        payload.asFloatBuffer().put(fixedCosts).put(allocCosts);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(matrix.getLayout().ordinal())
+                .putInt(matrix.getNumWarehouses())
+                .putInt(matrix.getNumClients())
+                .putLong(source.length())
+                .putLong(source.lastModified())
+                .putLong(hashOf(source))
+                .putLong(checksumOf(payload.duplicate()))
+                .flip();
+
+        Path temporary = Files.createTempFile(cached.getParentFile().toPath(), cached.getName(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (payload.hasRemaining()) {
+                channel.write(payload);
+            }
+        }
+        Files.move(temporary, cached.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Records a new modification time of the source in the header of its cache file, once its hash was checked.
+     * A failed write only means that the source is hashed again on the next load.
+     *
+     * @param cached The cache file.
+     * @param modifiedTime The current modification time of the source.
+     */
+    private static void updateModifiedTime(File cached, long modifiedTime) {
+        ByteBuffer field = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(modifiedTime).flip();
+        try (FileChannel channel = FileChannel.open(cached.toPath(), StandardOpenOption.WRITE)) {
+            while (field.hasRemaining()) {
+                channel.write(field, MODIFIED_TIME_OFFSET + field.position());
+            }
+        } catch (IOException e) {
+            // Keep the old modification time
+        }
+    }
+
+    /**
+     * Computes the path of the cache file of a source file.
+     *
+     * @param source The source text file.
+     * @return The cache file.
+     */
+    private File cacheFile(File source) {
+        File directory = cacheDirectory;
+        if (directory == null) {
+            directory = new File(source.getAbsoluteFile().getParentFile(), DEFAULT_DIRECTORY);
+        }
+        return new File(directory, source.getName() + EXTENSION);
+    }
+
+    /**
+     * Computes the CRC32 hash of a file through a memory mapping.
+     *
+     * @param source The file to hash.
+     * @return The CRC32 value of the file content.
+     * @throws IOException If the file cannot be read.
+     */
+    private static long hashOf(File source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            return checksumOf(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Computes the CRC32 checksum of the remaining bytes of a buffer.
+     *
+     * @param buffer The buffer to checksum (its position is consumed).
+     * @return The CRC32 value.
+     */
+    private static long checksumOf(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,326 @@
+package modules;
+
+import java.util.Arrays;
+
+/**
+ * LowerBound Class
+ * Computes a lower bound of the UFLP optimum in two phases:
+ * <ol>
+ * <li>Erlenkotter's dual ascent on the dual of the LP relaxation. Each client raises its dual value v(c) one cost
+ * level at a time while every warehouse keeps a non-negative slack f(j) - sum over c of max(0, v(c) - c(c, j)).
+ * The sum of the dual values is a valid bound.</li>
+ * <li>Subgradient optimisation of the Lagrangian relaxation of the assignment constraints, started from the dual
+ * values. For multipliers l(c) the bound is sum over c of l(c) + sum over j of min(0, f(j) + sum over c of
+ * min(0, c(c, j) - l(c))).</li>
+ * </ol>
+ * Both phases build primal solutions (the warehouses with zero slack, then those with negative reduced fixed cost)
+ * whose best cost is the upper bound used by the subgradient step and the early termination. The multipliers and
+ * reduced fixed costs of the best bound are exposed for the heuristics.
+ * Every dual ascent pass keeps the dual values feasible, so under a SolverControl both phases can stop after any pass
+ * or iteration once the deadline has passed or the control is cancelled, and the bound found so far stays valid.
+ */
+public class LowerBound {
+
+    private static final int MAX_ITERATIONS = 300; // Subgradient iteration limit
+    private static final int PATIENCE = 20; // Iterations without improvement before the step factor is halved
+    private static final double MIN_STEP_FACTOR = 1e-4; // Step factor below which the subgradient phase stops
+    private static final double GAP_TOLERANCE = 1e-6; // Relative gap below which the bound is considered optimal
+
+    private final CostMatrix costMatrix; // Cost matrix of the instance
+    private final DeltaEvaluator evaluator; // Evaluator of the primal solutions
+    private final int numWarehouses; // Number of warehouses
+    private final int numClients; // Number of clients
+    private double lowerBound; // Best lower bound found
+    private double upperBound; // Cost of the best primal solution found
+    private BitSolution bestSolution; // Best primal solution found
+    private double[] multipliers; // Multipliers of the best lower bound
+    private double[] reducedFixedCosts; // Reduced fixed costs of the best lower bound
+    private int iterations; // Subgradient iterations performed
+    private SolverControl control; // Deadline and cancellation flag of the current computation
+
+    /**
+     * Constructor for LowerBound.
+     *
+     * @param container The data container containing warehouses and clients.
+     */
+    public LowerBound(DataContainer container) {
+        this.costMatrix = container.getCostMatrix();
+        this.evaluator = new DeltaEvaluator(this.costMatrix);
+        this.numWarehouses = costMatrix.getNumWarehouses();
+        this.numClients = costMatrix.getNumClients();
+        this.lowerBound = Double.NEGATIVE_INFINITY;
+        this.upperBound = Double.POSITIVE_INFINITY;
+        this.multipliers = new double[numClients];
+        this.reducedFixedCosts = new double[numWarehouses];
+        this.control = new SolverControl(); // Run to completion unless compute(SolverControl) is used
+    }
+
+    /**
+     * Computes the lower bound with the dual ascent followed by the subgradient optimisation.
+     *
+     * @return The lower bound.
+     */
+    public double compute() {
+        double[] values = dualAscent();
+        subgradient(values);
+        return lowerBound;
+    }
+
+    /**
+     * Computes the lower bound under a control, stopping early at its deadline or when it is cancelled.
+     *
+     * @param control Deadline and cancellation flag of the computation.
+     * @return The best lower bound found before stopping.
+     */
+    public double compute(SolverControl control) {
+        return AnytimeSolver.runUnder(control, c -> this.control = c, this::compute);
+    }
+
+    /**
+     * Performs the dual ascent.
+     *
+     * @return The dual values of the clients.
+     */
+    private double[] dualAscent() {
+        // Distinct cost levels of each client, in increasing order
+        float[][] levels = new float[numClients][];
+        int[] nextLevel = new int[numClients];
+        double[] values = new double[numClients];
+        for (int c = 0; c < numClients; c++) {
+            float[] costs = new float[numWarehouses];
+            for (int j = 0; j < numWarehouses; j++) {
+                costs[j] = costMatrix.getAllocCost(c, j);
+            }
+            Arrays.sort(costs);
+            levels[c] = costs;
+            values[c] = costs[0];
+            nextLevel[c] = advance(costs, 0, values[c]);
+        }
+
+        double[] slack = new double[numWarehouses];
+        for (int j = 0; j < numWarehouses; j++) {
+            slack[j] = costMatrix.getFixedCost(j);
+        }
+
+        // Raise the dual values one level per pass until every client is blocked by a tight warehouse
+        boolean changed = true;
+        while (changed && !this.control.shouldStop()) {
+            changed = false;
+            for (int c = 0; c < numClients; c++) {
+                double value = values[c];
+                double increase = nextLevel[c] < numWarehouses
+                        ? levels[c][nextLevel[c]] - value : Double.POSITIVE_INFINITY;
+                for (int j = 0; j < numWarehouses && increase > 0; j++) {
+                    if (costMatrix.getAllocCost(c, j) <= value) {
+                        increase = Math.min(increase, slack[j]);
+                    }
+                }
+                if (increase <= 0) {
+                    continue;
+                }
+                for (int j = 0; j < numWarehouses; j++) {
+                    if (costMatrix.getAllocCost(c, j) <= value) {
+                        slack[j] = Math.max(0, slack[j] - increase);
+                    }
+                }
+                values[c] = value + increase;
+                nextLevel[c] = advance(levels[c], nextLevel[c], values[c]);
+                changed = true;
+            }
+        }
+
+        // Every warehouse is dual feasible, so the sum of the values is a bound
+        double bound = 0;
+        for (int c = 0; c < numClients; c++) {
+            bound += values[c];
+        }
+        this.lowerBound = bound;
+        this.multipliers = values.clone();
+        this.reducedFixedCosts = slack.clone();
+
+        // Primal solution: the warehouses with no slack left
+        BitSolution tight = new BitSolution(numWarehouses);
+        for (int j = 0; j < numWarehouses; j++) {
+            if (slack[j] <= 0) {
+                tight.set(j);
+            }
+        }
+        updateUpperBound(tight);
+        return values;
+    }
+
+    /**
+     * Skips the cost levels that are not above a dual value.
+     *
+     * @param levels Sorted cost levels of a client.
+     * @param from First level to check.
+     * @param value Dual value of the client.
+     * @return Index of the first level above the value, or the number of levels if there is none.
+     */
+    private static int advance(float[] levels, int from, double value) {
+        int level = from;
+        while (level < levels.length && levels[level] <= value) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Performs the subgradient optimisation of the Lagrangian bound.
+     *
+     * @param start Initial multipliers.
+     */
+    private void subgradient(double[] start) {
+        double[] lambda = start.clone();
+        double[] reduced = new double[numWarehouses];
+        double[] gradient = new double[numClients];
+        BitSolution open = new BitSolution(numWarehouses);
+        double stepFactor = 2.0;
+        int sinceImprovement = 0;
+
+        for (this.iterations = 0; this.iterations < MAX_ITERATIONS && stepFactor > MIN_STEP_FACTOR
+                && getGap() > GAP_TOLERANCE && !this.control.shouldStop(); this.iterations++) {
+            // Reduced fixed costs and Lagrangian bound
+            double bound = 0;
+            for (int c = 0; c < numClients; c++) {
+                bound += lambda[c];
+            }
+            for (int j = 0; j < numWarehouses; j++) {
+                double reducedCost = costMatrix.getFixedCost(j);
+                for (int c = 0; c < numClients; c++) {
+                    double cost = costMatrix.getAllocCost(c, j) - lambda[c];
+                    if (cost < 0) {
+                        reducedCost += cost;
+                    }
+                }
+                reduced[j] = reducedCost;
+                open.set(j, reducedCost < 0);
+                if (reducedCost < 0) {
+                    bound += reducedCost;
+                }
+            }
+
+            if (bound > this.lowerBound) {
+                this.lowerBound = bound;
+                this.multipliers = lambda.clone();
+                this.reducedFixedCosts = reduced.clone();
+                sinceImprovement = 0;
+            } else if (++sinceImprovement >= PATIENCE) {
+                stepFactor /= 2;
+                sinceImprovement = 0;
+            }
+            if (open.cardinality() > 0) {
+                updateUpperBound(open);
+            }
+
+            // Subgradient of the relaxed assignment constraints
+            double norm = 0;
+            for (int c = 0; c < numClients; c++) {
+                int assigned = 0;
+                for (int j = open.nextSetBit(0); j >= 0; j = open.nextSetBit(j + 1)) {
+                    if (costMatrix.getAllocCost(c, j) < lambda[c]) {
+                        assigned++;
+                    }
+                }
+                gradient[c] = 1 - assigned;
+                norm += gradient[c] * gradient[c];
+            }
+            if (norm == 0) {
+                break; // The relaxed solution is feasible, so the bound cannot improve
+            }
+
+            double step = stepFactor * (this.upperBound - bound) / norm;
+            for (int c = 0; c < numClients; c++) {
+                lambda[c] += step * gradient[c];
+            }
+        }
+    }
+
+    /**
+     * Evaluates a primal solution and keeps it if it improves the upper bound.
+     *
+     * @param solution The solution to evaluate.
+     */
+    private void updateUpperBound(BitSolution solution) {
+        evaluator.load(solution);
+        if (evaluator.getCost() < this.upperBound) {
+            this.upperBound = evaluator.getCost();
+            this.bestSolution = solution.copy();
+        }
+    }
+
+    /**
+     * Getter for the best lower bound found.
+     *
+     * @return The lower bound, or negative infinity if compute() was not called.
+     */
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * Getter for the cost of the best primal solution built while bounding.
+     *
+     * @return The upper bound.
+     */
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Getter for the best primal solution built while bounding.
+     *
+     * @return Bitset of the open warehouses, or null if compute() was not called.
+     */
+    public BitSolution getBestSolution() {
+        return bestSolution;
+    }
+
+    /**
+     * Computes the relative gap between the bounds.
+     *
+     * @return (upper bound - lower bound) / upper bound.
+     */
+    public double getGap() {
+        return (upperBound - lowerBound) / upperBound;
+    }
+
+    /**
+     * Getter for the multipliers (dual values) of the clients at the best lower bound.
+     *
+     * @return Array with one multiplier per client.
+     */
+    public double[] getMultipliers() {
+        return multipliers.clone();
+    }
+
+    /**
+     * Getter for the reduced fixed costs of the warehouses at the best lower bound.
+     * A warehouse with a low reduced cost is cheap to open relative to the clients it would serve.
+     *
+     * @return Array with one reduced fixed cost per warehouse.
+     */
+    public double[] getReducedFixedCosts() {
+        return reducedFixedCosts.clone();
+    }
+
+    /**
+     * Computes the reduced allocation cost of a client and a warehouse at the best lower bound.
+     *
+     * @param client Index of the client.
+     * @param warehouse Index of the warehouse.
+     * @return The allocation cost minus the multiplier of the client.
+     */
+    public double getReducedCost(int client, int warehouse) {
+        return costMatrix.getAllocCost(client, warehouse) - multipliers[client];
+    }
+
+    /**
+     * Getter for the number of subgradient iterations performed.
+     *
+     * @return Number of iterations.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+}
@@ -0,0 +1,184 @@
+package modules;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MappedFileParser Class
+ * Zero-copy parser for the instance files. The file is memory-mapped through FileChannel.map and the numbers are
+ * tokenized and parsed straight from the bytes, without creating Strings, into the primitive arrays of a CostMatrix.
+ * Since the file is read as a stream of tokens, cost rows that wrap across lines, blank lines and ORLIB's
+ * "capacity" keyword and trailing "." decimals are all handled the same way.
+ */
+public class MappedFileParser {
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private MappedByteBuffer buffer; // Mapped content of the file
+    private int position; // Current read position in the buffer
+    private int limit; // Size of the mapped content
+
+    /**
+     * Parses an instance file (M or ORLIB format) into a CostMatrix.
+     * The expected layout is the number of warehouses and clients, then a (capacity, fixed cost) pair per
+     * warehouse, then for each client its demand followed by its allocation cost to every warehouse.
+     *
+     * @param fileName The path of the file to be parsed.
+     * @param layout The layout of the CostMatrix to build.
+     * @return A CostMatrix with the costs of the instance.
+     * @throws IOException If the file cannot be read or has an invalid format.
+     */
+    public CostMatrix parse(String fileName, CostMatrix.Layout layout) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("File too large to be mapped: " + fileName);
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            this.position = 0;
+            this.limit = (int) channel.size();
+
+            // Reading the number of warehouses and clients
+            int numWarehouses = (int) nextFloat();
+            int numClients = (int) nextFloat();
+            if (numWarehouses <= 0 || numClients <= 0) {
+                throw new IOException("Invalid format for number of warehouses and clients.");
+            }
+
+            CostMatrix matrix = new CostMatrix(numWarehouses, numClients, layout);
+            float[] fixedCosts = matrix.getFixedCosts();
+            float[] allocCosts = matrix.getAllocCosts();
+
+            // Reading of Warehouses: capacity (ignored, may be the "capacity" keyword) and fixed cost
+            for (int i = 0; i < numWarehouses; i++) {
+                skipToken();
+                fixedCosts[i] = nextFloat();
+            }
+
+            // Reading of Clients: demand (ignored) followed by the allocation costs
+            for (int i = 0; i < numClients; i++) {
+                skipToken();
+                for (int j = 0; j < numWarehouses; j++) {
+                    allocCosts[matrix.index(i, j)] = nextFloat();
+                }
+            }
+
+            return matrix;
+        } finally {
+            this.buffer = null;
+        }
+    }
+
+    /**
+     * Moves the read position to the first byte of the next token.
+     *
+     * @throws IOException If the end of the file is reached.
+     */
+    private void skipWhitespace() throws IOException {
+        while (position < limit && buffer.get(position) <= ' ') {
+            position++;
+        }
+        if (position >= limit) {
+            throw new IOException("Unexpected end of file.");
+        }
+    }
+
+    /**
+     * Skips the next token, whatever its content.
+     *
+     * @throws IOException If the end of the file is reached.
+     */
+    private void skipToken() throws IOException {
+        skipWhitespace();
+        while (position < limit && buffer.get(position) > ' ') {
+            position++;
+        }
+    }
+
+    /**
+     * Parses the next token as a decimal number, with optional sign, fraction and exponent.
+     * Numbers with more significant digits than a long can hold fall back to Float.parseFloat.
+     *
+     * @return The parsed value.
+     * @throws IOException If the token is not a number or the end of the file is reached.
+     */
+    private float nextFloat() throws IOException {
+        skipWhitespace();
+        int start = position;
+        boolean negative = false;
+        byte b = buffer.get(position);
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            position++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        while (position < limit) {
+            b = buffer.get(position);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fraction) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+            position++;
+        }
+
+        int exponent = 0;
+        if (position < limit && (b == 'e' || b == 'E')) {
+            position++;
+            boolean negativeExponent = false;
+            if (position < limit && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+                negativeExponent = buffer.get(position) == '-';
+                position++;
+            }
+            while (position < limit && buffer.get(position) >= '0' && buffer.get(position) <= '9') {
+                exponent = exponent * 10 + (buffer.get(position) - '0');
+                position++;
+            }
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+
+        if (position < limit && buffer.get(position) > ' ') {
+            throw new IOException("Invalid number at byte " + start + ".");
+        }
+        if (digits == 0) {
+            throw new IOException("Expected a number at byte " + start + ".");
+        }
+
+        int scale = exponent - fractionDigits;
+        if (digits > 18 || scale < -22 || scale > 22) {
+            return slowParse(start);
+        }
+        double value = scale < 0 ? mantissa / POWERS_OF_TEN[-scale] : mantissa * POWERS_OF_TEN[scale];
+        return (float) (negative ? -value : value);
+    }
+
+    /**
+     * Fallback parsing of the token that starts at the given position, through Float.parseFloat.
+     *
+     * @param start Position of the first byte of the token.
+     * @return The parsed value.
+     */
+    private float slowParse(int start) {
+        byte[] token = new byte[position - start];
+        buffer.get(start, token);
+        return Float.parseFloat(new String(token, StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,97 @@
+package modules;
+
+/**
+ * Move Class
+ * Encodes the moves of the local searches as primitive longs, so that neighbourhoods can be enumerated
+ * and scored without allocating an object per candidate.
+ * Bits 61-62 hold the type of the move; a flip stores its warehouse in the low bits and a swap stores
+ * the warehouse to close in bits 31-60 and the warehouse to open in bits 0-30. The sign bit is never set, so every
+ * move is non-negative and -1 can stand for "no move".
+ */
+public final class Move {
+
+    public static final int FLIP = 1; // Toggle the open status of one warehouse
+    public static final int SWAP = 2; // Close an open warehouse and open a closed one
+
+    private static final int TYPE_SHIFT = 61;
+    private static final int OUT_SHIFT = 31;
+    private static final long INDEX_MASK = (1L << 31) - 1;
+    private static final long OUT_MASK = (1L << 30) - 1;
+
+    private Move() {
+    }
+
+    /**
+     * Encodes a flip move.
+     *
+     * @param warehouse Index of the warehouse to toggle.
+     * @return The encoded move.
+     */
+    public static long flip(int warehouse) {
+        return ((long) FLIP << TYPE_SHIFT) | warehouse;
+    }
+
+    /**
+     * Encodes a swap move.
+     *
+     * @param out Index of the open warehouse to close.
+     * @param in Index of the closed warehouse to open.
+     * @return The encoded move.
+     */
+    public static long swap(int out, int in) {
+        return ((long) SWAP << TYPE_SHIFT) | ((long) out << OUT_SHIFT) | in;
+    }
+
+    /**
+     * Decodes the type of a move.
+     *
+     * @param move The encoded move.
+     * @return FLIP or SWAP.
+     */
+    public static int type(long move) {
+        return (int) (move >>> TYPE_SHIFT);
+    }
+
+    /**
+     * Decodes the warehouse toggled by a flip move.
+     *
+     * @param move The encoded flip move.
+     * @return Index of the warehouse.
+     */
+    public static int warehouse(long move) {
+        return (int) (move & INDEX_MASK);
+    }
+
+    /**
+     * Decodes the warehouse closed by a swap move.
+     *
+     * @param move The encoded swap move.
+     * @return Index of the warehouse to close.
+     */
+    public static int out(long move) {
+        return (int) ((move >>> OUT_SHIFT) & OUT_MASK);
+    }
+
+    /**
+     * Decodes the warehouse opened by a swap move.
+     *
+     * @param move The encoded swap move.
+     * @return Index of the warehouse to open.
+     */
+    public static int in(long move) {
+        return (int) (move & INDEX_MASK);
+    }
+
+    /**
+     * Returns a readable representation of a move.
+     *
+     * @param move The encoded move.
+     * @return String representation of the move.
+     */
+    public static String toString(long move) {
+        if (type(move) == FLIP) {
+            return "flip(" + warehouse(move) + ")";
+        }
+        return "swap(" + out(move) + ", " + in(move) + ")";
+    }
+}
@@ -0,0 +1,213 @@
+package modules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MultiStart Class
+ * Runs N independent Swap or ImprovSwap searches in parallel on a fork-join pool and keeps the best one.
+ * Each run gets its own SplittableRandom split from a master seed before any run starts, so the result of
+ * every run, and therefore the overall result, only depends on the seed and the number of runs.
+ * Swap runs draw their own random start. ImprovSwap runs start from a random solution built from the generator of
+ * the run, with about as many open warehouses as the ADD greedy solution (between half and one and a half times as
+ * many), since its swaps keep that number. Their fast interchange descent is then deterministic, so the runs differ
+ * by their starts.
+ * Under a SolverControl every run is solved under that control, so the runs stop at its deadline or when it is
+ * cancelled, and the runs not started yet return their starting solution.
+ */
+public class MultiStart implements AnytimeSolver {
+
+    public static final int DEFAULT_RUNS = 16; // Default number of independent runs
+    public static final long DEFAULT_SEED = 42L; // Default master seed
+
+    private final DataContainer container; // Data container holding the instance
+    private final boolean improved; // true to run ImprovSwap, false to run Swap
+    private final int runs; // Number of independent runs
+    private final long seed; // Master seed
+    private final int parallelism; // Number of worker threads of the fork-join pool
+    private final AtomicLong bestCostBits; // Best cost found so far by any run, as raw double bits
+    private EliteSet elitePool; // Pool receiving the local optimum of every run, or null
+    private int startSize; // Open warehouses of the ADD greedy solution, around which ImprovSwap starts are drawn
+    private SolverControl control; // Deadline, cancellation and progress listener of the current run
+    private BitSolution bestSolution; // Best solution of the last call to useMultiStart()
+
+    /**
+     * Constructor for MultiStart.
+     *
+     * @param container The data container containing the instance.
+     * @param improved true to run ImprovSwap, false to run Swap.
+     * @param runs Number of independent runs.
+     * @param seed Master seed from which the generator of each run is derived.
+     * @param parallelism Number of worker threads.
+     */
+    public MultiStart(DataContainer container, boolean improved, int runs, long seed, int parallelism) {
+        if (runs < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("The number of runs and of workers must be at least 1.");
+        }
+        this.container = container;
+        this.improved = improved;
+        this.runs = runs;
+        this.seed = seed;
+        this.parallelism = parallelism;
+        this.bestCostBits = new AtomicLong(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+        this.control = new SolverControl();
+    }
+
+    /**
+     * Setter for the elite pool that receives the local optimum of every run.
+     *
+     * @param elitePool The elite pool, or null to keep no pool.
+     */
+    public void setElitePool(EliteSet elitePool) {
+        this.elitePool = elitePool;
+    }
+
+    /**
+     * Executes the multi-start search.
+     *
+     * @return MultiStartResult with the best solution and the statistics of the runs.
+     */
+    public MultiStartResult useMultiStart() {
+        long start = System.nanoTime();
+
+        // Derive the generators sequentially so that they do not depend on thread scheduling
+        SplittableRandom master = new SplittableRandom(this.seed);
+        SplittableRandom[] generators = new SplittableRandom[this.runs];
+        for (int i = 0; i < this.runs; i++) {
+            generators[i] = master.split();
+        }
+
+        if (this.improved) {
+            this.startSize = new GreedyAdd(this.container).buildSolution().cardinality();
+        }
+
+        double[] runCosts = new double[this.runs];
+        BitSolution[] solutions = new BitSolution[this.runs];
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < this.runs; i++) {
+                int run = i;
+                tasks.add(pool.submit(() -> runOnce(run, generators[run], runCosts, solutions)));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // Lowest cost wins, ties go to the lowest run index
+        int bestRun = 0;
+        for (int i = 1; i < this.runs; i++) {
+            if (runCosts[i] < runCosts[bestRun]) {
+                bestRun = i;
+            }
+        }
+
+        long end = System.nanoTime();
+        double elapsedTimeInSeconds = (end - start) / 1_000_000_000.0;
+        System.out.println("Best Solution Found: " + runCosts[bestRun] + " (run " + bestRun + ")");
+        System.out.println("Time elapsed: " + elapsedTimeInSeconds + " seconds");
+
+        this.bestSolution = solutions[bestRun];
+        return new MultiStartResult(solutions[bestRun], bestRun, runCosts, elapsedTimeInSeconds);
+    }
+
+    /**
+     * Executes the multi-start search under a control shared by every run, stopping the runs early at its deadline
+     * or when it is cancelled.
+     *
+     * @param control Deadline, cancellation flag and progress listener of the search.
+     * @return MultiStartResult with the best solution and the statistics of the runs.
+     */
+    @Override
+    public MultiStartResult solve(SolverControl control) {
+        return AnytimeSolver.runUnder(control, c -> this.control = c, this::useMultiStart);
+    }
+
+    /**
+     * Getter for the best solution found by the last call to useMultiStart().
+     *
+     * @return Bitset of the open warehouses of the best solution.
+     */
+    @Override
+    public BitSolution getBestSolution() {
+        return bestSolution;
+    }
+
+    /**
+     * Executes one independent run and stores its final cost and solution.
+     *
+     * @param run Index of the run.
+     * @param rand Generator of the run.
+     * @param runCosts Array receiving the final cost of each run.
+     * @param solutions Array receiving the final solution of each run.
+     */
+    private void runOnce(int run, SplittableRandom rand, double[] runCosts, BitSolution[] solutions) {
+        if (this.improved) {
+            ImprovSwap improvSwap = new ImprovSwap(this.container, rand);
+            improvSwap.setStartSolution(randomStart(rand));
+            improvSwap.setElitePool(this.elitePool);
+            runCosts[run] = improvSwap.solve(this.control).getBestSolutionCost();
+            solutions[run] = improvSwap.getBestSolution();
+        } else {
+            Swap swap = new Swap(this.container, rand);
+            swap.setElitePool(this.elitePool);
+            runCosts[run] = swap.solve(this.control).getBestSolutionCost();
+            solutions[run] = swap.getBestSolution();
+        }
+        offerBest(run, runCosts[run]);
+    }
+
+    /**
+     * Builds the random start of an ImprovSwap run: between startSize / 2 and 3 * startSize / 2 distinct warehouses,
+     * drawn uniformly.
+     *
+     * @param rand Generator of the run.
+     * @return The starting solution.
+     */
+    private BitSolution randomStart(SplittableRandom rand) {
+        int numWarehouses = this.container.getCostMatrix().getNumWarehouses();
+        int numOpen = Math.min(numWarehouses, Math.max(1, this.startSize / 2 + rand.nextInt(this.startSize + 1)));
+        BitSolution start = new BitSolution(numWarehouses);
+        for (int opened = 0; opened < numOpen; ) {
+            int j = rand.nextInt(numWarehouses);
+            if (!start.get(j)) {
+                start.set(j);
+                opened++;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Publishes the cost of a finished run to the shared best-so-far, reporting it if it improves.
+     *
+     * @param run Index of the run.
+     * @param cost Final cost of the run.
+     */
+    private void offerBest(int run, double cost) {
+        long current = this.bestCostBits.get();
+        while (cost < Double.longBitsToDouble(current)) {
+            if (this.bestCostBits.compareAndSet(current, Double.doubleToLongBits(cost))) {
+                System.out.println("Run " + run + " improved the best cost so far: " + cost);
+                return;
+            }
+            current = this.bestCostBits.get();
+        }
+    }
+
+    /**
+     * Getter for the best cost published so far by the finished runs.
+     *
+     * @return Best cost so far, or positive infinity if no run has finished.
+     */
+    public double getBestCostSoFar() {
+        return Double.longBitsToDouble(this.bestCostBits.get());
+    }
+}
@@ -0,0 +1,95 @@
+package modules;
+
+/**
+ * MultiStartResult class represents the result of a multi-start run.
+ * Besides the best solution cost and the elapsed time, it keeps the best solution and the cost of every run.
+ */
+public class MultiStartResult extends AlgorithmResult {
+    private final int bestRun; // Index of the run that found the best solution
+    private final double[] runCosts; // Final cost of each run
+
+    /**
+     * Constructor to initialize MultiStartResult.
+     *
+     * @param bestSolution Best solution over all runs.
+     * @param bestRun Index of the run that found the best solution.
+     * @param runCosts Final cost of each run.
+     * @param elapsedTimeInSeconds Elapsed time in seconds taken by all the runs.
+     */
+    public MultiStartResult(BitSolution bestSolution, int bestRun, double[] runCosts, double elapsedTimeInSeconds) {
+        super(runCosts[bestRun], elapsedTimeInSeconds);
+        setBestSolution(bestSolution);
+        this.bestRun = bestRun;
+        this.runCosts = runCosts;
+    }
+
+    /**
+     * Getter for the index of the run that found the best solution.
+     *
+     * @return Index of the best run.
+     */
+    public int getBestRun() {
+        return bestRun;
+    }
+
+    /**
+     * Getter for the final cost of each run.
+     *
+     * @return Array with the cost of each run, in run order.
+     */
+    public double[] getRunCosts() {
+        return runCosts.clone();
+    }
+
+    /**
+     * Computes the mean final cost of the runs.
+     *
+     * @return Mean cost.
+     */
+    public double getMeanCost() {
+        double sum = 0;
+        for (double cost : runCosts) {
+            sum += cost;
+        }
+        return sum / runCosts.length;
+    }
+
+    /**
+     * Computes the worst final cost of the runs.
+     *
+     * @return Highest cost.
+     */
+    public double getWorstCost() {
+        double worst = Double.NEGATIVE_INFINITY;
+        for (double cost : runCosts) {
+            worst = Math.max(worst, cost);
+        }
+        return worst;
+    }
+
+    /**
+     * Computes the standard deviation of the final costs of the runs.
+     *
+     * @return Standard deviation of the costs.
+     */
+    public double getStandardDeviation() {
+        double mean = getMeanCost();
+        double sum = 0;
+        for (double cost : runCosts) {
+            sum += (cost - mean) * (cost - mean);
+        }
+        return Math.sqrt(sum / runCosts.length);
+    }
+
+    /**
+     * Overrides toString() to append the run statistics to the AlgorithmResult representation.
+     *
+     * @return String representation of the MultiStartResult object.
+     */
+    @Override
+    public String toString() {
+        return super.toString() + ", Runs: " + runCosts.length + ", Best Run: " + bestRun
+                + ", Mean Cost: " + getMeanCost() + ", Worst Cost: " + getWorstCost()
+                + ", Std Dev: " + getStandardDeviation();
+    }
+}
@@ -0,0 +1,31 @@
+package modules;
+
+/**
+ * Neighbourhood Interface
+ * A lazy, allocation-free cursor over the moves (encoded by the Move class) around a solution.
+ * A sweep starts with reset() and the moves are pulled one at a time with hasNext() and next();
+ * they are meant to be scored in place with DeltaEvaluator.delta() and only applied when accepted.
+ */
+public interface Neighbourhood {
+
+    /**
+     * Starts a new sweep of the neighbourhood around a solution.
+     *
+     * @param solution The current solution.
+     */
+    void reset(BitSolution solution);
+
+    /**
+     * Checks whether the sweep has more moves.
+     *
+     * @return true if next() can be called, false otherwise.
+     */
+    boolean hasNext();
+
+    /**
+     * Returns the next move of the sweep.
+     *
+     * @return The encoded move.
+     */
+    long next();
+}
@@ -0,0 +1,32 @@
+package modules;
+
+/**
+ * NeighbourhoodProvider Interface
+ * A neighbourhood explored around the solution loaded in a DeltaEvaluator, so that the local search algorithms can
+ * act as neighbourhoods of a driver such as VariableNeighbourhoodSearch instead of as standalone programs.
+ * findBestMove() scores the moves with incremental deltas and does not change the evaluator.
+ */
+public interface NeighbourhoodProvider {
+
+    /**
+     * Getter for the name of the neighbourhood, used in the statistics of the drivers.
+     *
+     * @return Short name of the neighbourhood.
+     */
+    String getNeighbourhoodName();
+
+    /**
+     * Finds the best move of the neighbourhood around the solution loaded in an evaluator.
+     *
+     * @param evaluator The evaluator holding the current solution.
+     * @return The best move (see Move), or -1 if the neighbourhood is empty.
+     */
+    long findBestMove(DeltaEvaluator evaluator);
+
+    /**
+     * Getter for the delta of the move returned by the last call to findBestMove().
+     *
+     * @return New cost minus current cost of the best move, or positive infinity if there was none.
+     */
+    double getBestDelta();
+}
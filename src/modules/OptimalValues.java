@@ -0,0 +1,93 @@
+package modules;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * OptimalValues Class
+ * Reads the known optimal costs of the instances from an "optimal.txt" file, with one "name cost" pair per line
+ * (other lines are ignored), and checks results against them.
+ */
+public class OptimalValues {
+
+    public static final String FILE_NAME = "optimal.txt";
+    private static final double TOLERANCE = 1e-6; // Relative difference under which a cost matches the optimum
+
+    private final Map<String, Double> values; // Optimal cost of each instance, by upper-case name
+
+    /**
+     * Constructor for OptimalValues.
+     *
+     * @param file The file with the optimal costs.
+     * @throws IOException If the file cannot be read.
+     */
+    public OptimalValues(File file) throws IOException {
+        this.values = new HashMap<>();
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.ISO_8859_1);
+        for (String line : lines) {
+            String[] tokens = line.trim().split("\\s+");
+            if (tokens.length != 2) {
+                continue;
+            }
+            try {
+                this.values.put(tokens[0].toUpperCase(Locale.ROOT), Double.parseDouble(tokens[1]));
+            } catch (NumberFormatException e) {
+                // Header line
+            }
+        }
+    }
+
+    /**
+     * Finds the optimal cost of an instance file by looking for an "optimal.txt" file in its directory
+     * and in every parent directory.
+     *
+     * @param instancePath The path of the instance file.
+     * @return The optimal cost, or null if it is not known.
+     */
+    public static Double forInstance(String instancePath) {
+        File instance = new File(instancePath).getAbsoluteFile();
+        String name = instance.getName();
+        int extension = name.lastIndexOf('.');
+        if (extension > 0) {
+            name = name.substring(0, extension);
+        }
+        for (File directory = instance.getParentFile(); directory != null; directory = directory.getParentFile()) {
+            File file = new File(directory, FILE_NAME);
+            if (file.isFile()) {
+                try {
+                    return new OptimalValues(file).get(name);
+                } catch (IOException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Getter for the optimal cost of an instance.
+     *
+     * @param instanceName The name of the instance, without extension (case-insensitive).
+     * @return The optimal cost, or null if it is not known.
+     */
+    public Double get(String instanceName) {
+        return values.get(instanceName.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Checks whether a cost matches an optimal cost, up to the rounding of the optimal costs and of the floats.
+     *
+     * @param cost The cost to check.
+     * @param optimum The optimal cost.
+     * @return true if the relative difference is negligible.
+     */
+    public static boolean matches(double cost, double optimum) {
+        return Math.abs(cost - optimum) <= TOLERANCE * Math.abs(optimum);
+    }
+}
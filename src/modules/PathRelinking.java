@@ -0,0 +1,213 @@
+package modules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * PathRelinking Class
+ * Relinks every pair of solutions of an elite pool. The walk starts at the cheaper solution of the pair and moves
+ * towards the other one (the guide) by flipping, one at a time, the warehouses on which they differ. Each step
+ * applies the flip with the best incremental delta among the remaining differences, so the path stays as cheap
+ * as possible, and the cheapest intermediate solution of the path is polished with the flip and swap descent of
+ * VariableNeighbourhoodSearch and offered back to the pool.
+ * The pairs are taken from a snapshot of the pool and spread over a fork-join pool: worker w relinks pairs
+ * w, w + P, w + 2P, ... with its own evaluator and neighbourhoods, and the workers only share the pool.
+ * Under a SolverControl the workers stop before their next pair once the deadline has passed or the control is
+ * cancelled.
+ */
+public class PathRelinking implements AnytimeSolver {
+
+    public static final int DEFAULT_POOL_SIZE = 10; // Default capacity of the elite pool
+    public static final int DEFAULT_MIN_DISTANCE = 4; // Default Hamming distance between the elites
+
+    private final DataContainer container; // Data container holding the instance
+    private final EliteSet elitePool; // Elite solutions to relink, which also receives the results
+    private final int parallelism; // Number of worker threads of the fork-join pool
+    private double bestSolutionCost; // Cost of the best solution found
+    private BitSolution bestSolution; // Bitset representing the best solution
+    private SolverControl control; // Deadline, cancellation and progress listener of the current run
+
+    /**
+     * Constructor for PathRelinking.
+     *
+     * @param container The data container containing the instance.
+     * @param elitePool Elite pool filled by earlier searches, e.g. through setElitePool() of MultiStart.
+     * @param parallelism Number of worker threads.
+     */
+    public PathRelinking(DataContainer container, EliteSet elitePool, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The number of workers must be at least 1.");
+        }
+        this.container = container;
+        this.elitePool = elitePool;
+        this.parallelism = parallelism;
+        this.control = new SolverControl();
+    }
+
+    /**
+     * Relinks every pair of elite solutions. With a single elite there is nothing to relink, and its solution is
+     * returned after a warning.
+     * Prints the initial and best solution costs, the relinking statistics and the elapsed time.
+     *
+     * @return AlgorithmResult containing the best solution cost and elapsed time.
+     */
+    public AlgorithmResult usePathRelinking() {
+        long start = System.nanoTime();
+        List<EliteSet.Entry> elites = this.elitePool.getEntries();
+        if (elites.isEmpty()) {
+            throw new IllegalStateException("The elite pool is empty.");
+        }
+        System.out.println("Initial solution cost: " + elites.get(0).getCost());
+        this.control.reportImprovement(elites.get(0).getCost(), 0);
+        if (elites.size() < 2) {
+            System.err.println("Skipping path relinking: the elite pool holds a single solution.");
+            this.bestSolution = elites.get(0).getSolution();
+            this.bestSolutionCost = elites.get(0).getCost();
+            double elapsedTimeInSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            System.out.println("Best Solution Found: " + this.bestSolutionCost);
+            System.out.println("Time elapsed: " + elapsedTimeInSeconds + " seconds");
+            return new AlgorithmResult(this.bestSolutionCost, elapsedTimeInSeconds);
+        }
+
+        // Entries are sorted by cost, so the first solution of each pair is the cheaper one
+        List<int[]> pairs = new ArrayList<>();
+        for (int i = 0; i < elites.size(); i++) {
+            for (int j = i + 1; j < elites.size(); j++) {
+                pairs.add(new int[]{i, j});
+            }
+        }
+
+        int workers = Math.max(1, Math.min(this.parallelism, pairs.size()));
+        long[] steps = new long[workers];
+        int[] accepted = new int[workers];
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                int worker = w;
+                tasks.add(pool.submit(() -> runWorker(worker, workers, elites, pairs, steps, accepted)));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        this.bestSolution = this.elitePool.getBest().getSolution();
+        this.bestSolutionCost = new DeltaEvaluator(this.container.getCostMatrix())
+                .calculateSolutionCost(this.bestSolution);
+
+        long totalSteps = 0;
+        int totalAccepted = 0;
+        for (int w = 0; w < workers; w++) {
+            totalSteps += steps[w];
+            totalAccepted += accepted[w];
+        }
+        long end = System.nanoTime();
+        double elapsedTimeInSeconds = (end - start) / 1_000_000_000.0;
+        System.out.println("Elites: " + elites.size() + ", pairs relinked: " + pairs.size() + " on " + workers
+                + " workers, path steps: " + totalSteps + ", new elites: " + totalAccepted);
+        System.out.println("Best Solution Found: " + this.bestSolutionCost);
+        System.out.println("Time elapsed: " + elapsedTimeInSeconds + " seconds");
+
+        return new AlgorithmResult(this.bestSolutionCost, elapsedTimeInSeconds);
+    }
+
+    /**
+     * Relinks the pairs of one worker: pairs worker, worker + workers, ...
+     *
+     * @param worker Index of the worker.
+     * @param workers Number of workers.
+     * @param elites Snapshot of the elite pool.
+     * @param pairs Indices in the snapshot of the cheaper and the guiding solution of each pair.
+     * @param steps Array receiving the number of path steps of each worker.
+     * @param accepted Array receiving the number of solutions of each worker that entered the pool.
+     */
+    private void runWorker(int worker, int workers, List<EliteSet.Entry> elites, List<int[]> pairs,
+                           long[] steps, int[] accepted) {
+        if (this.control.shouldStop()) {
+            return;
+        }
+        DeltaEvaluator evaluator = new DeltaEvaluator(this.container.getCostMatrix());
+        evaluator.setPreferenceIndex(this.container.getPreferenceIndex());
+        List<NeighbourhoodProvider> neighbourhoods = List.of(new Switch(this.container),
+                new ImprovSwap(this.container));
+        int numWarehouses = this.container.getCostMatrix().getNumWarehouses();
+        int[] differences = new int[numWarehouses];
+        BitSolution pathBest = new BitSolution(numWarehouses);
+
+        for (int p = worker; p < pairs.size() && !this.control.shouldStop(); p += workers) {
+            BitSolution initial = elites.get(pairs.get(p)[0]).getSolution();
+            BitSolution guide = elites.get(pairs.get(p)[1]).getSolution();
+            evaluator.load(initial);
+
+            // Warehouses on which the two solutions differ
+            int remaining = 0;
+            long[] a = initial.getWords();
+            long[] b = guide.getWords();
+            for (int w = 0; w < a.length; w++) {
+                for (long word = a[w] ^ b[w]; word != 0; word &= word - 1) {
+                    differences[remaining++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                }
+            }
+
+            // Walk towards the guide, stopping one flip short of it
+            double pathBestCost = Double.POSITIVE_INFINITY;
+            while (remaining > 1) {
+                int bestIndex = -1;
+                double bestDelta = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < remaining; i++) {
+                    double delta = evaluator.delta(Move.flip(differences[i]));
+                    if (delta < bestDelta) {
+                        bestDelta = delta;
+                        bestIndex = i;
+                    }
+                }
+                if (bestIndex < 0) {
+                    break; // Only the last open warehouse is left to close
+                }
+                evaluator.apply(Move.flip(differences[bestIndex]));
+                differences[bestIndex] = differences[--remaining];
+                steps[worker]++;
+                if (evaluator.getCost() < pathBestCost) {
+                    pathBestCost = evaluator.getCost();
+                    pathBest.copyFrom(evaluator.getSolution());
+                }
+            }
+            if (pathBestCost == Double.POSITIVE_INFINITY) {
+                continue; // The pair is too close to have an intermediate solution
+            }
+
+            evaluator.load(pathBest);
+            VariableNeighbourhoodSearch.descend(evaluator, neighbourhoods, null, this.control);
+            if (this.elitePool.offer(evaluator.getSolution(), evaluator.getCost())) {
+                accepted[worker]++;
+                this.control.reportImprovement(evaluator.getCost(), p + 1);
+            }
+        }
+    }
+
+    /**
+     * Relinks the elite pool under a control, stopping the workers early at its deadline or when it is cancelled.
+     *
+     * @param control Deadline, cancellation flag and progress listener of the run.
+     * @return AlgorithmResult containing the best solution cost and elapsed time.
+     */
+    @Override
+    public AlgorithmResult solve(SolverControl control) {
+        return AnytimeSolver.runUnder(control, c -> this.control = c, this::usePathRelinking);
+    }
+
+    /**
+     * Getter for the best solution found by the last call to usePathRelinking().
+     *
+     * @return Bitset of the open warehouses of the best solution.
+     */
+    @Override
+    public BitSolution getBestSolution() {
+        return bestSolution;
+    }
+}
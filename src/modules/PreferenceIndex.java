@@ -0,0 +1,110 @@
+package modules;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * PreferenceIndex Class
+ * For every client, the warehouses sorted by increasing allocation cost (ties by index), stored row by row in a
+ * single flat array: a short[] when the warehouse indices fit in 16 bits, an int[] otherwise.
+ * With the index, the nearest open warehouse of a client is the first open one in its order, so a scan can stop
+ * there instead of visiting every open warehouse. The rows are sorted in parallel, one client per task.
+ */
+public class PreferenceIndex {
+
+    private static final int SHORT_LIMIT = 1 << 16; // Warehouse count up to which the indices are stored as shorts
+
+    private final int numWarehouses; // Number of warehouses (length of each row)
+    private final int numClients; // Number of clients (rows)
+    private final short[] shortOrder; // Sorted warehouses of each client, unsigned, or null if intOrder is used
+    private final int[] intOrder; // Sorted warehouses of each client, or null if shortOrder is used
+
+    /**
+     * Constructor for PreferenceIndex. Sorts the warehouses of every client.
+     *
+     * @param costMatrix The cost matrix of the instance.
+     */
+    public PreferenceIndex(CostMatrix costMatrix) {
+        this.numWarehouses = costMatrix.getNumWarehouses();
+        this.numClients = costMatrix.getNumClients();
+        int size = numWarehouses * numClients;
+        this.shortOrder = numWarehouses <= SHORT_LIMIT ? new short[size] : null;
+        this.intOrder = numWarehouses <= SHORT_LIMIT ? null : new int[size];
+
+        IntStream.range(0, numClients).parallel().forEach(c -> sortClient(costMatrix, c));
+    }
+
+    /**
+     * Sorts the warehouses of one client into its row.
+     * Each cost is packed with its warehouse index in a long whose natural order is (cost, index).
+     *
+     * @param costMatrix The cost matrix of the instance.
+     * @param client Index of the client.
+     */
+    private void sortClient(CostMatrix costMatrix, int client) {
+        long[] keys = new long[numWarehouses];
+        for (int j = 0; j < numWarehouses; j++) {
+            int bits = Float.floatToIntBits(costMatrix.getAllocCost(client, j));
+            bits ^= (bits >> 31) & 0x7FFFFFFF; // Negative floats sort in reverse as raw bits
+            keys[j] = ((long) bits << 32) | j;
+        }
+        Arrays.sort(keys);
+
+        int row = client * numWarehouses;
+        for (int rank = 0; rank < numWarehouses; rank++) {
+            int warehouse = (int) keys[rank];
+            if (shortOrder != null) {
+                shortOrder[row + rank] = (short) warehouse;
+            } else {
+                intOrder[row + rank] = warehouse;
+            }
+        }
+    }
+
+    /**
+     * Getter for the number of warehouses.
+     *
+     * @return Number of warehouses in each row.
+     */
+    public int getNumWarehouses() {
+        return numWarehouses;
+    }
+
+    /**
+     * Getter for the number of clients.
+     *
+     * @return Number of rows.
+     */
+    public int getNumClients() {
+        return numClients;
+    }
+
+    /**
+     * Getter for the warehouse of a client at a given rank.
+     *
+     * @param client Index of the client.
+     * @param rank Position in the order of the client, 0 for its cheapest warehouse.
+     * @return Index of the warehouse.
+     */
+    public int getWarehouse(int client, int rank) {
+        int position = client * numWarehouses + rank;
+        return shortOrder != null ? shortOrder[position] & 0xFFFF : intOrder[position];
+    }
+
+    /**
+     * Finds the nearest open warehouse of a client by walking its order until an open warehouse is found.
+     *
+     * @param client Index of the client.
+     * @param solution Bitset of the open warehouses.
+     * @return Index of the nearest open warehouse, or -1 if none is open.
+     */
+    public int nearestOpen(int client, BitSolution solution) {
+        for (int rank = 0; rank < numWarehouses; rank++) {
+            int warehouse = getWarehouse(client, rank);
+            if (solution.get(warehouse)) {
+                return warehouse;
+            }
+        }
+        return -1;
+    }
+}
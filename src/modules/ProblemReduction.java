@@ -0,0 +1,408 @@
+package modules;
+
+/**
+ * ProblemReduction Class
+ * Preprocessing stage that fixes warehouses open or closed before the search and builds a smaller instance
+ * over the remaining free warehouses. The reductions keep at least one optimal solution:
+ * <ul>
+ * <li>Lagrangian tests, when a LowerBound is given: with lower bound LB, upper bound UB and reduced fixed cost r(j),
+ * forcing warehouse j against the relaxation raises the bound to LB + |r(j)|, so j is fixed to its relaxed status
+ * when LB + |r(j)| &gt; UB.</li>
+ * <li>Closing rule: in a solution with another warehouse open, closing j costs client c at most
+ * max(0, b(c) - c(c, j)), where b(c) is the cost of the cheapest fixed-open warehouse, or the most expensive other
+ * warehouse when none is fixed open. If f(j) is at least the sum of these savings, j is fixed closed (the best
+ * single-warehouse solution is never closed this way, which covers the solutions with j alone).</li>
+ * <li>Opening rule: opening j in any solution saves client c at least max(0, a(c) - c(c, j)), where a(c) is its
+ * cheapest other non-closed warehouse. If f(j) is below the sum of these savings, j is fixed open.</li>
+ * </ul>
+ * The two rules are repeated until nothing changes. The fixed-open warehouses leave the reduced instance: their
+ * fixed costs become a constant offset, and a single merged warehouse with no fixed cost, whose allocation cost is
+ * the cheapest of theirs for each client, stands for them. The allocation costs of the free warehouses are capped
+ * at the merged one, so the fixed-open warehouses stay in effect even when a solver closes the merged warehouse (a
+ * random start or a drop-only search may never open it): every reduced solution costs, plus the offset, exactly as
+ * much as the original solution it maps to. The caps weaken the Lagrangian bound of the reduced instance, which is
+ * why the lower bound is computed on the original one.
+ */
+public class ProblemReduction {
+
+    private static final double TOLERANCE = 1e-9; // Relative tolerance of the Lagrangian tests
+    private static final int MERGED = -1; // Original index of the merged fixed-open warehouse
+
+    private final CostMatrix costMatrix; // Cost matrix of the original instance
+    private final int numWarehouses; // Number of warehouses of the original instance
+    private final int numClients; // Number of clients
+    private final boolean[] fixedOpen; // Warehouses fixed open
+    private final boolean[] fixedClosed; // Warehouses fixed closed
+    private int numFixedOpen; // Number of warehouses fixed open
+    private int numFixedClosed; // Number of warehouses fixed closed
+    private int lagrangianFixings; // Warehouses fixed by the Lagrangian tests
+    private double offset; // Sum of the fixed costs of the fixed-open warehouses
+    private int[] originalIndex; // Original index of each reduced warehouse, MERGED for the merged one
+    private DataContainer reduced; // The reduced instance
+    private double elapsedTimeInSeconds; // Time taken by the reduction
+
+    /**
+     * Constructor for ProblemReduction. Applies the reductions and builds the reduced instance.
+     *
+     * @param container The data container of the original instance.
+     * @param bound A computed LowerBound of the instance for the Lagrangian tests, or null to skip them.
+     */
+    public ProblemReduction(DataContainer container, LowerBound bound) {
+        this(container, bound, new SolverControl());
+    }
+
+    /**
+     * Constructor for ProblemReduction under a control. The opening and closing rules are no longer repeated once the
+     * deadline of the control has passed or it is cancelled, which only leaves more warehouses free.
+     *
+     * @param container The data container of the original instance.
+     * @param bound A computed LowerBound of the instance for the Lagrangian tests, or null to skip them.
+     * @param control Deadline and cancellation flag of the preprocessing.
+     */
+    public ProblemReduction(DataContainer container, LowerBound bound, SolverControl control) {
+        long start = System.nanoTime();
+        this.costMatrix = container.getCostMatrix();
+        this.numWarehouses = costMatrix.getNumWarehouses();
+        this.numClients = costMatrix.getNumClients();
+        this.fixedOpen = new boolean[numWarehouses];
+        this.fixedClosed = new boolean[numWarehouses];
+
+        if (bound != null) {
+            applyLagrangianTests(bound);
+        }
+        boolean changed = true;
+        while (changed && !control.shouldStop()) {
+            changed = applyOpeningRule();
+            changed |= applyClosingRule();
+        }
+        buildReducedInstance();
+        this.elapsedTimeInSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+    }
+
+    /**
+     * Fixes the warehouses whose reduced fixed cost proves that the other status cannot beat the upper bound.
+     *
+     * @param bound A computed LowerBound of the instance.
+     */
+    private void applyLagrangianTests(LowerBound bound) {
+        double lower = bound.getLowerBound();
+        double upper = bound.getUpperBound();
+        if (!Double.isFinite(lower) || !Double.isFinite(upper)) {
+            return;
+        }
+        double threshold = upper + TOLERANCE * Math.abs(upper);
+        double[] reducedFixedCosts = bound.getReducedFixedCosts();
+        for (int j = 0; j < numWarehouses; j++) {
+            if (lower + Math.abs(reducedFixedCosts[j]) > threshold) {
+                if (reducedFixedCosts[j] < 0) {
+                    fix(j, true);
+                } else {
+                    fix(j, false);
+                }
+                lagrangianFixings++;
+            }
+        }
+    }
+
+    /**
+     * Fixes open every free warehouse that saves more than its fixed cost in any solution.
+     * The cheapest and second-cheapest non-closed warehouses of each client give the cheapest other warehouse of
+     * every j in O(1).
+     *
+     * @return true if a warehouse was fixed.
+     */
+    private boolean applyOpeningRule() {
+        int[] cheapest = new int[numClients];
+        float[] cheapestCost = new float[numClients];
+        float[] secondCost = new float[numClients];
+        for (int c = 0; c < numClients; c++) {
+            cheapest[c] = -1;
+            cheapestCost[c] = Float.POSITIVE_INFINITY;
+            secondCost[c] = Float.POSITIVE_INFINITY;
+            for (int i = 0; i < numWarehouses; i++) {
+                if (fixedClosed[i]) {
+                    continue;
+                }
+                float cost = costMatrix.getAllocCost(c, i);
+                if (cost < cheapestCost[c]) {
+                    secondCost[c] = cheapestCost[c];
+                    cheapestCost[c] = cost;
+                    cheapest[c] = i;
+                } else if (cost < secondCost[c]) {
+                    secondCost[c] = cost;
+                }
+            }
+        }
+
+        boolean changed = false;
+        for (int j = 0; j < numWarehouses; j++) {
+            if (fixedOpen[j] || fixedClosed[j]) {
+                continue;
+            }
+            // Minimum saving: each client moves from its cheapest other non-closed warehouse to j
+            double saving = 0;
+            for (int c = 0; c < numClients; c++) {
+                float other = cheapest[c] == j ? secondCost[c] : cheapestCost[c];
+                saving += Math.max(0, other - costMatrix.getAllocCost(c, j));
+            }
+            if (costMatrix.getFixedCost(j) < saving) {
+                fix(j, true);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Fixes closed every free warehouse whose fixed cost covers the largest saving it could give.
+     * The bounds b(c) are computed once per pass; warehouses closed during the pass only make them smaller, so the
+     * stale values stay valid.
+     *
+     * @return true if a warehouse was fixed.
+     */
+    private boolean applyClosingRule() {
+        // Cheapest fixed-open warehouse, or the two most expensive non-closed warehouses, of each client
+        int[] worst = new int[numClients];
+        float[] bound = new float[numClients];
+        float[] secondBound = new float[numClients];
+        for (int c = 0; c < numClients; c++) {
+            worst[c] = -1;
+            bound[c] = numFixedOpen > 0 ? Float.POSITIVE_INFINITY : Float.NEGATIVE_INFINITY;
+            secondBound[c] = Float.NEGATIVE_INFINITY;
+            for (int i = 0; i < numWarehouses; i++) {
+                float cost = costMatrix.getAllocCost(c, i);
+                if (numFixedOpen > 0) {
+                    if (fixedOpen[i]) {
+                        bound[c] = Math.min(bound[c], cost);
+                    }
+                } else if (!fixedClosed[i]) {
+                    if (cost > bound[c]) {
+                        secondBound[c] = bound[c];
+                        bound[c] = cost;
+                        worst[c] = i;
+                    } else if (cost > secondBound[c]) {
+                        secondBound[c] = cost;
+                    }
+                }
+            }
+        }
+
+        int bestSingle = numFixedOpen == 0 ? bestSingleWarehouse() : -1;
+        boolean changed = false;
+        for (int j = 0; j < numWarehouses; j++) {
+            if (fixedOpen[j] || fixedClosed[j] || j == bestSingle) {
+                continue;
+            }
+            // Maximum saving: each client moves to j from the worst warehouse it could otherwise be served by
+            double saving = 0;
+            for (int c = 0; c < numClients && saving <= costMatrix.getFixedCost(j); c++) {
+                float other = worst[c] == j ? secondBound[c] : bound[c];
+                saving += Math.max(0, other - costMatrix.getAllocCost(c, j));
+            }
+            if (costMatrix.getFixedCost(j) >= saving) {
+                fix(j, false);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Finds the non-closed warehouse with the cheapest single-warehouse solution.
+     *
+     * @return Index of the warehouse.
+     */
+    private int bestSingleWarehouse() {
+        int best = -1;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < numWarehouses; j++) {
+            if (fixedClosed[j]) {
+                continue;
+            }
+            double cost = costMatrix.getFixedCost(j);
+            for (int c = 0; c < numClients; c++) {
+                cost += costMatrix.getAllocCost(c, j);
+            }
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = j;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Fixes a warehouse open or closed.
+     *
+     * @param warehouse Index of the warehouse.
+     * @param open true to fix it open, false to fix it closed.
+     */
+    private void fix(int warehouse, boolean open) {
+        if (open) {
+            fixedOpen[warehouse] = true;
+            numFixedOpen++;
+            offset += costMatrix.getFixedCost(warehouse);
+        } else {
+            fixedClosed[warehouse] = true;
+            numFixedClosed++;
+        }
+    }
+
+    /**
+     * Builds the reduced instance over the free warehouses, plus the merged warehouse if any is fixed open.
+     */
+    private void buildReducedInstance() {
+        int numFree = numWarehouses - numFixedOpen - numFixedClosed;
+        int size = numFree + (numFixedOpen > 0 ? 1 : 0);
+        this.originalIndex = new int[size];
+        int next = 0;
+        for (int j = 0; j < numWarehouses; j++) {
+            if (!fixedOpen[j] && !fixedClosed[j]) {
+                originalIndex[next++] = j;
+            }
+        }
+        if (numFixedOpen > 0) {
+            originalIndex[next] = MERGED;
+        }
+
+        CostMatrix matrix = new CostMatrix(size, numClients, CostMatrix.Layout.ROW_MAJOR);
+        for (int c = 0; c < numClients; c++) {
+            float mergedCost = Float.POSITIVE_INFINITY;
+            for (int j = 0; j < numWarehouses; j++) {
+                if (fixedOpen[j]) {
+                    mergedCost = Math.min(mergedCost, costMatrix.getAllocCost(c, j));
+                }
+            }
+            for (int r = 0; r < size; r++) {
+                int j = originalIndex[r];
+                // Capped at the merged warehouse, which serves the client whenever it is cheaper
+                matrix.setAllocCost(c, r, j == MERGED ? mergedCost
+                        : Math.min(mergedCost, costMatrix.getAllocCost(c, j)));
+            }
+        }
+        for (int r = 0; r < size; r++) {
+            int j = originalIndex[r];
+            matrix.setFixedCost(r, j == MERGED ? 0 : costMatrix.getFixedCost(j));
+        }
+        this.reduced = new DataContainer(matrix);
+    }
+
+    /**
+     * Getter for the reduced instance.
+     *
+     * @return DataContainer over the free warehouses (and the merged fixed-open one, last, if any).
+     */
+    public DataContainer getReducedContainer() {
+        return reduced;
+    }
+
+    /**
+     * Getter for the original index of a warehouse of the reduced instance.
+     *
+     * @param reducedWarehouse Index of the warehouse in the reduced instance.
+     * @return Index in the original instance, or -1 for the merged fixed-open warehouse.
+     */
+    public int getOriginalIndex(int reducedWarehouse) {
+        return originalIndex[reducedWarehouse];
+    }
+
+    /**
+     * Maps a solution of the reduced instance back to the original instance, opening the fixed-open warehouses.
+     *
+     * @param solution Bitset of the open warehouses of the reduced instance.
+     * @return Bitset of the open warehouses of the original instance.
+     */
+    public BitSolution toOriginal(BitSolution solution) {
+        BitSolution original = new BitSolution(numWarehouses);
+        for (int r = solution.nextSetBit(0); r >= 0; r = solution.nextSetBit(r + 1)) {
+            if (originalIndex[r] != MERGED) {
+                original.set(originalIndex[r]);
+            }
+        }
+        for (int j = 0; j < numWarehouses; j++) {
+            if (fixedOpen[j]) {
+                original.set(j);
+            }
+        }
+        return original;
+    }
+
+    /**
+     * Maps the result of an algorithm on the reduced instance back to the original instance. The best solution is
+     * mapped with toOriginal() and costed on the original instance; without a best solution, the offset is added.
+     *
+     * @param result The result of an algorithm on the reduced instance.
+     * @return The result of the algorithm on the original instance.
+     */
+    public AlgorithmResult toOriginal(AlgorithmResult result) {
+        if (result.getBestSolution() == null) {
+            result.addCostOffset(offset);
+            return result;
+        }
+        BitSolution original = toOriginal(result.getBestSolution());
+        double cost = new DeltaEvaluator(costMatrix).calculateSolutionCost(original);
+        AlgorithmResult mapped = new AlgorithmResult(cost, result.getElapsedTimeInSeconds());
+        mapped.setBestSolution(original);
+        mapped.setEvaluationCache(result.getEvaluationCache());
+        return mapped;
+    }
+
+    /**
+     * Getter for the cost offset: a reduced solution costs this much less than the original solution it maps to.
+     *
+     * @return Sum of the fixed costs of the fixed-open warehouses.
+     */
+    public double getOffset() {
+        return offset;
+    }
+
+    /**
+     * Getter for the number of warehouses fixed open.
+     *
+     * @return Number of fixed-open warehouses.
+     */
+    public int getNumFixedOpen() {
+        return numFixedOpen;
+    }
+
+    /**
+     * Getter for the number of warehouses fixed closed.
+     *
+     * @return Number of fixed-closed warehouses.
+     */
+    public int getNumFixedClosed() {
+        return numFixedClosed;
+    }
+
+    /**
+     * Getter for the number of warehouses fixed by the Lagrangian tests.
+     *
+     * @return Number of Lagrangian fixings, included in the fixed-open and fixed-closed counts.
+     */
+    public int getLagrangianFixings() {
+        return lagrangianFixings;
+    }
+
+    /**
+     * Getter for the time taken by the reduction.
+     *
+     * @return Elapsed time in seconds.
+     */
+    public double getElapsedTimeInSeconds() {
+        return elapsedTimeInSeconds;
+    }
+
+    /**
+     * Overrides toString() to summarize how much the instance shrank.
+     *
+     * @return String representation of the reduction.
+     */
+    @Override
+    public String toString() {
+        int size = reduced.getCostMatrix().getNumWarehouses();
+        return "Reduction: " + numWarehouses + " -> " + size + " warehouses (" + numFixedOpen + " fixed open, "
+                + numFixedClosed + " fixed closed, " + lagrangianFixings + " by the Lagrangian tests, "
+                + String.format("%.1f", 100.0 * (numWarehouses - size) / numWarehouses) + "% smaller) in "
+                + elapsedTimeInSeconds + " seconds";
+    }
+}
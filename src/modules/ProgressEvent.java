@@ -0,0 +1,86 @@
+package modules;
+
+/**
+ * ProgressEvent class represents an improving solution reported by a solver through its SolverControl.
+ */
+public class ProgressEvent {
+    private final String label; // Label of the control, e.g. the instance name, or null
+    private final long timestamp; // Wall-clock time of the improvement, in milliseconds since the epoch
+    private final double elapsedTimeInSeconds; // Time since the control started
+    private final double cost; // Cost of the improving solution
+    private final long iteration; // Iteration of the solver at which the solution was found
+
+    /**
+     * Constructor to initialize ProgressEvent.
+     *
+     * @param label Label of the control, or null.
+     * @param timestamp Wall-clock time of the improvement, in milliseconds since the epoch.
+     * @param elapsedTimeInSeconds Time since the control started.
+     * @param cost Cost of the improving solution.
+     * @param iteration Iteration of the solver at which the solution was found (0 for the initial solution).
+     */
+    public ProgressEvent(String label, long timestamp, double elapsedTimeInSeconds, double cost, long iteration) {
+        this.label = label;
+        this.timestamp = timestamp;
+        this.elapsedTimeInSeconds = elapsedTimeInSeconds;
+        this.cost = cost;
+        this.iteration = iteration;
+    }
+
+    /**
+     * Getter for the label of the control.
+     *
+     * @return The label, or null if the control has none.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Getter for the wall-clock time of the improvement.
+     *
+     * @return Milliseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Getter for the time between the start of the control and the improvement.
+     *
+     * @return Elapsed time in seconds.
+     */
+    public double getElapsedTimeInSeconds() {
+        return elapsedTimeInSeconds;
+    }
+
+    /**
+     * Getter for the cost of the improving solution.
+     *
+     * @return The cost.
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * Getter for the iteration at which the solution was found. What an iteration is depends on the solver
+     * (a move, a sweep, a construction or a generation).
+     *
+     * @return The iteration.
+     */
+    public long getIteration() {
+        return iteration;
+    }
+
+    /**
+     * Overrides toString() to provide a one-line representation of the event.
+     *
+     * @return String representation of the ProgressEvent object.
+     */
+    @Override
+    public String toString() {
+        return (label == null ? "" : label + ": ") + "cost " + cost + " at iteration " + iteration + " after "
+                + String.format("%.3f", elapsedTimeInSeconds) + " seconds";
+    }
+}
@@ -0,0 +1,18 @@
+package modules;
+
+/**
+ * ProgressListener Interface
+ * Receives the improving solutions of a solver running under a SolverControl, as they are found.
+ * Events are delivered on the thread of the solver, one at a time and with decreasing costs, so a listener
+ * should return quickly.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    /**
+     * Called when the solver finds a solution cheaper than every solution reported before.
+     *
+     * @param event Time, cost and iteration of the improvement.
+     */
+    void onImprovement(ProgressEvent event);
+}
@@ -0,0 +1,435 @@
+package modules;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+
+/**
+ * SimulatedAnnealing Class
+ * Simulated annealing over the flip (open or close one warehouse) and swap (close one, open another) moves.
+ * Moves are scored by the incremental DeltaEvaluator: closing is O(1) from the per-warehouse reassignment losses,
+ * kept up to date after each accepted move, and opening or swapping is one pass over the clients. Random open and
+ * closed warehouses are drawn in O(1) from index lists, so the annealing loop does not allocate.
+ * The temperature follows a cooling schedule over a wall-clock time budget. Under a SolverControl the budget is
+ * shortened to the time left before the deadline of the control, and a cancellation stops the loop at the next
+ * read of the clock.
+ */
+public class SimulatedAnnealing implements AnytimeSolver {
+
+    /**
+     * Cooling schedule, as a function of the fraction p of the time budget already used.
+     * GEOMETRIC: T = T0 * (T1 / T0)^p (default), LINEAR: T = T0 + (T1 - T0) * p,
+     * LUNDY_MEES: T = T0 / (1 + beta * p), with beta such that the final temperature is T1.
+     */
+    public enum CoolingSchedule {
+        GEOMETRIC,
+        LINEAR,
+        LUNDY_MEES
+    }
+
+    public static final double DEFAULT_TIME_BUDGET = 5.0; // Default time budget in seconds
+
+    private static final double FINAL_TEMPERATURE_RATIO = 1e-3; // Final temperature relative to the initial one
+    private static final int SAMPLE_MOVES = 200; // Random moves sampled to choose the initial temperature
+    private static final int CLOCK_INTERVAL = 256; // Moves between two reads of the clock
+    private static final double MIN_IMPROVEMENT = 1e-6; // Smallest improvement recorded as a new best solution
+
+    private DataContainer container; // Data container holding warehouses and clients
+    private CostMatrix costMatrix; // Primitive cost matrix of the instance
+    private DeltaEvaluator evaluator; // Incremental evaluator of the current solution
+    private double bestSolutionCost; // Cost of the best solution found
+    private BitSolution bestSolution; // Bitset representing the best solution
+    private BitSolution startSolution; // Starting solution given by the caller, or null for the default one
+    private RandomGenerator rand; // Random number generator
+    private SolverControl control; // Deadline, cancellation and progress listener of the current run
+    private CoolingSchedule coolingSchedule; // Cooling schedule of the temperature
+    private double timeBudget; // Time budget in seconds
+    private double initialTemperature; // Initial temperature, or NaN to derive it from the instance
+    private double[] loss; // Reassignment loss of the clients of each open warehouse if it closes
+    private int[] openList; // Open warehouses, in the first numOpen positions
+    private int[] closedList; // Closed warehouses, in the first numWarehouses - numOpen positions
+    private int[] position; // Position of each warehouse in openList or closedList
+    private int numOpen; // Number of open warehouses
+    private long moves; // Moves evaluated by the last run
+    private long acceptedMoves; // Moves accepted by the last run
+    private long uphillMoves; // Worsening moves evaluated by the last run
+    private long acceptedUphillMoves; // Worsening moves accepted by the last run
+
+    /**
+     * Constructor for the SimulatedAnnealing class.
+     *
+     * @param container The data container containing warehouses and clients.
+     */
+    public SimulatedAnnealing(DataContainer container) {
+        this(container, new Random());
+    }
+
+    /**
+     * Constructor for the SimulatedAnnealing class with a given random number generator.
+     *
+     * @param container The data container containing warehouses and clients.
+     * @param rand The random number generator used to draw the moves and to accept them.
+     */
+    public SimulatedAnnealing(DataContainer container, RandomGenerator rand) {
+        this.container = container;
+        // Opening and swapping moves scan one warehouse over every client, which is contiguous in column-major order
+        this.costMatrix = this.container.getCostMatrix().withLayout(CostMatrix.Layout.COLUMN_MAJOR);
+        this.evaluator = new DeltaEvaluator(this.costMatrix); // Create the incremental evaluator
+        this.evaluator.setPreferenceIndex(this.container.getPreferenceIndex()); // Walk clients' warehouses by cost
+        this.rand = rand;
+        this.coolingSchedule = CoolingSchedule.GEOMETRIC;
+        this.timeBudget = DEFAULT_TIME_BUDGET;
+        this.initialTemperature = Double.NaN;
+        int numWarehouses = this.costMatrix.getNumWarehouses();
+        this.bestSolution = new BitSolution(numWarehouses);
+        this.loss = new double[numWarehouses];
+        this.openList = new int[numWarehouses];
+        this.closedList = new int[numWarehouses];
+        this.position = new int[numWarehouses];
+        this.control = new SolverControl();
+    }
+
+    /**
+     * Setter for the cooling schedule.
+     *
+     * @param coolingSchedule The cooling schedule of the next runs.
+     */
+    public void setCoolingSchedule(CoolingSchedule coolingSchedule) {
+        this.coolingSchedule = coolingSchedule;
+    }
+
+    /**
+     * Setter for the wall-clock time budget.
+     *
+     * @param timeBudget Time budget in seconds.
+     */
+    public void setTimeBudget(double timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * Setter for the initial temperature.
+     * By default it is chosen so that an average worsening move is accepted with probability 1/2.
+     *
+     * @param initialTemperature The initial temperature, or NaN to derive it from the instance.
+     */
+    public void setInitialTemperature(double initialTemperature) {
+        this.initialTemperature = initialTemperature;
+    }
+
+    /**
+     * Setter for the candidate list size. Openings are then scored only over the clients that have the opened
+     * warehouse among their k nearest warehouses, which speeds up the sweeps at some cost in quality.
+     *
+     * @param k Number of nearest warehouses of each client, or 0 to score openings over every client.
+     */
+    public void setCandidateListSize(int k) {
+        this.evaluator.setCandidateLists(k > 0 ? new CandidateLists(this.container.getPreferenceIndex(), k) : null);
+    }
+
+    /**
+     * Setter for the starting solution, e.g. one built by GreedyAdd.
+     * By default the annealing starts from the lazy ADD greedy solution.
+     *
+     * @param startSolution The starting solution, or null to use the default one.
+     */
+    public void setStartSolution(BitSolution startSolution) {
+        this.startSolution = startSolution;
+    }
+
+    /**
+     * Loads the starting solution into the evaluator and the index lists.
+     */
+    private void getInitialSolution() {
+        BitSolution current = this.startSolution != null
+                ? this.startSolution.copy() : new GreedyAdd(this.container).buildSolution().copy();
+        if (current.cardinality() == 0) {
+            current.set(0); // A solution needs at least one open warehouse
+        }
+        this.evaluator.load(current);
+
+        this.numOpen = 0;
+        int numClosed = 0;
+        for (int j = 0; j < current.size(); j++) {
+            if (current.get(j)) {
+                this.openList[this.numOpen] = j;
+                this.position[j] = this.numOpen++;
+            } else {
+                this.closedList[numClosed] = j;
+                this.position[j] = numClosed++;
+            }
+        }
+        updateLosses();
+
+        this.bestSolution.copyFrom(current);
+        this.bestSolutionCost = this.evaluator.getCost();
+    }
+
+    /**
+     * Recomputes the reassignment loss of every open warehouse in one pass over the clients.
+     */
+    private void updateLosses() {
+        Arrays.fill(this.loss, 0);
+        if (this.evaluator.getNumOpen() < 2) {
+            return; // Closing the only open warehouse is never allowed
+        }
+        for (int c = 0; c < costMatrix.getNumClients(); c++) {
+            int nearest = this.evaluator.getNearest(c);
+            this.loss[nearest] += this.evaluator.getSecondCost(c) - this.evaluator.getNearestCost(c);
+        }
+    }
+
+    /**
+     * Draws a random move of the current solution: a flip or a swap with equal probability.
+     *
+     * @return The move (see Move), or -1 if the drawn move is not allowed.
+     */
+    private long randomMove() {
+        int numClosed = costMatrix.getNumWarehouses() - this.numOpen;
+        if (this.rand.nextBoolean()) {
+            int j = this.rand.nextInt(costMatrix.getNumWarehouses());
+            return this.evaluator.isOpen(j) && this.numOpen == 1 ? -1 : Move.flip(j);
+        }
+        if (numClosed == 0) {
+            return -1;
+        }
+        return Move.swap(this.openList[this.rand.nextInt(this.numOpen)],
+                this.closedList[this.rand.nextInt(numClosed)]);
+    }
+
+    /**
+     * Computes the cost variation of a move, using the reassignment losses for closing moves.
+     *
+     * @param move The move.
+     * @return New cost minus current cost.
+     */
+    private double delta(long move) {
+        if (Move.type(move) == Move.FLIP) {
+            int j = Move.warehouse(move);
+            return this.evaluator.isOpen(j)
+                    ? this.loss[j] - costMatrix.getFixedCost(j) : this.evaluator.openDelta(j);
+        }
+        return this.evaluator.swapDelta(Move.out(move), Move.in(move));
+    }
+
+    /**
+     * Applies a move to the evaluator, the index lists and the losses.
+     *
+     * @param move The move.
+     */
+    private void apply(long move) {
+        if (Move.type(move) == Move.FLIP) {
+            int j = Move.warehouse(move);
+            if (this.evaluator.isOpen(j)) {
+                moveToClosed(j);
+            } else {
+                moveToOpen(j);
+            }
+        } else {
+            moveToClosed(Move.out(move));
+            moveToOpen(Move.in(move));
+        }
+        this.evaluator.apply(move);
+        updateLosses();
+    }
+
+    /**
+     * Moves a warehouse from the open list to the closed list.
+     *
+     * @param j Index of the open warehouse.
+     */
+    private void moveToClosed(int j) {
+        int last = this.openList[--this.numOpen];
+        this.openList[this.position[j]] = last;
+        this.position[last] = this.position[j];
+        int numClosed = costMatrix.getNumWarehouses() - this.numOpen - 1;
+        this.closedList[numClosed] = j;
+        this.position[j] = numClosed;
+    }
+
+    /**
+     * Moves a warehouse from the closed list to the open list.
+     *
+     * @param j Index of the closed warehouse.
+     */
+    private void moveToOpen(int j) {
+        int last = this.closedList[costMatrix.getNumWarehouses() - this.numOpen - 1];
+        this.closedList[this.position[j]] = last;
+        this.position[last] = this.position[j];
+        this.openList[this.numOpen] = j;
+        this.position[j] = this.numOpen++;
+    }
+
+    /**
+     * Samples random moves to choose the initial temperature, unless it was set.
+     *
+     * @return The initial temperature.
+     */
+    private double chooseInitialTemperature() {
+        if (!Double.isNaN(this.initialTemperature)) {
+            return this.initialTemperature;
+        }
+        double sum = 0;
+        int count = 0;
+        for (int i = 0; i < SAMPLE_MOVES; i++) {
+            long move = randomMove();
+            if (move >= 0) {
+                double delta = delta(move);
+                if (delta > 0 && delta < Double.POSITIVE_INFINITY) {
+                    sum += delta;
+                    count++;
+                }
+            }
+        }
+        // exp(-average / T0) = 1/2
+        return count == 0 ? 1.0 : (sum / count) / Math.log(2);
+    }
+
+    /**
+     * Computes the temperature at a point of the time budget.
+     *
+     * @param initial Initial temperature.
+     * @param progress Fraction of the time budget already used, between 0 and 1.
+     * @return The temperature.
+     */
+    private double temperature(double initial, double progress) {
+        double end = initial * FINAL_TEMPERATURE_RATIO;
+        switch (this.coolingSchedule) {
+            case LINEAR:
+                return initial + (end - initial) * progress;
+            case LUNDY_MEES:
+                return initial / (1 + (initial / end - 1) * progress);
+            default:
+                return initial * Math.pow(end / initial, progress);
+        }
+    }
+
+    /**
+     * Runs the annealing loop until the time budget is used.
+     */
+    private void anneal() {
+        double initial = chooseInitialTemperature();
+        long start = System.nanoTime();
+        long budget = Math.min((long) (this.timeBudget * 1_000_000_000L), this.control.getRemainingNanos());
+        double temperature = initial;
+        this.moves = 0;
+        this.acceptedMoves = 0;
+        this.uphillMoves = 0;
+        this.acceptedUphillMoves = 0;
+
+        while (true) {
+            if ((this.moves & (CLOCK_INTERVAL - 1)) == 0) {
+                long elapsed = System.nanoTime() - start;
+                if (elapsed >= budget || this.control.shouldStop()) {
+                    break;
+                }
+                temperature = temperature(initial, (double) elapsed / budget);
+            }
+            long move = randomMove();
+            if (move < 0) {
+                continue;
+            }
+            this.moves++;
+
+            double delta = delta(move);
+            boolean accept;
+            if (delta <= 0) {
+                accept = true;
+            } else {
+                this.uphillMoves++;
+                accept = this.rand.nextDouble() < Math.exp(-delta / temperature);
+                if (accept) {
+                    this.acceptedUphillMoves++;
+                }
+            }
+            if (!accept) {
+                continue;
+            }
+
+            this.acceptedMoves++;
+            apply(move);
+            if (this.evaluator.getCost() < this.bestSolutionCost - MIN_IMPROVEMENT) {
+                this.bestSolutionCost = this.evaluator.getCost();
+                this.bestSolution.copyFrom(this.evaluator.getSolution());
+                this.control.reportImprovement(this.bestSolutionCost, this.moves);
+            }
+        }
+    }
+
+    /**
+     * Executes the simulated annealing.
+     * Prints the initial and best solution costs, the move statistics and the elapsed time.
+     *
+     * @return AlgorithmResult containing the best solution cost and elapsed time.
+     */
+    public AlgorithmResult useSimulatedAnnealing() {
+        long start = System.nanoTime();
+
+        getInitialSolution();
+        System.out.println("Initial solution cost: " + this.bestSolutionCost);
+        this.control.reportImprovement(this.bestSolutionCost, 0);
+        anneal();
+        // The incremental cost drifts over millions of moves, so the best solution is evaluated once more
+        this.bestSolutionCost = this.evaluator.calculateSolutionCost(this.bestSolution);
+
+        long end = System.nanoTime();
+        long elapsedTime = end - start;
+        double elapsedTimeInSeconds = elapsedTime / 1_000_000_000.0;
+        System.out.println("Moves evaluated: " + this.moves + " ("
+                + String.format("%.0f", this.moves / elapsedTimeInSeconds) + " moves/sec), acceptance rate: "
+                + String.format("%.2f", getAcceptanceRate() * 100) + "%, uphill acceptance rate: " + String.format("%.2f", getUphillAcceptanceRate() * 100) + "%");
+        System.out.println("Best Solution Found: " + this.bestSolutionCost);
+        System.out.println("Time elapsed: " + elapsedTimeInSeconds + " seconds");
+
+        return new AlgorithmResult(this.bestSolutionCost, elapsedTimeInSeconds);
+    }
+
+    /**
+     * Executes the simulated annealing under a control, within the smaller of the time budget and the time left
+     * before the deadline of the control.
+     *
+     * @param control Deadline, cancellation flag and progress listener of the run.
+     * @return AlgorithmResult containing the best solution cost and elapsed time.
+     */
+    @Override
+    public AlgorithmResult solve(SolverControl control) {
+        return AnytimeSolver.runUnder(control, c -> this.control = c, this::useSimulatedAnnealing);
+    }
+
+    /**
+     * Getter for the best solution found by the last call to useSimulatedAnnealing().
+     *
+     * @return Bitset of the open warehouses of the best solution.
+     */
+    @Override
+    public BitSolution getBestSolution() {
+        return bestSolution;
+    }
+
+    /**
+     * Getter for the number of moves evaluated by the last run.
+     *
+     * @return Number of moves.
+     */
+    public long getMoves() {
+        return moves;
+    }
+
+    /**
+     * Computes the fraction of the evaluated moves that were accepted in the last run.
+     *
+     * @return Acceptance rate between 0 and 1.
+     */
+    public double getAcceptanceRate() {
+        return moves == 0 ? 0 : (double) acceptedMoves / moves;
+    }
+
+    /**
+     * Computes the fraction of the worsening moves that were accepted in the last run.
+     *
+     * @return Uphill acceptance rate between 0 and 1.
+     */
+    public double getUphillAcceptanceRate() {
+        return uphillMoves == 0 ? 0 : (double) acceptedUphillMoves / uphillMoves;
+    }
+}
@@ -0,0 +1,165 @@
+package modules;
+
+/**
+ * SolverControl Class
+ * Execution contract of an AnytimeSolver: a wall-clock deadline, a cooperative cancellation flag and a listener of
+ * the improving solutions.
+ * The solvers poll shouldStop() between moves, sweeps or iterations, so a run ends shortly after its deadline, after
+ * a call to cancel() from any thread or after the thread that polls it is interrupted, and returns the best solution
+ * found so far.
+ * The clock starts on the first call to start(), so one control can span the preprocessing and the solvers chained
+ * on an instance.
+ */
+public class SolverControl {
+
+    private final long timeBudget; // Time budget in nanoseconds, Long.MAX_VALUE if there is no deadline
+    private final ProgressListener listener; // Listener of the improving solutions, or null
+    private String label; // Label attached to the events, e.g. the instance name
+    private volatile boolean started; // Whether start() was called
+    private volatile long startTime; // System.nanoTime() at the first call to start()
+    private volatile boolean cancelled; // Set by cancel()
+    private double costOffset; // Cost of the fixed part of a reduced instance, added to the reported costs
+    private double bestReportedCost; // Cheapest cost reported so far, without the offset
+    private long improvements; // Number of improvements reported
+
+    /**
+     * Constructor for a SolverControl with no deadline and no listener, which only stops when cancelled.
+     */
+    public SolverControl() {
+        this(Double.POSITIVE_INFINITY, null);
+    }
+
+    /**
+     * Constructor for SolverControl.
+     *
+     * @param timeBudgetInSeconds Wall-clock time allowed from the first call to start(), or positive infinity.
+     * @param listener Listener of the improving solutions, or null.
+     */
+    public SolverControl(double timeBudgetInSeconds, ProgressListener listener) {
+        if (!(timeBudgetInSeconds >= 0)) {
+            throw new IllegalArgumentException("The time budget must not be negative.");
+        }
+        this.timeBudget = timeBudgetInSeconds >= Long.MAX_VALUE / 1_000_000_000.0
+                ? Long.MAX_VALUE : (long) (timeBudgetInSeconds * 1_000_000_000.0);
+        this.listener = listener;
+        this.bestReportedCost = Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Starts the clock. Only the first call has an effect.
+     */
+    public synchronized void start() {
+        if (!this.started) {
+            this.startTime = System.nanoTime();
+            this.started = true;
+        }
+    }
+
+    /**
+     * Checks whether the solver should stop: the control was cancelled, the calling thread was interrupted or the
+     * deadline has passed.
+     *
+     * @return True if the solver should return its best solution now.
+     */
+    public boolean shouldStop() {
+        return this.cancelled || Thread.currentThread().isInterrupted() || getRemainingNanos() == 0;
+    }
+
+    /**
+     * Asks the solvers running under this control to stop. Can be called from any thread.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Checks whether cancel() was called.
+     *
+     * @return True if the control was cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Checks whether the control has a deadline.
+     *
+     * @return True if the time budget is finite.
+     */
+    public boolean hasDeadline() {
+        return this.timeBudget != Long.MAX_VALUE;
+    }
+
+    /**
+     * Computes the time left before the deadline. The whole budget is left before start() is called.
+     *
+     * @return Remaining time in nanoseconds, 0 once the deadline has passed, Long.MAX_VALUE if there is none.
+     */
+    public long getRemainingNanos() {
+        if (!hasDeadline()) {
+            return Long.MAX_VALUE;
+        }
+        if (!this.started) {
+            return this.timeBudget;
+        }
+        return Math.max(0, this.timeBudget - (System.nanoTime() - this.startTime));
+    }
+
+    /**
+     * Computes the time elapsed since the control started.
+     *
+     * @return Elapsed time in seconds, 0 before start() is called.
+     */
+    public double getElapsedTimeInSeconds() {
+        return this.started ? (System.nanoTime() - this.startTime) / 1_000_000_000.0 : 0;
+    }
+
+    /**
+     * Reports a solution found by a solver. The listener is only notified if the solution is cheaper than every
+     * solution reported before, so it sees decreasing costs even when several workers report concurrently.
+     *
+     * @param cost Cost of the solution, on the instance given to the solver.
+     * @param iteration Iteration of the solver at which the solution was found.
+     * @return True if the solution was an improvement.
+     */
+    public synchronized boolean reportImprovement(double cost, long iteration) {
+        if (cost >= this.bestReportedCost) {
+            return false;
+        }
+        this.bestReportedCost = cost;
+        this.improvements++;
+        if (this.listener != null) {
+            this.listener.onImprovement(new ProgressEvent(this.label, System.currentTimeMillis(),
+                    getElapsedTimeInSeconds(), cost + this.costOffset, iteration));
+        }
+        return true;
+    }
+
+    /**
+     * Getter for the number of improvements reported.
+     *
+     * @return Number of improvements.
+     */
+    public synchronized long getImprovements() {
+        return improvements;
+    }
+
+    /**
+     * Setter for the cost added to the reported costs, e.g. the offset of a ProblemReduction, so that the listener
+     * sees costs on the original instance.
+     *
+     * @param costOffset Cost of the fixed part of the instance.
+     */
+    public synchronized void setCostOffset(double costOffset) {
+        this.costOffset = costOffset;
+    }
+
+    /**
+     * Setter for the label attached to the events.
+     *
+     * @param label The label, e.g. the instance name.
+     */
+    public synchronized void setLabel(String label) {
+        this.label = label;
+    }
+}
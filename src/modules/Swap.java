@@ -1,22 +1,27 @@
 package modules;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * Swap Class
  * This class implements a swapping algorithm for solving the Uncapacitated Facility Location Problem (UFLP).
+ * As a NeighbourhoodProvider it offers a sample of 10 random swaps, drawn anew on every call.
  */
-public class Swap {
+public class Swap implements NeighbourhoodProvider, AnytimeSolver {
 
     private DataContainer container; // Data container holding warehouses and clients
-    private List<Warehouse> warehouseList; // List of warehouses
-    private List<Client> clientList; // List of clients
-    private float bestSolutionCost; // Cost of the best solution found
-    private List<Boolean> bestSolution; // Boolean list representing the best solution
-    private List<Boolean> currentSolution; // Boolean list representing the current solution
-    private Random rand; // Random number generator
+    private CostMatrix costMatrix; // Primitive cost matrix of the instance
+    private DeltaEvaluator evaluator; // Incremental evaluator of the current solution
+    private double bestSolutionCost; // Cost of the best solution found
+    private BitSolution bestSolution; // Bitset representing the best solution
+    private BitSolution currentSolution; // Bitset representing the current solution
+    private BitSolution startSolution; // Starting solution given by the caller, or null for the default one
+    private EliteSet elitePool; // Pool receiving the local optimum of every run, or null
+    private SolverControl control; // Deadline, cancellation and progress listener of the current run
+    private RandomGenerator rand; // Random number generator
+    private Neighbourhood sampledSwaps; // Sampled swap neighbourhood offered to the drivers, created on first use
+    private double bestMoveDelta; // Delta of the move returned by the last call to findBestMove()
 
     /**
      * Constructor for the Swap class.
@@ -25,111 +30,89 @@ public class Swap {
      * @param container The data container containing warehouses and clients.
      */
     public Swap(DataContainer container) {
+        this(container, new Random());
+    }
+
+    /**
+     * Constructor for the Swap class with a given random number generator.
+     * Runs with the same generator state are reproducible.
+     *
+     * @param container The data container containing warehouses and clients.
+     * @param rand The random number generator used for the initial solution and the neighbours.
+     */
+    public Swap(DataContainer container, RandomGenerator rand) {
         this.container = container;
-        this.warehouseList = this.container.getWarehouses(); // Get warehouses from data container
-        this.clientList = this.container.getClients(); // Get clients from data container
+        this.costMatrix = this.container.getCostMatrix(); // Get cost matrix from data container
+        this.evaluator = new DeltaEvaluator(this.costMatrix); // Create the incremental evaluator
+        this.evaluator.setPreferenceIndex(this.container.getPreferenceIndex()); // Walk clients' warehouses by cost
         this.bestSolutionCost = 0; // Initialize best solution cost
-        this.rand = new Random(); // Initialize random number generator
-        this.bestSolution = new ArrayList<>(); // Initialize best solution list
-        this.currentSolution = new ArrayList<>(); // Initialize current solution list
+        this.rand = rand; // Initialize random number generator
+        this.bestSolution = new BitSolution(this.costMatrix.getNumWarehouses()); // Initialize best solution
+        this.currentSolution = new BitSolution(this.costMatrix.getNumWarehouses()); // Initialize current solution
+        this.control = new SolverControl();
     }
 
     /**
-     * Initializes the initial solution by randomly opening a subset of warehouses.
-     * Calculates the initial solution cost and updates the best solution.
+     * Setter for the starting solution of the local search, e.g. one built by GreedyAdd.
+     * When set, it replaces the default initial solution.
+     *
+     * @param startSolution The starting solution, or null to use the default initial solution.
      */
-    private void getInitialSolution() {
-        int max = warehouseList.size();
-        int min = 1;
-        int range = max - min + 1;
-        int numOpenWarehouses = this.rand.nextInt(range) + min;
-        List<Boolean> current = new ArrayList<>();
-
-        // Initialize lists of open and closed facilities
-        for (int i = 0; i < warehouseList.size(); i++) {
-            current.add(false);
-        }
-
-        // Open random warehouses
-        for (int i = 0; i < numOpenWarehouses; i++) {
-            int randIndex = this.rand.nextInt(current.size());
-            current.set(randIndex, true);
-        }
-
-        // Set current solution and calculate initial solution cost
-        this.currentSolution = current;
-        this.bestSolutionCost = calculateSolutionCost(current);
+    public void setStartSolution(BitSolution startSolution) {
+        this.startSolution = startSolution;
     }
 
     /**
-     * Calculates the current solution cost.
-     * This includes the fixed costs of open warehouses and allocation costs to clients.
+     * Setter for the cache of neighbour costs consulted by the local search. There is none by default: the
+     * neighbours are scored with O(clients) deltas and rarely repeat, so a cache only pays off on small instances
+     * whose searches revisit the same solutions.
      *
-     * @param solution The solution to calculate the cost for.
-     * @return Total cost of the current solution.
+     * @param cache The evaluation cache, e.g. new EvaluationCache(numWarehouses, EvaluationCache.DEFAULT_MAX_BYTES),
+     *              or null for none.
      */
-    private float calculateSolutionCost(List<Boolean> solution) {
-        float totalCost = 0;
-
-        // Calculate fixed costs of open warehouses
-        for (int i = 0; i < solution.size(); i++) {
-            if (solution.get(i)) {
-                totalCost += warehouseList.get(i).getFixedCost();
-            }
-        }
-
-        // Calculate allocation costs of clients to open warehouses
-        for (Client client : clientList) {
-            float minAllocCost = Float.MAX_VALUE;
-            for (int i = 0; i < solution.size(); i++) {
-                if (solution.get(i)) {
-                    minAllocCost = Math.min(minAllocCost, client.getAllocCosts().get(i));
-                }
-            }
-            totalCost += minAllocCost;
-        }
-
-        return totalCost;
+    public void setEvaluationCache(EvaluationCache cache) {
+        this.evaluator.setCache(cache);
     }
 
     /**
-     * Generates neighboring solutions by swapping open and closed warehouses.
+     * Setter for the elite pool offered the final solution of every call to useSwap().
      *
-     * @param maxNeighbours Maximum number of neighboring solutions to generate.
-     * @return List of neighboring solutions.
+     * @param elitePool The elite pool, or null to keep no pool.
      */
-    private List<List<Boolean>> generateNeighbours(int maxNeighbours) {
-        List<List<Boolean>> neighbours = new ArrayList<>();
-        List<Integer> openIndices = new ArrayList<>();
-        List<Integer> closedIndices = new ArrayList<>();
-
-        // Populate lists of open and closed indices
-        for (int i = 0; i < currentSolution.size(); i++) {
-            if (currentSolution.get(i)) {
-                openIndices.add(i);
-            } else {
-                closedIndices.add(i);
-            }
-        }
-
-        // Generate neighbors up to the maximum allowed or until all combinations are exhausted
-        for (int i = 0; i < Math.min(maxNeighbours, openIndices.size() * closedIndices.size()); i++) {
-            // Choose random indices of open and closed warehouses
-            int openIndex = openIndices.get(rand.nextInt(openIndices.size()));
-            int closedIndex = closedIndices.get(rand.nextInt(closedIndices.size()));
-
+    public void setElitePool(EliteSet elitePool) {
+        this.elitePool = elitePool;
+    }
 
-            List<Boolean> neighbourSolution = new ArrayList<>(this.currentSolution);
+    /**
+     * Initializes the initial solution by randomly opening a subset of warehouses.
+     * Calculates the initial solution cost and updates the best solution.
+     */
+    private void getInitialSolution() {
+        // Start from the given solution, if any
+        if (this.startSolution != null) {
+            this.currentSolution = this.startSolution.copy();
+            this.evaluator.load(this.currentSolution);
+            this.bestSolutionCost = this.evaluator.getCost();
+            return;
+        }
 
-            // Swap values at the chosen indices
-            neighbourSolution.set(openIndex, false);
-            neighbourSolution.set(closedIndex, true);
+        int max = costMatrix.getNumWarehouses();
+        int min = 1;
+        int range = max - min + 1;
+        int numOpenWarehouses = this.rand.nextInt(range) + min;
+        // Initialize the solution with every facility closed
+        BitSolution current = new BitSolution(costMatrix.getNumWarehouses());
 
-            // Add the neighbor solution to the list of neighbors
-            neighbours.add(neighbourSolution);
+        // Open random warehouses
+        for (int i = 0; i < numOpenWarehouses; i++) {
+            int randIndex = this.rand.nextInt(current.size());
+            current.set(randIndex);
         }
 
-        return neighbours;
+        // Set current solution and calculate initial solution cost
+        this.currentSolution = current;
+        this.evaluator.load(current);
+        this.bestSolutionCost = this.evaluator.getCost();
     }
 
     /**
@@ -141,19 +124,32 @@ public class Swap {
     private void localSearch(int maxIterationsWOI) {
         boolean improvement = true;
         int iterationsWOI = 0;
+        long evaluated = 0;
+        // Up to 10 random swap moves are drawn around the current solution on each iteration
+        Neighbourhood neighbourhood = new SwapNeighbourhood(costMatrix.getNumWarehouses(), this.rand, 10);
 
-        while (improvement && iterationsWOI < maxIterationsWOI) {
+        while (improvement && iterationsWOI < maxIterationsWOI && !this.control.shouldStop()) {
             improvement = false;
-            List<List<Boolean>> neighbours = generateNeighbours(10);
+            neighbourhood.reset(this.currentSolution);
+
+            // Iterate over each neighbor move
+            while (neighbourhood.hasNext()) {
+                long move = neighbourhood.next();
+                // Skip moves invalidated by a move accepted earlier in this sweep
+                if (!this.evaluator.isValid(move)) {
+                    continue;
+                }
 
-            // Iterate over each neighbor solution
-            for (List<Boolean> neighbour : neighbours) {
-                float neighbourCost = calculateSolutionCost(neighbour);
+                double neighbourCost = this.evaluator.getCost() + this.evaluator.delta(move);
+                evaluated++;
                 if (neighbourCost < this.bestSolutionCost) {
-                    this.bestSolutionCost = neighbourCost; // Update best solution cost
+                    this.evaluator.apply(move); // Apply the move
+                    this.currentSolution.clear(Move.out(move));
+                    this.currentSolution.set(Move.in(move));
+                    this.bestSolutionCost = this.evaluator.getCost(); // Update best solution cost
+                    this.control.reportImprovement(this.bestSolutionCost, evaluated);
                     iterationsWOI = 0;
                     improvement = true;
-                    this.currentSolution = new ArrayList<>(neighbour);
                 } else {
                     iterationsWOI++;
                 }
@@ -172,14 +168,81 @@ public class Swap {
 
         getInitialSolution(); // Initialize the initial solution
         System.out.println("Initial solution cost: " + this.bestSolutionCost);
+        this.control.reportImprovement(this.bestSolutionCost, 0);
         localSearch(100); // Perform local search with a limit of 10 iterations without improvement
+        this.bestSolution.copyFrom(this.currentSolution);
+        if (this.elitePool != null) {
+            this.elitePool.offer(this.bestSolution, this.bestSolutionCost);
+        }
 
         long end = System.nanoTime();
         long elapsedTime = end - start;
         double elapsedTimeInSeconds = elapsedTime / 1_000_000_000.0;
+        if (this.evaluator.getCache() != null) {
+            System.out.println("Evaluation cache: " + this.evaluator.getCache());
+        }
         System.out.println("Best Solution Found: " + this.bestSolutionCost);
         System.out.println("Time elapsed: " + elapsedTimeInSeconds + " seconds");
 
         return new AlgorithmResult(this.bestSolutionCost, elapsedTimeInSeconds); // Return the result
     }
+
+    /**
+     * Executes the swap algorithm under a control, stopping early at its deadline or when it is cancelled.
+     *
+     * @param control Deadline, cancellation flag and progress listener of the run.
+     * @return AlgorithmResult containing the best solution cost and execution time.
+     */
+    @Override
+    public AlgorithmResult solve(SolverControl control) {
+        return AnytimeSolver.runUnder(control, c -> this.control = c, this::useSwap);
+    }
+
+    /**
+     * Getter for the best solution found by the last call to useSwap().
+     *
+     * @return Bitset of the open warehouses of the best solution.
+     */
+    @Override
+    public BitSolution getBestSolution() {
+        return bestSolution;
+    }
+
+    @Override
+    public String getNeighbourhoodName() {
+        return "sampled swap";
+    }
+
+    @Override
+    public long findBestMove(DeltaEvaluator evaluator) {
+        if (this.sampledSwaps == null) {
+            this.sampledSwaps = new SwapNeighbourhood(costMatrix.getNumWarehouses(), this.rand, 10);
+        }
+        this.bestMoveDelta = Double.POSITIVE_INFINITY;
+        long bestMove = -1;
+        this.sampledSwaps.reset(evaluator.getSolution());
+        while (this.sampledSwaps.hasNext()) {
+            long move = this.sampledSwaps.next();
+            double delta = evaluator.delta(move);
+            if (delta < this.bestMoveDelta) {
+                this.bestMoveDelta = delta;
+                bestMove = move;
+            }
+        }
+        return bestMove;
+    }
+
+    @Override
+    public double getBestDelta() {
+        return this.bestMoveDelta;
+    }
+
+    /**
+     * Getter for the evaluation cache, whose counters show how many neighbour evaluations it saved.
+     *
+     * @return The evaluation cache of the algorithm, or null if none was set.
+     */
+    public EvaluationCache getEvaluationCache() {
+        return this.evaluator.getCache();
+    }
 }
@@ -0,0 +1,85 @@
+package modules;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * SwapNeighbourhood Class
+ * Neighbourhood of the moves that close an open warehouse and open a closed one.
+ * It either enumerates every (open, closed) pair or draws a fixed number of random pairs, as the Swap algorithms do.
+ * The open and closed indices of the current solution are kept in preallocated arrays, so a sweep does not allocate.
+ */
+public class SwapNeighbourhood implements Neighbourhood {
+
+    private final int[] openIndices; // Open warehouses of the solution at the start of the sweep
+    private final int[] closedIndices; // Closed warehouses of the solution at the start of the sweep
+    private final RandomGenerator rand; // Random number generator, or null for a full enumeration
+    private final int maxNeighbours; // Number of random moves per sweep
+    private int numOpen; // Number of entries of openIndices
+    private int numClosed; // Number of entries of closedIndices
+    private long remaining; // Number of moves left in the sweep
+    private int openCursor; // Position in openIndices of the full enumeration
+    private int closedCursor; // Position in closedIndices of the full enumeration
+
+    /**
+     * Constructor for a SwapNeighbourhood that enumerates every (open, closed) pair.
+     *
+     * @param size Number of warehouses.
+     */
+    public SwapNeighbourhood(int size) {
+        this(size, null, 0);
+    }
+
+    /**
+     * Constructor for a SwapNeighbourhood that draws random (open, closed) pairs.
+     *
+     * @param size Number of warehouses.
+     * @param rand Random number generator used to draw the moves.
+     * @param maxNeighbours Maximum number of moves drawn per sweep.
+     */
+    public SwapNeighbourhood(int size, RandomGenerator rand, int maxNeighbours) {
+        this.openIndices = new int[size];
+        this.closedIndices = new int[size];
+        this.rand = rand;
+        this.maxNeighbours = maxNeighbours;
+    }
+
+    @Override
+    public void reset(BitSolution solution) {
+        // Populate the open and closed indices
+        numOpen = 0;
+        numClosed = 0;
+        for (int i = 0; i < solution.size(); i++) {
+            if (solution.get(i)) {
+                openIndices[numOpen++] = i;
+            } else {
+                closedIndices[numClosed++] = i;
+            }
+        }
+
+        long pairs = (long) numOpen * numClosed;
+        remaining = (rand == null) ? pairs : Math.min(maxNeighbours, pairs);
+        openCursor = 0;
+        closedCursor = 0;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return remaining > 0;
+    }
+
+    @Override
+    public long next() {
+        remaining--;
+        if (rand != null) {
+            // Choose random indices of open and closed warehouses
+            return Move.swap(openIndices[rand.nextInt(numOpen)], closedIndices[rand.nextInt(numClosed)]);
+        }
+
+        long move = Move.swap(openIndices[openCursor], closedIndices[closedCursor]);
+        if (++closedCursor == numClosed) {
+            closedCursor = 0;
+            openCursor++;
+        }
+        return move;
+    }
+}
@@ -1,20 +1,24 @@
 package modules;
 
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Represents an algorithm for warehouse switching optimization.
  * Uses local search to find the best solution for opening warehouses.
+ * As a NeighbourhoodProvider it offers the flip neighbourhood in both directions (open or close one warehouse).
  */
-public class Switch {
+public class Switch implements NeighbourhoodProvider, AnytimeSolver {
 
     private DataContainer container; // Data container holding warehouses and clients
-    private List<Warehouse> warehouseList; // List of warehouses
-    private List<Client> clientList; // List of clients
-    private float bestSolutionCost; // Cost of the best solution found
-    private List<Boolean> bestSolution; // Boolean list representing the best solution
-    private List<Boolean> currentSolution; // Boolean list representing the current solution
+    private CostMatrix costMatrix; // Primitive cost matrix of the instance
+    private DeltaEvaluator evaluator; // Incremental evaluator of the current solution
+    private double bestSolutionCost; // Cost of the best solution found
+    private BitSolution bestSolution; // Bitset representing the best solution
+    private BitSolution currentSolution; // Bitset representing the current solution
+    private BitSolution startSolution; // Starting solution given by the caller, or null for the default one
+    private EliteSet elitePool; // Pool receiving the local optimum of every run, or null
+    private SolverControl control; // Deadline, cancellation and progress listener of the current run
+    private Neighbourhood flips; // Flip neighbourhood offered to the drivers, created on first use
+    private double bestMoveDelta; // Delta of the move returned by the last call to findBestMove()
 
     /**
      * Constructor to initialize the Switch algorithm with a data container.
@@ -23,11 +27,44 @@ public class Switch {
      */
     public Switch(DataContainer container) {
         this.container = container;
-        this.warehouseList = this.container.getWarehouses(); // Get warehouses from data container
-        this.clientList = this.container.getClients(); // Get clients from data container
+        this.costMatrix = this.container.getCostMatrix(); // Get cost matrix from data container
+        this.evaluator = new DeltaEvaluator(this.costMatrix); // Create the incremental evaluator
+        this.evaluator.setPreferenceIndex(this.container.getPreferenceIndex()); // Walk clients' warehouses by cost
         this.bestSolutionCost = 0; // Initialize best solution cost
-        this.bestSolution = new ArrayList<>(); // Initialize best solution list
-        this.currentSolution = new ArrayList<>(); // Initialize current solution list
+        this.bestSolution = new BitSolution(this.costMatrix.getNumWarehouses()); // Initialize best solution
+        this.currentSolution = new BitSolution(this.costMatrix.getNumWarehouses()); // Initialize current solution
+        this.control = new SolverControl();
+    }
+
+    /**
+     * Setter for the starting solution of the local search, e.g. one built by GreedyAdd.
+     * When set, it replaces the default initial solution.
+     *
+     * @param startSolution The starting solution, or null to use the default initial solution.
+     */
+    public void setStartSolution(BitSolution startSolution) {
+        this.startSolution = startSolution;
+    }
+
+    /**
+     * Setter for the cache of neighbour costs consulted by the local search. There is none by default: the
+     * neighbours are scored with O(clients) deltas and rarely repeat, so a cache only pays off on small instances
+     * whose searches revisit the same solutions.
+     *
+     * @param cache The evaluation cache, e.g. new EvaluationCache(numWarehouses, EvaluationCache.DEFAULT_MAX_BYTES),
+     *              or null for none.
+     */
+    public void setEvaluationCache(EvaluationCache cache) {
+        this.evaluator.setCache(cache);
+    }
+
+    /**
+     * Setter for the elite pool offered the local optimum of every call to useSwitch().
+     *
+     * @param elitePool The elite pool, or null to keep no pool.
+     */
+    public void setElitePool(EliteSet elitePool) {
+        this.elitePool = elitePool;
     }
 
     /**
@@ -35,44 +72,30 @@ public class Switch {
      * Sets the initial solution as the best solution.
      */
     private void getInitialSolution() {
-        List<Boolean> current = new ArrayList<>();
-
-        // Initialize list of warehouse states
-        for (int i = 0; i < warehouseList.size(); i++) {
-            current.add(false); // Initially all warehouses are closed
+        // Start from the given solution, if any
+        if (this.startSolution != null) {
+            this.currentSolution = this.startSolution.copy();
+            this.bestSolution = this.currentSolution.copy();
+            this.evaluator.load(this.currentSolution);
+            this.bestSolutionCost = this.evaluator.getCost();
+            return;
         }
 
+        // Initially all warehouses are closed
+        BitSolution current = new BitSolution(costMatrix.getNumWarehouses());
+
         // Open warehouses with even indices
-        for (int i = 0; i < warehouseList.size(); i++) {
+        for (int i = 0; i < costMatrix.getNumWarehouses(); i++) {
             if (i % 2 == 0) {
-                current.set(i, true); // Set warehouse as open
+                current.set(i); // Set warehouse as open
             }
         }
 
         // Set initial solution and best solution
         this.currentSolution = current;
-        this.bestSolution = current;
-        this.bestSolutionCost = calculateSolutionCost(current);
-    }
-
-    /**
-     * Generates neighboring solutions by toggling the state of each warehouse.
-     *
-     * @return List of neighboring solutions.
-     */
-    private List<List<Boolean>> generateNeighbours() {
-        List<List<Boolean>> neighbours = new ArrayList<>();
-        for (int i = 0; i < warehouseList.size(); i++) {
-            List<Boolean> neighbourSolution = new ArrayList<>(this.currentSolution);
-            if (neighbourSolution.get(i)) {
-                neighbourSolution.set(i, false); // Toggle warehouse state
-                // Check if at least one warehouse remains open
-                if (neighbourSolution.contains(true)) {
-                    neighbours.add(neighbourSolution);
-                }
-            }
-        }
-        return neighbours;
+        this.bestSolution = current.copy();
+        this.evaluator.load(current);
+        this.bestSolutionCost = this.evaluator.getCost();
     }
 
     /**
@@ -81,21 +104,34 @@ public class Switch {
      */
     private void localSearch() {
         boolean improvement = true;
+        // Each neighbour closes one open warehouse
+        Neighbourhood neighbourhood = new FlipNeighbourhood(costMatrix.getNumWarehouses(), true);
+        long sweeps = 0;
 
-        while (improvement) {
+        while (improvement && !this.control.shouldStop()) {
             improvement = false;
-            List<List<Boolean>> neighbours = generateNeighbours();
+            neighbourhood.reset(this.currentSolution);
+            long bestMove = 0;
 
-            // Iterate over each neighboring solution
-            for (List<Boolean> neighbour : neighbours) {
-                float neighbourCost = calculateSolutionCost(neighbour);
+            // Iterate over each neighboring move (closing the last open warehouse costs infinity)
+            while (neighbourhood.hasNext()) {
+                long move = neighbourhood.next();
+                double neighbourCost = this.evaluator.getCost() + this.evaluator.delta(move);
                 if (neighbourCost < this.bestSolutionCost) {
                     this.bestSolutionCost = neighbourCost; // Update best solution cost
-                    this.bestSolution = neighbour; // Update best solution
+                    bestMove = move; // Update best move
                     improvement = true; // Mark improvement
                 }
             }
-            this.currentSolution = this.bestSolution; // Set current solution to best solution
+
+            // Set current solution to best solution
+            if (improvement) {
+                this.evaluator.apply(bestMove);
+                this.currentSolution.clear(Move.warehouse(bestMove));
+                this.bestSolution.copyFrom(this.currentSolution);
+                this.bestSolutionCost = this.evaluator.getCost();
+                this.control.reportImprovement(this.bestSolutionCost, ++sweeps);
+            }
         }
     }
 
@@ -109,11 +145,18 @@ public class Switch {
 
         getInitialSolution(); // Initialize the current solution
         System.out.println("Initial solution cost: " + this.bestSolutionCost);
+        this.control.reportImprovement(this.bestSolutionCost, 0);
         localSearch(); // Perform local search to find the best solution
+        if (this.elitePool != null) {
+            this.elitePool.offer(this.bestSolution, this.bestSolutionCost);
+        }
 
         long end = System.nanoTime();
         long elapsedTime = end - start;
         double elapsedTimeInSeconds = elapsedTime / 1_000_000_000.0;
+        if (this.evaluator.getCache() != null) {
+            System.out.println("Evaluation cache: " + this.evaluator.getCache());
+        }
         System.out.println("Best Solution Found: " + this.bestSolutionCost);
         System.out.println("Time elapsed: " + elapsedTimeInSeconds + " seconds");
 
@@ -121,33 +164,61 @@ public class Switch {
     }
 
     /**
-     * Calculates the cost of a given solution.
-     * Includes fixed costs of open warehouses and allocation costs to clients.
+     * Executes the switch algorithm under a control, stopping early at its deadline or when it is cancelled.
      *
-     * @param solution The solution to calculate the cost for.
-     * @return Total cost of the solution.
+     * @param control Deadline, cancellation flag and progress listener of the run.
+     * @return AlgorithmResult containing the best solution cost and execution time.
      */
-    private float calculateSolutionCost(List<Boolean> solution) {
-        float totalCost = 0;
+    @Override
+    public AlgorithmResult solve(SolverControl control) {
+        return AnytimeSolver.runUnder(control, c -> this.control = c, this::useSwitch);
+    }
 
-        // Calculate fixed costs of open warehouses
-        for (int i = 0; i < solution.size(); i++) {
-            if (solution.get(i)) {
-                totalCost += warehouseList.get(i).getFixedCost();
-            }
-        }
+    /**
+     * Getter for the best solution found by the last call to useSwitch().
+     *
+     * @return Bitset of the open warehouses of the best solution.
+     */
+    @Override
+    public BitSolution getBestSolution() {
+        return bestSolution;
+    }
 
-        // Calculate allocation costs of clients to open warehouses
-        for (Client client : clientList) {
-            float minAllocCost = Float.MAX_VALUE;
-            for (int i = 0; i < solution.size(); i++) {
-                if (solution.get(i)) {
-                    minAllocCost = Math.min(minAllocCost, client.getAllocCosts().get(i));
-                }
+    @Override
+    public String getNeighbourhoodName() {
+        return "flip";
+    }
+
+    @Override
+    public long findBestMove(DeltaEvaluator evaluator) {
+        if (this.flips == null) {
+            this.flips = new FlipNeighbourhood(costMatrix.getNumWarehouses(), false);
+        }
+        this.bestMoveDelta = Double.POSITIVE_INFINITY;
+        long bestMove = -1;
+        this.flips.reset(evaluator.getSolution());
+        while (this.flips.hasNext()) {
+            long move = this.flips.next();
+            double delta = evaluator.delta(move); // Closing the last open warehouse costs infinity
+            if (delta < this.bestMoveDelta) {
+                this.bestMoveDelta = delta;
+                bestMove = move;
             }
-            totalCost += minAllocCost;
         }
+        return bestMove;
+    }
 
-        return totalCost; // Return the total cost of the solution
+    @Override
+    public double getBestDelta() {
+        return this.bestMoveDelta;
+    }
+
+    /**
+     * Getter for the evaluation cache, whose counters show how many neighbour evaluations it saved.
+     *
+     * @return The evaluation cache of the algorithm, or null if none was set.
+     */
+    public EvaluationCache getEvaluationCache() {
+        return this.evaluator.getCache();
     }
 }
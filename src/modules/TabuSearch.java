@@ -0,0 +1,331 @@
+package modules;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+
+/**
+ * TabuSearch Class
+ * Tabu search over the flip neighbourhood used by Switch and the swap neighbourhood used by Swap.
+ * Every iteration scores the whole of both neighbourhoods incrementally: closing flips in O(1) from the
+ * per-warehouse reassignment losses, opening flips with DeltaEvaluator.openDelta() and swaps with FastInterchange.
+ * The best allowed move is applied even if it worsens the solution. A move is not allowed when it touches a
+ * warehouse changed in the last tenure iterations, or when it leads to a recently visited solution, unless it
+ * improves on the best solution found (aspiration). Visited solutions are remembered by their Zobrist hash (the
+ * XOR of a random key per open warehouse, updated in O(1) per move) in a direct-mapped table of longs.
+ * Under a SolverControl the search also stops at the first iteration past the deadline or after a cancellation.
+ */
+public class TabuSearch implements AnytimeSolver {
+
+    public static final int DEFAULT_MAX_ITERATIONS = 2000; // Default iteration limit
+    public static final int DEFAULT_MAX_ITERATIONS_WOI = 500; // Default iteration limit without improvement
+
+    private static final int MEMORY_BITS = 16; // The visited-solution table has 2^MEMORY_BITS slots
+    private static final double MIN_IMPROVEMENT = 1e-6; // Smallest improvement recorded as a new best solution
+
+    private DataContainer container; // Data container holding warehouses and clients
+    private CostMatrix costMatrix; // Primitive cost matrix of the instance
+    private DeltaEvaluator evaluator; // Incremental evaluator of the current solution
+    private FastInterchange interchange; // Scorer of the swap neighbourhood
+    private double bestSolutionCost; // Cost of the best solution found
+    private BitSolution bestSolution; // Bitset representing the best solution
+    private BitSolution startSolution; // Starting solution given by the caller, or null for the default one
+    private SolverControl control; // Deadline, cancellation and progress listener of the current run
+    private int tenure; // Iterations during which a changed warehouse cannot be changed again
+    private int maxIterations; // Iteration limit
+    private int maxIterationsWOI; // Iteration limit without improvement
+    private int iteration; // Current iteration
+    private int[] tabuUntil; // Iteration until which each warehouse is tabu
+    private long[] zobristKeys; // Random hash key of each warehouse
+    private long currentHash; // Zobrist hash of the current solution
+    private long[] visited; // Direct-mapped table of the hashes of the visited solutions
+    private double[] loss; // Reassignment loss of the clients of each open warehouse if it closes
+    private long tabuRejections; // Moves rejected by the tenure in the last run
+    private long cycleRejections; // Moves rejected by the visited-solution table in the last run
+    private final FastInterchange.MoveFilter allowedSwap; // Tabu filter of the swap moves
+
+    /**
+     * Constructor for the TabuSearch class.
+     *
+     * @param container The data container containing warehouses and clients.
+     */
+    public TabuSearch(DataContainer container) {
+        this(container, new Random());
+    }
+
+    /**
+     * Constructor for the TabuSearch class with a given random number generator.
+     *
+     * @param container The data container containing warehouses and clients.
+     * @param rand The random number generator used to draw the hash keys of the warehouses.
+     */
+    public TabuSearch(DataContainer container, RandomGenerator rand) {
+        this.container = container;
+        this.costMatrix = this.container.getCostMatrix(); // Get cost matrix from data container
+        this.evaluator = new DeltaEvaluator(this.costMatrix); // Create the incremental evaluator
+        this.evaluator.setPreferenceIndex(this.container.getPreferenceIndex()); // Walk clients' warehouses by cost
+        this.interchange = new FastInterchange(this.evaluator, this.costMatrix);
+        int numWarehouses = this.costMatrix.getNumWarehouses();
+        this.bestSolution = new BitSolution(numWarehouses);
+        this.tenure = Math.max(2, Math.min(10, numWarehouses / 4));
+        this.maxIterations = DEFAULT_MAX_ITERATIONS;
+        this.maxIterationsWOI = DEFAULT_MAX_ITERATIONS_WOI;
+        this.tabuUntil = new int[numWarehouses];
+        this.zobristKeys = new long[numWarehouses];
+        for (int j = 0; j < numWarehouses; j++) {
+            this.zobristKeys[j] = rand.nextLong();
+        }
+        this.visited = new long[1 << MEMORY_BITS];
+        this.loss = new double[numWarehouses];
+        this.allowedSwap = (move, delta) -> isAllowed(move, delta, Move.out(move), Move.in(move));
+        this.control = new SolverControl();
+    }
+
+    /**
+     * Setter for the tabu tenure.
+     *
+     * @param tenure Iterations during which a changed warehouse cannot be changed again.
+     */
+    public void setTenure(int tenure) {
+        this.tenure = tenure;
+    }
+
+    /**
+     * Setter for the iteration limits.
+     *
+     * @param maxIterations Iteration limit.
+     * @param maxIterationsWOI Iteration limit without improvement of the best solution.
+     */
+    public void setMaxIterations(int maxIterations, int maxIterationsWOI) {
+        this.maxIterations = maxIterations;
+        this.maxIterationsWOI = maxIterationsWOI;
+    }
+
+    /**
+     * Setter for the candidate list size. Openings are then scored only over the clients that have the opened
+     * warehouse among their k nearest warehouses, which speeds up the sweeps at some cost in quality.
+     *
+     * @param k Number of nearest warehouses of each client, or 0 to score openings over every client.
+     */
+    public void setCandidateListSize(int k) {
+        this.evaluator.setCandidateLists(k > 0 ? new CandidateLists(this.container.getPreferenceIndex(), k) : null);
+    }
+
+    /**
+     * Setter for the starting solution, e.g. one built by GreedyAdd.
+     * By default the search starts from the lazy ADD greedy solution.
+     *
+     * @param startSolution The starting solution, or null to use the default one.
+     */
+    public void setStartSolution(BitSolution startSolution) {
+        this.startSolution = startSolution;
+    }
+
+    /**
+     * Loads the starting solution and resets the tabu memory.
+     */
+    private void getInitialSolution() {
+        BitSolution current = this.startSolution != null
+                ? this.startSolution.copy() : new GreedyAdd(this.container).buildSolution().copy();
+        if (current.cardinality() == 0) {
+            current.set(0); // A solution needs at least one open warehouse
+        }
+        this.evaluator.load(current);
+
+        Arrays.fill(this.tabuUntil, 0);
+        Arrays.fill(this.visited, 0);
+        this.currentHash = 0;
+        for (int j = current.nextSetBit(0); j >= 0; j = current.nextSetBit(j + 1)) {
+            this.currentHash ^= this.zobristKeys[j];
+        }
+        remember(this.currentHash);
+
+        this.bestSolution.copyFrom(current);
+        this.bestSolutionCost = this.evaluator.getCost();
+    }
+
+    /**
+     * Checks whether a move may be applied in the current iteration.
+     *
+     * @param move The move (see Move).
+     * @param delta New cost minus current cost of the move.
+     * @param first First warehouse changed by the move.
+     * @param second Second warehouse changed by the move, or the first one for a flip.
+     * @return true if the move is not tabu, or if it improves on the best solution.
+     */
+    private boolean isAllowed(long move, double delta, int first, int second) {
+        if (this.evaluator.getCost() + delta < this.bestSolutionCost - MIN_IMPROVEMENT) {
+            return true; // Aspiration
+        }
+        if (this.tabuUntil[first] > this.iteration || this.tabuUntil[second] > this.iteration) {
+            this.tabuRejections++;
+            return false;
+        }
+        long hash = this.currentHash ^ this.zobristKeys[first];
+        if (second != first) {
+            hash ^= this.zobristKeys[second];
+        }
+        if (wasVisited(hash)) {
+            this.cycleRejections++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records the hash of a visited solution, replacing whatever hash shared its slot.
+     *
+     * @param hash Zobrist hash of the solution.
+     */
+    private void remember(long hash) {
+        this.visited[slot(hash)] = hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Checks whether a solution was recently visited.
+     *
+     * @param hash Zobrist hash of the solution.
+     * @return true if the hash is in the table.
+     */
+    private boolean wasVisited(long hash) {
+        return this.visited[slot(hash)] == (hash == 0 ? 1 : hash);
+    }
+
+    /**
+     * Computes the slot of a hash in the visited-solution table.
+     *
+     * @param hash Zobrist hash of a solution.
+     * @return Index of the slot.
+     */
+    private int slot(long hash) {
+        return (int) ((hash * 0x9E3779B97F4A7C15L) >>> (64 - MEMORY_BITS));
+    }
+
+    /**
+     * Finds the best allowed flip move of the current solution.
+     *
+     * @param best Array of one element holding the delta to beat, updated with the delta of the returned move.
+     * @return The best allowed flip move, or -1 if none beats the given delta.
+     */
+    private long findBestFlip(double[] best) {
+        BitSolution solution = this.evaluator.getSolution();
+        int numOpen = this.evaluator.getNumOpen();
+
+        // Losses of closing each open warehouse, in one pass over the clients
+        Arrays.fill(this.loss, 0);
+        if (numOpen > 1) {
+            for (int c = 0; c < costMatrix.getNumClients(); c++) {
+                int nearest = this.evaluator.getNearest(c);
+                this.loss[nearest] += this.evaluator.getSecondCost(c) - this.evaluator.getNearestCost(c);
+            }
+        }
+
+        long bestMove = -1;
+        for (int j = 0; j < costMatrix.getNumWarehouses(); j++) {
+            double delta;
+            if (solution.get(j)) {
+                if (numOpen == 1) {
+                    continue;
+                }
+                delta = this.loss[j] - costMatrix.getFixedCost(j);
+            } else {
+                delta = this.evaluator.openDelta(j);
+            }
+            if (delta < best[0] && isAllowed(Move.flip(j), delta, j, j)) {
+                best[0] = delta;
+                bestMove = Move.flip(j);
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Runs the tabu search from the current solution.
+     */
+    private void search() {
+        double[] best = new double[1];
+        int iterationsWOI = 0;
+        this.tabuRejections = 0;
+        this.cycleRejections = 0;
+
+        for (this.iteration = 1; this.iteration <= this.maxIterations && iterationsWOI < this.maxIterationsWOI
+                && !this.control.shouldStop(); this.iteration++) {
+            // Best allowed move over both neighbourhoods
+            long swap = this.interchange.findBestSwap(this.allowedSwap);
+            best[0] = swap >= 0 ? this.interchange.getBestDelta() : Double.POSITIVE_INFINITY;
+            long flip = findBestFlip(best);
+            long move = flip >= 0 ? flip : swap;
+            if (move < 0) {
+                break; // Every move is tabu
+            }
+
+            // Apply it and make the changed warehouses tabu
+            this.evaluator.apply(move);
+            if (Move.type(move) == Move.FLIP) {
+                this.tabuUntil[Move.warehouse(move)] = this.iteration + this.tenure;
+                this.currentHash ^= this.zobristKeys[Move.warehouse(move)];
+            } else {
+                this.tabuUntil[Move.out(move)] = this.iteration + this.tenure;
+                this.tabuUntil[Move.in(move)] = this.iteration + this.tenure;
+                this.currentHash ^= this.zobristKeys[Move.out(move)] ^ this.zobristKeys[Move.in(move)];
+            }
+            remember(this.currentHash);
+
+            if (this.evaluator.getCost() < this.bestSolutionCost - MIN_IMPROVEMENT) {
+                this.bestSolutionCost = this.evaluator.getCost();
+                this.bestSolution.copyFrom(this.evaluator.getSolution());
+                this.control.reportImprovement(this.bestSolutionCost, this.iteration);
+                iterationsWOI = 0;
+            } else {
+                iterationsWOI++;
+            }
+        }
+    }
+
+    /**
+     * Executes the tabu search.
+     * Prints the initial and best solution costs, the iteration statistics and the elapsed time.
+     *
+     * @return AlgorithmResult containing the best solution cost and elapsed time.
+     */
+    public AlgorithmResult useTabuSearch() {
+        long start = System.nanoTime();
+
+        getInitialSolution();
+        System.out.println("Initial solution cost: " + this.bestSolutionCost);
+        this.control.reportImprovement(this.bestSolutionCost, 0);
+        search();
+        this.bestSolutionCost = this.evaluator.calculateSolutionCost(this.bestSolution);
+
+        long end = System.nanoTime();
+        long elapsedTime = end - start;
+        double elapsedTimeInSeconds = elapsedTime / 1_000_000_000.0;
+        System.out.println("Iterations: " + (this.iteration - 1) + ", tabu rejections: " + this.tabuRejections
+                + ", cycle rejections: " + this.cycleRejections);
+        System.out.println("Best Solution Found: " + this.bestSolutionCost);
+        System.out.println("Time elapsed: " + elapsedTimeInSeconds + " seconds");
+
+        return new AlgorithmResult(this.bestSolutionCost, elapsedTimeInSeconds);
+    }
+
+    /**
+     * Executes the tabu search under a control, stopping early at its deadline or when it is cancelled.
+     *
+     * @param control Deadline, cancellation flag and progress listener of the run.
+     * @return AlgorithmResult containing the best solution cost and elapsed time.
+     */
+    @Override
+    public AlgorithmResult solve(SolverControl control) {
+        return AnytimeSolver.runUnder(control, c -> this.control = c, this::useTabuSearch);
+    }
+
+    /**
+     * Getter for the best solution found by the last call to useTabuSearch().
+     *
+     * @return Bitset of the open warehouses of the best solution.
+     */
+    @Override
+    public BitSolution getBestSolution() {
+        return bestSolution;
+    }
+}
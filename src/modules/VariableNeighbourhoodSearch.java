@@ -0,0 +1,273 @@
+package modules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+
+/**
+ * VariableNeighbourhoodSearch Class
+ * Basic variable neighbourhood search with variable neighbourhood descent (VND) as its local search.
+ * The VND applies the best improving move of the first neighbourhood that has one and goes back to the first
+ * neighbourhood after every move, so it stops at a solution that is a local optimum of all of them. The default
+ * neighbourhoods are the flip neighbourhood of Switch and the full swap neighbourhood of ImprovSwap, both scored
+ * with incremental deltas on a single DeltaEvaluator.
+ * Each iteration shakes the best solution by flipping k random warehouses and descends from there. An improvement
+ * resets the shaking radius k to 1, and a failure grows it up to the maximum radius, after which it starts over.
+ * The search runs until the wall-clock time budget is used. Under a SolverControl the budget is shortened to the
+ * time left before the deadline of the control, and a cancellation stops the search after the current iteration.
+ */
+public class VariableNeighbourhoodSearch implements AnytimeSolver {
+
+    public static final double DEFAULT_TIME_BUDGET = 5.0; // Default time budget in seconds
+
+    private static final double MIN_IMPROVEMENT = 1e-6; // Smallest accepted improvement, guards against rounding cycles
+
+    private DataContainer container; // Data container holding warehouses and clients
+    private CostMatrix costMatrix; // Primitive cost matrix of the instance
+    private DeltaEvaluator evaluator; // Incremental evaluator of the current solution
+    private List<NeighbourhoodProvider> neighbourhoods; // Neighbourhoods of the descent, in order
+    private double bestSolutionCost; // Cost of the best solution found
+    private BitSolution bestSolution; // Bitset representing the best solution
+    private BitSolution startSolution; // Starting solution given by the caller, or null for the default one
+    private RandomGenerator rand; // Random number generator used by the shaking
+    private SolverControl control; // Deadline, cancellation and progress listener of the current run
+    private double timeBudget; // Time budget in seconds
+    private int maxRadius; // Largest number of warehouses flipped by the shaking
+    private long iterations; // Shaking iterations of the last run
+    private long improvements; // Iterations that improved the best solution in the last run
+    private long[] movesApplied; // Descent moves applied per neighbourhood in the last run
+
+    /**
+     * Constructor for the VariableNeighbourhoodSearch class.
+     *
+     * @param container The data container containing warehouses and clients.
+     */
+    public VariableNeighbourhoodSearch(DataContainer container) {
+        this(container, new Random());
+    }
+
+    /**
+     * Constructor for the VariableNeighbourhoodSearch class with a given random number generator.
+     *
+     * @param container The data container containing warehouses and clients.
+     * @param rand The random number generator used by the shaking.
+     */
+    public VariableNeighbourhoodSearch(DataContainer container, RandomGenerator rand) {
+        this.container = container;
+        this.costMatrix = this.container.getCostMatrix(); // Get cost matrix from data container
+        this.evaluator = new DeltaEvaluator(this.costMatrix); // Create the incremental evaluator
+        this.evaluator.setPreferenceIndex(this.container.getPreferenceIndex()); // Walk clients' warehouses by cost
+        this.rand = rand;
+        this.timeBudget = DEFAULT_TIME_BUDGET;
+        int numWarehouses = this.costMatrix.getNumWarehouses();
+        this.maxRadius = Math.max(2, Math.min(20, numWarehouses / 10));
+        this.bestSolution = new BitSolution(numWarehouses);
+        this.neighbourhoods = new ArrayList<>();
+        this.neighbourhoods.add(new Switch(container));
+        this.neighbourhoods.add(new ImprovSwap(container, rand));
+        this.control = new SolverControl();
+    }
+
+    /**
+     * Setter for the neighbourhoods of the descent, e.g. to use the sampled swaps of Swap instead of the full
+     * swap neighbourhood. Cheaper neighbourhoods should come first.
+     *
+     * @param neighbourhoods The neighbourhoods, in the order in which the descent tries them.
+     */
+    public void setNeighbourhoods(List<NeighbourhoodProvider> neighbourhoods) {
+        if (neighbourhoods.isEmpty()) {
+            throw new IllegalArgumentException("At least one neighbourhood is needed.");
+        }
+        this.neighbourhoods = new ArrayList<>(neighbourhoods);
+    }
+
+    /**
+     * Setter for the wall-clock time budget.
+     *
+     * @param timeBudget Time budget in seconds.
+     */
+    public void setTimeBudget(double timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * Setter for the largest shaking radius.
+     *
+     * @param maxRadius Largest number of warehouses flipped by the shaking.
+     */
+    public void setMaxRadius(int maxRadius) {
+        this.maxRadius = maxRadius;
+    }
+
+    /**
+     * Setter for the starting solution, e.g. one built by GreedyAdd.
+     * By default the search starts from the lazy ADD greedy solution.
+     *
+     * @param startSolution The starting solution, or null to use the default one.
+     */
+    public void setStartSolution(BitSolution startSolution) {
+        this.startSolution = startSolution;
+    }
+
+    /**
+     * Loads the starting solution into the evaluator.
+     */
+    private void getInitialSolution() {
+        BitSolution current = this.startSolution != null
+                ? this.startSolution.copy() : new GreedyAdd(this.container).buildSolution().copy();
+        if (current.cardinality() == 0) {
+            current.set(0); // A solution needs at least one open warehouse
+        }
+        this.evaluator.load(current);
+        this.bestSolution.copyFrom(current);
+        this.bestSolutionCost = this.evaluator.getCost();
+    }
+
+    /**
+     * Descends from the loaded solution until no neighbourhood has an improving move.
+     */
+    private void variableNeighbourhoodDescent() {
+        descend(this.evaluator, this.neighbourhoods, this.movesApplied, this.control);
+    }
+
+    /**
+     * Variable neighbourhood descent: applies the best move of the first neighbourhood that has an improving one,
+     * then starts over from the first neighbourhood, until the solution is a local optimum of all of them or the
+     * control stops the descent between two moves.
+     *
+     * @param evaluator Evaluator holding the solution to improve.
+     * @param neighbourhoods The neighbourhoods, in the order in which they are tried.
+     * @param movesApplied Array counting the moves applied per neighbourhood, or null.
+     * @param control Deadline and cancellation flag of the caller.
+     */
+    static void descend(DeltaEvaluator evaluator, List<NeighbourhoodProvider> neighbourhoods, long[] movesApplied,
+                        SolverControl control) {
+        int k = 0;
+        while (k < neighbourhoods.size() && !control.shouldStop()) {
+            NeighbourhoodProvider neighbourhood = neighbourhoods.get(k);
+            long move = neighbourhood.findBestMove(evaluator);
+            if (move >= 0 && neighbourhood.getBestDelta() < -MIN_IMPROVEMENT) {
+                evaluator.apply(move);
+                if (movesApplied != null) {
+                    movesApplied[k]++;
+                }
+                k = 0; // Back to the first neighbourhood
+            } else {
+                k++;
+            }
+        }
+    }
+
+    /**
+     * Flips random distinct warehouses of the loaded solution, never closing the last open one.
+     *
+     * @param radius Number of warehouses to flip.
+     */
+    private void shake(int radius) {
+        int numWarehouses = this.costMatrix.getNumWarehouses();
+        BitSolution flipped = new BitSolution(numWarehouses);
+        int flips = Math.min(radius, numWarehouses);
+        while (flips > 0) {
+            int j = this.rand.nextInt(numWarehouses);
+            if (flipped.get(j)) {
+                continue;
+            }
+            flipped.set(j);
+            flips--;
+            if (!this.evaluator.isOpen(j) || this.evaluator.getNumOpen() > 1) {
+                this.evaluator.apply(Move.flip(j));
+            }
+        }
+    }
+
+    /**
+     * Runs the shaking and descent iterations until the time budget is used.
+     *
+     * @param deadline System.nanoTime() at which the search stops.
+     */
+    private void search(long deadline) {
+        this.iterations = 0;
+        this.improvements = 0;
+        this.movesApplied = new long[this.neighbourhoods.size()];
+
+        variableNeighbourhoodDescent();
+        if (this.evaluator.getCost() < this.bestSolutionCost) {
+            this.bestSolutionCost = this.evaluator.getCost();
+            this.bestSolution.copyFrom(this.evaluator.getSolution());
+            this.control.reportImprovement(this.bestSolutionCost, 0);
+        }
+
+        int radius = 1;
+        while (System.nanoTime() < deadline && !this.control.shouldStop()) {
+            this.evaluator.load(this.bestSolution);
+            shake(radius);
+            variableNeighbourhoodDescent();
+            this.iterations++;
+
+            if (this.evaluator.getCost() < this.bestSolutionCost - MIN_IMPROVEMENT) {
+                this.bestSolutionCost = this.evaluator.getCost();
+                this.bestSolution.copyFrom(this.evaluator.getSolution());
+                this.improvements++;
+                this.control.reportImprovement(this.bestSolutionCost, this.iterations);
+                radius = 1;
+            } else {
+                radius = radius < this.maxRadius ? radius + 1 : 1;
+            }
+        }
+    }
+
+    /**
+     * Executes the variable neighbourhood search.
+     * Prints the initial and best solution costs, the iteration statistics and the elapsed time.
+     *
+     * @return AlgorithmResult containing the best solution cost and elapsed time.
+     */
+    public AlgorithmResult useVariableNeighbourhoodSearch() {
+        long start = System.nanoTime();
+
+        getInitialSolution();
+        System.out.println("Initial solution cost: " + this.bestSolutionCost);
+        this.control.reportImprovement(this.bestSolutionCost, 0);
+        search(start + Math.min((long) (this.timeBudget * 1_000_000_000L), this.control.getRemainingNanos()));
+        this.bestSolutionCost = this.evaluator.calculateSolutionCost(this.bestSolution);
+
+        long end = System.nanoTime();
+        long elapsedTime = end - start;
+        double elapsedTimeInSeconds = elapsedTime / 1_000_000_000.0;
+        StringBuilder moves = new StringBuilder();
+        for (int k = 0; k < this.neighbourhoods.size(); k++) {
+            moves.append(k == 0 ? "" : ", ").append(this.neighbourhoods.get(k).getNeighbourhoodName())
+                    .append(' ').append(this.movesApplied[k]);
+        }
+        System.out.println("Iterations: " + this.iterations + " (" + String.format("%.1f",
+                this.iterations / elapsedTimeInSeconds) + "/sec), improvements: " + this.improvements
+                + ", descent moves: " + moves);
+        System.out.println("Best Solution Found: " + this.bestSolutionCost);
+        System.out.println("Time elapsed: " + elapsedTimeInSeconds + " seconds");
+
+        return new AlgorithmResult(this.bestSolutionCost, elapsedTimeInSeconds);
+    }
+
+    /**
+     * Executes the variable neighbourhood search under a control, within the smaller of the time budget and the
+     * time left before the deadline of the control.
+     *
+     * @param control Deadline, cancellation flag and progress listener of the run.
+     * @return AlgorithmResult containing the best solution cost and elapsed time.
+     */
+    @Override
+    public AlgorithmResult solve(SolverControl control) {
+        return AnytimeSolver.runUnder(control, c -> this.control = c, this::useVariableNeighbourhoodSearch);
+    }
+
+    /**
+     * Getter for the best solution found by the last call to useVariableNeighbourhoodSearch().
+     *
+     * @return Bitset of the open warehouses of the best solution.
+     */
+    @Override
+    public BitSolution getBestSolution() {
+        return bestSolution;
+    }
+}
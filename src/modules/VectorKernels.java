@@ -0,0 +1,204 @@
+package modules;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorKernels Class
+ * SIMD kernels of the full solution cost, written with the jdk.incubator.vector API, and the elementwise
+ * minimum used by BatchEvaluator.
+ * Only used through VectorSupport, so that the class is never loaded when the module is missing.
+ * Compiling it also needs "--add-modules jdk.incubator.vector": the Gradle build passes it to javac, and the
+ * IntelliJ module gets it from .idea/compiler.xml (Settings > Build > Compiler > Java Compiler).
+ * Minima are exact in float; every sum is widened to double lanes so the result matches the scalar evaluation
+ * up to the order of the additions.
+ */
+final class VectorKernels {
+
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED; // Float lanes of the CPU
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED; // Double lanes, half as many
+    private static final int LANES = FLOATS.length();
+
+    private VectorKernels() {
+    }
+
+    /**
+     * Computes the cost of a solution: the fixed costs of the open warehouses plus, for every client,
+     * its minimum allocation cost over the open warehouses.
+     *
+     * @param costMatrix The cost matrix of the instance.
+     * @param solution Bitset of the open warehouses, with at least one open.
+     * @param scratch Array of at least numClients floats, overwritten.
+     * @return Total cost of the solution.
+     */
+    static double solutionCost(CostMatrix costMatrix, BitSolution solution, float[] scratch) {
+        double total = fixedCostSum(costMatrix.getFixedCosts(), solution.getWords(), costMatrix.getNumWarehouses());
+        if (costMatrix.getLayout() == CostMatrix.Layout.COLUMN_MAJOR) {
+            return total + columnMajorAllocCost(costMatrix, solution, scratch);
+        }
+        return total + rowMajorAllocCost(costMatrix, solution);
+    }
+
+    /**
+     * Sums the fixed costs of the open warehouses with the open-facility mask.
+     *
+     * @param fixedCosts Fixed cost of each warehouse.
+     * @param words Bitset words of the open warehouses.
+     * @param numWarehouses Number of warehouses.
+     * @return Sum of the fixed costs of the open warehouses.
+     */
+    private static double fixedCostSum(float[] fixedCosts, long[] words, int numWarehouses) {
+        DoubleVector sum = DoubleVector.zero(DOUBLES);
+        int j = 0;
+        for (; j <= numWarehouses - LANES; j += LANES) {
+            VectorMask<Float> open = VectorMask.fromLong(FLOATS, maskBits(words, j));
+            FloatVector costs = FloatVector.zero(FLOATS).blend(FloatVector.fromArray(FLOATS, fixedCosts, j), open);
+            sum = sum.add(widen(costs, 0)).add(widen(costs, 1));
+        }
+        double total = sum.reduceLanes(VectorOperators.ADD);
+        for (; j < numWarehouses; j++) {
+            if ((words[j >>> 6] & (1L << j)) != 0) {
+                total += fixedCosts[j];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Row-major layout: each client row is reduced with a masked min over the open warehouses.
+     *
+     * @param costMatrix The cost matrix, in row-major layout.
+     * @param solution Bitset of the open warehouses.
+     * @return Sum of the minimum allocation costs.
+     */
+    private static double rowMajorAllocCost(CostMatrix costMatrix, BitSolution solution) {
+        float[] allocCosts = costMatrix.getAllocCosts();
+        long[] words = solution.getWords();
+        int numWarehouses = costMatrix.getNumWarehouses();
+        int numClients = costMatrix.getNumClients();
+        int vectorEnd = numWarehouses - numWarehouses % LANES;
+
+        // The masks only depend on the solution, so they are built once for every row
+        VectorMask<Float>[] masks = buildMasks(words, vectorEnd);
+        double total = 0;
+        for (int c = 0; c < numClients; c++) {
+            int row = c * numWarehouses;
+            FloatVector min = FloatVector.broadcast(FLOATS, Float.POSITIVE_INFINITY);
+            for (int j = 0, k = 0; j < vectorEnd; j += LANES, k++) {
+                FloatVector costs = FloatVector.fromArray(FLOATS, allocCosts, row + j);
+                min = min.min(costs.blend(Float.POSITIVE_INFINITY, masks[k].not()));
+            }
+            float clientMin = min.reduceLanes(VectorOperators.MIN);
+            for (int j = vectorEnd; j < numWarehouses; j++) {
+                if ((words[j >>> 6] & (1L << j)) != 0) {
+                    clientMin = Math.min(clientMin, allocCosts[row + j]);
+                }
+            }
+            total += clientMin;
+        }
+        return total;
+    }
+
+    /**
+     * Column-major layout: the column of every open warehouse is folded into the per-client minima.
+     *
+     * @param costMatrix The cost matrix, in column-major layout.
+     * @param solution Bitset of the open warehouses.
+     * @param min Array of at least numClients floats receiving the per-client minima.
+     * @return Sum of the minimum allocation costs.
+     */
+    private static double columnMajorAllocCost(CostMatrix costMatrix, BitSolution solution, float[] min) {
+        float[] allocCosts = costMatrix.getAllocCosts();
+        int numClients = costMatrix.getNumClients();
+        int vectorEnd = numClients - numClients % LANES;
+        java.util.Arrays.fill(min, 0, numClients, Float.POSITIVE_INFINITY);
+
+        for (int j = solution.nextSetBit(0); j >= 0; j = solution.nextSetBit(j + 1)) {
+            int column = j * numClients;
+            int c = 0;
+            for (; c < vectorEnd; c += LANES) {
+                FloatVector.fromArray(FLOATS, min, c)
+                        .min(FloatVector.fromArray(FLOATS, allocCosts, column + c))
+                        .intoArray(min, c);
+            }
+            for (; c < numClients; c++) {
+                min[c] = Math.min(min[c], allocCosts[column + c]);
+            }
+        }
+
+        DoubleVector sum = DoubleVector.zero(DOUBLES);
+        int c = 0;
+        for (; c < vectorEnd; c += LANES) {
+            FloatVector values = FloatVector.fromArray(FLOATS, min, c);
+            sum = sum.add(widen(values, 0)).add(widen(values, 1));
+        }
+        double total = sum.reduceLanes(VectorOperators.ADD);
+        for (; c < numClients; c++) {
+            total += min[c];
+        }
+        return total;
+    }
+
+    /**
+     * Folds a segment of costs into a segment of minima, element by element.
+     *
+     * @param mins Array of minima, updated.
+     * @param minsFrom First index of the minima segment.
+     * @param costs Array of costs.
+     * @param costsFrom First index of the costs segment.
+     * @param length Length of the segments.
+     */
+    static void minInto(float[] mins, int minsFrom, float[] costs, int costsFrom, int length) {
+        int k = 0;
+        for (; k <= length - LANES; k += LANES) {
+            FloatVector.fromArray(FLOATS, mins, minsFrom + k)
+                    .min(FloatVector.fromArray(FLOATS, costs, costsFrom + k))
+                    .intoArray(mins, minsFrom + k);
+        }
+        for (; k < length; k++) {
+            mins[minsFrom + k] = Math.min(mins[minsFrom + k], costs[costsFrom + k]);
+        }
+    }
+
+    /**
+     * Builds the lane masks of the open warehouses for every full vector of a row.
+     *
+     * @param words Bitset words of the open warehouses.
+     * @param vectorEnd Number of warehouses covered by full vectors.
+     * @return One mask per full vector.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static VectorMask<Float>[] buildMasks(long[] words, int vectorEnd) {
+        VectorMask<Float>[] masks = new VectorMask[vectorEnd / LANES];
+        for (int k = 0; k < masks.length; k++) {
+            masks[k] = VectorMask.fromLong(FLOATS, maskBits(words, k * LANES));
+        }
+        return masks;
+    }
+
+    /**
+     * Extracts the open bits of the LANES warehouses starting at an index aligned to LANES.
+     * LANES divides 64, so the bits never straddle two words.
+     *
+     * @param words Bitset words of the open warehouses.
+     * @param from First warehouse.
+     * @return The bits, lowest bit for the first warehouse.
+     */
+    private static long maskBits(long[] words, int from) {
+        return words[from >>> 6] >>> (from & 63);
+    }
+
+    /**
+     * Widens one half of a float vector to double lanes.
+     *
+     * @param values The float vector.
+     * @param part 0 for the lower half, 1 for the upper half.
+     * @return The double vector.
+     */
+    private static DoubleVector widen(FloatVector values, int part) {
+        return (DoubleVector) values.convertShape(VectorOperators.F2D, DOUBLES, part);
+    }
+}
@@ -0,0 +1,47 @@
+package modules;
+
+/**
+ * VectorSupport Class
+ * Runtime switch between the SIMD (jdk.incubator.vector) and the scalar evaluation backends.
+ * The Vector API is an incubator module in Java 17, so it is only used when the JVM was started with
+ * "--add-modules jdk.incubator.vector" (the Gradle build does this). The backend is enabled by default when the
+ * module is present, can be disabled with "-Duflp.vector=false", and can be switched at any time with setEnabled().
+ * VectorKernels, the only class that references the Vector API, is never loaded while the backend is disabled.
+ */
+public final class VectorSupport {
+
+    public static final String PROPERTY = "uflp.vector"; // System property that disables the backend when "false"
+
+    private static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    private static volatile boolean enabled = AVAILABLE && !"false".equalsIgnoreCase(System.getProperty(PROPERTY));
+
+    private VectorSupport() {
+    }
+
+    /**
+     * Checks whether the Vector API module is present in this JVM.
+     *
+     * @return true if the SIMD backend can be used.
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Checks whether the SIMD backend is in use.
+     *
+     * @return true if the evaluators use the SIMD backend, false if they use the scalar one.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Selects the evaluation backend. Enabling is ignored when the Vector API module is not present.
+     *
+     * @param useVectors true for the SIMD backend, false for the scalar one.
+     */
+    public static void setEnabled(boolean useVectors) {
+        enabled = useVectors && AVAILABLE;
+    }
+}
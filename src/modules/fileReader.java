@@ -1,29 +1,161 @@
 package modules;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * fileReader Class
- * This class is responsible for reading the .txt files and creating the Warehouse and Client Objects
- * and adding them to a DataContainer with Lists.
+ * This class is responsible for reading the .txt files, storing the costs in a CostMatrix
+ * and wrapping it in a DataContainer.
  */
 public class fileReader {
 
     /**
-     * Reads the file, parses the info of warehouses and clients, creates Warehouse and Client objects,
-     * adds each of them to the correct list, and creates a DataContainer object to transport Warehouses
-     * and Clients to the other modules.
+     * Parsing strategy used by the reader.
+     * BUFFERED reads the file line by line with a BufferedReader, MAPPED memory-maps it and parses the bytes directly.
+     */
+    public enum ParseMode {
+        BUFFERED,
+        MAPPED
+    }
+
+    private final CostMatrix.Layout layout; // Layout of the cost matrices built by this reader
+    private final ParseMode mode; // Parsing strategy
+    private InstanceCache cache; // Binary cache of the parsed files, or null to always parse the text
+    private double lastLoadTimeInSeconds; // Time taken by the last call to readFile
+
+    /**
+     * Default constructor for fileReader
+     * Memory-maps the files and builds row-major cost matrices (the costs of each client are contiguous).
+     */
+    public fileReader() {
+        this(ParseMode.MAPPED, CostMatrix.Layout.ROW_MAJOR);
+    }
+
+    /**
+     * Constructor for fileReader with a specific cost matrix layout
+     *
+     * @param layout The layout of the cost matrices built by this reader
+     */
+    public fileReader(CostMatrix.Layout layout) {
+        this(ParseMode.MAPPED, layout);
+    }
+
+    /**
+     * Constructor for fileReader with a specific parsing strategy and cost matrix layout
+     *
+     * @param mode The parsing strategy
+     * @param layout The layout of the cost matrices built by this reader
+     */
+    public fileReader(ParseMode mode, CostMatrix.Layout layout) {
+        this.mode = mode;
+        this.layout = layout;
+        this.cache = new InstanceCache();
+    }
+
+    /**
+     * Setter for the binary instance cache
+     *
+     * @param cache The cache used to store and reload parsed files, or null to disable caching
+     */
+    public void setCache(InstanceCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Getter for the time taken by the last call to readFile
+     *
+     * @return Load time in seconds
+     */
+    public double getLastLoadTimeInSeconds() {
+        return lastLoadTimeInSeconds;
+    }
+
+    /**
+     * Reads the file, parses the info of warehouses and clients, stores their costs in a CostMatrix,
+     * and creates a DataContainer object to transport the instance to the other modules.
      *
      * @param fileName The name of the file to be read.
-     * @return A DataContainer object containing lists of warehouses and clients.
+     * @return A DataContainer object containing the cost matrix and the warehouse and client views.
      * @throws FileNotFoundException If the specified file is not found.
      */
     public DataContainer readFile(String fileName) throws FileNotFoundException  {
+        long start = System.nanoTime();
+        DataContainer container = readCached(fileName);
+        if (container == null) {
+            container = (mode == ParseMode.MAPPED) ? readMapped(fileName) : readBuffered(fileName);
+            storeCached(fileName, container);
+        }
+        this.lastLoadTimeInSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        if (container != null) {
+            System.out.println("Loaded " + fileName + " (" + container.getCostMatrix().getNumWarehouses() + " warehouses, "
+                    + container.getCostMatrix().getNumClients() + " clients) in " + this.lastLoadTimeInSeconds + " seconds");
+        }
+        return container;
+    }
+
+    /**
+     * Reloads the file from the binary instance cache, if there is a valid cache file for it.
+     *
+     * @param fileName The name of the file to be read.
+     * @return A DataContainer object, or null if caching is disabled or the cache file is missing or stale.
+     */
+    private DataContainer readCached(String fileName) {
+        if (this.cache == null) {
+            return null;
+        }
+        CostMatrix matrix = this.cache.load(fileName, this.layout);
+        return matrix == null ? null : new DataContainer(matrix);
+    }
+
+    /**
+     * Writes a parsed file to the binary instance cache. Failures only disable the cache for that file.
+     *
+     * @param fileName The name of the file that was read.
+     * @param container The parsed instance, or null if the file could not be parsed.
+     */
+    private void storeCached(String fileName, DataContainer container) {
+        if (this.cache == null || container == null) {
+            return;
+        }
+        try {
+            this.cache.store(fileName, container.getCostMatrix());
+        } catch (IOException e) {
+            System.err.println("Could not write the instance cache of " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the file through a memory mapping with MappedFileParser, without logging the individual values.
+     *
+     * @param fileName The name of the file to be read.
+     * @return A DataContainer object, or null if the file has an invalid format.
+     * @throws FileNotFoundException If the specified file is not found.
+     */
+    private DataContainer readMapped(String fileName) throws FileNotFoundException {
+        if (!new File(fileName).isFile()) {
+            throw new FileNotFoundException(fileName);
+        }
+        try {
+            return new DataContainer(new MappedFileParser().parse(fileName, this.layout));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Reads the file line by line with a BufferedReader.
+     *
+     * @param fileName The name of the file to be read.
+     * @return A DataContainer object, or null if the file has an invalid format.
+     * @throws FileNotFoundException If the specified file is not found.
+     */
+    private DataContainer readBuffered(String fileName) throws FileNotFoundException {
         try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
             // Reading the number of warehouses and clients
             String line = br.readLine();
@@ -34,10 +166,9 @@ public class fileReader {
             int numWarehouses = Integer.parseInt(array[0].strip());
             int numClients = Integer.parseInt(array[1].strip());
 
-            List<Warehouse> warehouses = new ArrayList<>();
-            List<Client> clients = new ArrayList<>();
+            CostMatrix matrix = new CostMatrix(numWarehouses, numClients, this.layout);
 
-            // Reading and creation of Warehouses
+            // Reading of Warehouses
             for (int i = 0; i < numWarehouses; i++) {
                 String warehousesInfo = br.readLine();
                 String[] warehouseArray = warehousesInfo.split("\\s+");
@@ -45,11 +176,10 @@ public class fileReader {
                     throw new IOException("Invalid format for warehouse information.");
                 }
                 float fixedCost = Float.parseFloat(warehouseArray[1]);
-                Warehouse warehouse = new Warehouse(fixedCost);
-                warehouses.add(warehouse);
+                matrix.setFixedCost(i, fixedCost);
             }
 
-            // Reading and creation of Clients
+            // Reading of Clients
             for (int i = 0; i < numClients; i++) {
                 String cLine = br.readLine();
 
@@ -58,32 +188,30 @@ public class fileReader {
                     cLine = br.readLine();
                 }
                 int demand = Integer.parseInt(cLine.strip());
-                List<Float> allocationCosts = new ArrayList<>();
+                int costsRead = 0;
 
                 int costsToRead = numWarehouses;
-                while (allocationCosts.size() < costsToRead) {
+                while (costsRead < costsToRead) {
                     line = br.readLine();
                     if (line == null) {
                         throw new IOException("Unexpected end of file while reading client costs.");
                     }
                     String[] costsArray = line.trim().split("\\s+");
                     for (String cost : costsArray) {
-                        if (allocationCosts.size() < costsToRead) {
-                            allocationCosts.add(Float.parseFloat(cost));
+                        if (costsRead < costsToRead) {
+                            matrix.setAllocCost(i, costsRead++, Float.parseFloat(cost));
                         } else {
                             break; // Stop adding costs once we get all the costs attributed to that client
                         }
                     }
                 }
                 System.out.println("Alloc Cost client: "+ (i + 1) + " : ");
-                for(float cost : allocationCosts){
-                    System.out.println(cost);
+                for(int j = 0; j < numWarehouses; j++){
+                    System.out.println(matrix.getAllocCost(i, j));
                 }
-                Client client = new Client(allocationCosts);
-                clients.add(client);
             }
 
-            DataContainer container = new DataContainer(warehouses, clients);
+            DataContainer container = new DataContainer(matrix);
             return container;
 
         } catch (IOException e) {
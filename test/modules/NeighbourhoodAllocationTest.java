@@ -0,0 +1,101 @@
+package modules;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a warmed-up sweep of each neighbourhood, with every move scored by DeltaEvaluator.delta(),
+ * allocates nothing on the heap, using the per-thread allocation counter of the JVM.
+ */
+class NeighbourhoodAllocationTest {
+
+    private static final String INSTANCE = "src/FicheirosTeste/M/Kcapmo1.txt";
+    private static final int WARMUP_SWEEPS = 2_000; // Sweeps run before measuring, so that the JIT has compiled them
+
+    private static com.sun.management.ThreadMXBean threads; // Source of the per-thread allocation counter
+    private static DeltaEvaluator evaluator; // Evaluator of a random solution of the instance
+    private static BitSolution solution; // Solution around which the neighbourhoods are swept
+    private static int numWarehouses; // Number of warehouses of the instance
+
+    @BeforeAll
+    static void setUp() throws FileNotFoundException {
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        CostMatrix costMatrix = new fileReader().readFile(INSTANCE).getCostMatrix();
+        numWarehouses = costMatrix.getNumWarehouses();
+        SplittableRandom rand = new SplittableRandom(42);
+        solution = new BitSolution(numWarehouses);
+        for (int j = 0; j < numWarehouses; j++) {
+            if (rand.nextInt(3) == 0) {
+                solution.set(j);
+            }
+        }
+        solution.set(0);
+        evaluator = new DeltaEvaluator(costMatrix);
+        evaluator.load(solution);
+    }
+
+    @Test
+    void fullSwapSweepDoesNotAllocate() {
+        assertEquals(0, allocatedBytes(new SwapNeighbourhood(numWarehouses)));
+    }
+
+    @Test
+    void sampledSwapSweepDoesNotAllocate() {
+        assertEquals(0, allocatedBytes(new SwapNeighbourhood(numWarehouses, new SplittableRandom(7), 10)));
+    }
+
+    @Test
+    void flipSweepsDoNotAllocate() {
+        assertEquals(0, allocatedBytes(new FlipNeighbourhood(numWarehouses, false)));
+        assertEquals(0, allocatedBytes(new FlipNeighbourhood(numWarehouses, true)));
+    }
+
+    /**
+     * Measures the heap allocated by one sweep of a neighbourhood after warming it up, net of the allocations of
+     * the measurement itself.
+     *
+     * @param neighbourhood The neighbourhood.
+     * @return Bytes allocated by the sweep.
+     */
+    private static long allocatedBytes(Neighbourhood neighbourhood) {
+        assertTrue(threads.isThreadAllocatedMemorySupported(), "Allocation counters are not supported");
+        double sink = 0;
+        for (int i = 0; i < WARMUP_SWEEPS; i++) {
+            sink += sweep(neighbourhood);
+        }
+        long id = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(id);
+        long overhead = threads.getThreadAllocatedBytes(id) - before;
+        before = threads.getThreadAllocatedBytes(id);
+        sink += sweep(neighbourhood);
+        long allocated = threads.getThreadAllocatedBytes(id) - before - overhead;
+        assertTrue(sink != 0, "The sweeps scored no move");
+        return Math.max(0, allocated);
+    }
+
+    /**
+     * Sweeps a neighbourhood around the solution, scoring every valid move.
+     *
+     * @param neighbourhood The neighbourhood.
+     * @return Sum of the deltas of the moves, so that the scoring cannot be optimised away.
+     */
+    private static double sweep(Neighbourhood neighbourhood) {
+        double sum = 0;
+        neighbourhood.reset(solution);
+        while (neighbourhood.hasNext()) {
+            long move = neighbourhood.next();
+            if (evaluator.isValid(move)) {
+                double delta = evaluator.delta(move);
+                sum += delta == Double.POSITIVE_INFINITY ? 0 : delta;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,46 @@
+package modules;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.FileNotFoundException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks on ORLIB instances with known optima that ProblemReduction is exact: the optimum of the reduced instance
+ * plus the offset is the optimum of the original instance, and the mapped solution costs what the mapped result
+ * reports on the original instance.
+ */
+class ProblemReductionTest {
+
+    private static final String ORLIB = "src/FicheirosTeste/ORLIB/ORLIB-uncap/";
+
+    @ParameterizedTest
+    @ValueSource(strings = {"70/cap71.txt", "100/cap101.txt", "130/cap134.txt"})
+    void reducedOptimumMatchesKnownOptimum(String instance) throws FileNotFoundException {
+        String filePath = ORLIB + instance;
+        Double optimum = OptimalValues.forInstance(filePath);
+        assertNotNull(optimum, "No known optimum for " + instance);
+
+        DataContainer original = new fileReader().readFile(filePath);
+        LowerBound bound = new LowerBound(original);
+        bound.compute();
+        ProblemReduction reduction = new ProblemReduction(original, bound);
+
+        BranchAndBoundResult reduced = new BranchAndBound(reduction.getReducedContainer(), 1,
+                BranchAndBound.DEFAULT_TIME_LIMIT).useBranchAndBound();
+        assertTrue(reduced.isProvenOptimal(), "The reduced instance of " + instance + " was not solved exactly");
+        double reducedOptimum = reduced.getBestSolutionCost() + reduction.getOffset();
+        assertTrue(OptimalValues.matches(reducedOptimum, optimum),
+                instance + ": reduced optimum " + reducedOptimum + " differs from the known optimum " + optimum);
+
+        AlgorithmResult mapped = reduction.toOriginal(reduced);
+        double recosted = new DeltaEvaluator(original.getCostMatrix()).calculateSolutionCost(mapped.getBestSolution());
+        assertEquals(mapped.getBestSolutionCost(), recosted, 1e-9 * Math.abs(recosted));
+        assertTrue(OptimalValues.matches(recosted, optimum),
+                instance + ": mapped solution costs " + recosted + " instead of the known optimum " + optimum);
+    }
+}